@@ -18,22 +18,39 @@
 
 package com.brinkus.labs.neo4j.eureka;
 
+import com.brinkus.labs.neo4j.eureka.component.AmazonInfoResolver;
+import com.brinkus.labs.neo4j.eureka.component.CachedHostnameResolver;
 import com.brinkus.labs.neo4j.eureka.component.ConfigurationLoader;
+import com.brinkus.labs.neo4j.eureka.component.ConnectionPool;
+import com.brinkus.labs.neo4j.eureka.component.HealthStatusBridge;
+import com.brinkus.labs.neo4j.eureka.component.HttpReactor;
+import com.brinkus.labs.neo4j.eureka.component.LifecycleScheduler;
 import com.brinkus.labs.neo4j.eureka.component.LifecycleService;
-import com.brinkus.labs.neo4j.eureka.component.LifecycleServiceRunnable;
+import com.brinkus.labs.neo4j.eureka.component.RegistrationPayload;
 import com.brinkus.labs.neo4j.eureka.component.RestClient;
-import com.brinkus.labs.neo4j.eureka.component.ShutdownHook;
+import com.brinkus.labs.neo4j.eureka.component.ShutdownCoordinator;
 import com.brinkus.labs.neo4j.eureka.exception.EurekaPluginException;
 import com.brinkus.labs.neo4j.eureka.exception.EurekaPluginFatalException;
+import com.brinkus.labs.neo4j.eureka.type.RegistrationMode;
+import com.brinkus.labs.neo4j.eureka.type.TransportType;
+import com.brinkus.labs.neo4j.eureka.type.config.Aws;
+import com.brinkus.labs.neo4j.eureka.type.config.Client;
 import com.brinkus.labs.neo4j.eureka.type.config.Configuration;
+import com.brinkus.labs.neo4j.eureka.type.config.Propagation;
 import com.brinkus.labs.neo4j.eureka.type.config.Service;
+import com.brinkus.labs.neo4j.eureka.unmanaged.HealthEngines;
+import com.netflix.appinfo.AmazonInfo;
 import org.neo4j.logging.FormattedLog;
 import org.neo4j.logging.Log;
 import org.neo4j.server.plugins.Description;
 import org.neo4j.server.plugins.ServerPlugin;
 
+import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * Netflix Eureka service discovery plugin.
@@ -80,30 +97,152 @@ public class EurekaPlugin extends ServerPlugin {
         log.info("Start EurekaPlugin.");
 
         final Configuration configuration = loadConfiguration(pluginConfiguration.getConfigurationFilePath());
-        final List<RestClient> serviceClients = initializeServiceClients(configuration);
+        // the I/O reactor and the connection pools are closed after the de-registration
+        final List<Closeable> resources = new ArrayList<>();
+        final Map<Service, RestClient> serviceClients = initializeServiceClients(configuration, resources);
+        final AmazonInfoResolver amazonInfoResolver = initializeAmazonInfoResolver(pluginConfiguration, configuration.getAws());
+        final AmazonInfo amazonInfo = initialAmazonInfo(pluginConfiguration, amazonInfoResolver);
+        // encoded once and shared by the registrations to every discovery service
+        final RegistrationPayload registrationPayload = new RegistrationPayload.Builder()
+                .withRegistration(configuration.getRegistration())
+                .withAwsInfo(amazonInfo)
+                .withHostnameResolver(new CachedHostnameResolver.Builder()
+                                              .withTtlMs(configuration.getAws().getDnsHostnameTtlMs())
+                                              .withNegativeTtlMs(configuration.getAws().getDnsHostnameNegativeTtlMs())
+                                              .build())
+                .build();
+        final LifecycleScheduler scheduler = new LifecycleScheduler.Builder()
+                .withThreadCount(configuration.getScheduler().getThreadCount())
+                .withVirtualThreads(configuration.getScheduler().isVirtualThreads())
+                .withInitialJitterMs(configuration.getScheduler().getInitialJitterMs())
+                .withHeartbeatJitterPercent(configuration.getScheduler().getHeartbeatJitterPercent())
+                .withFailoverThreshold(configuration.getScheduler().getFailoverThreshold())
+                .build();
 
-        for (RestClient client : serviceClients) {
+        final List<LifecycleService> lifecycleServices = new ArrayList<>();
+
+        for (Map.Entry<Service, RestClient> serviceClient : serviceClients.entrySet()) {
+            final RestClient client = serviceClient.getValue();
             final LifecycleService lifecycleService = new LifecycleService.Builder()
                     .withRegistration(configuration.getRegistration())
                     .withRestClient(client)
-                    .withAwsInfo(pluginConfiguration.getAmazonInfo())
+                    .withAwsInfo(amazonInfo)
+                    .withTimeouts(serviceClient.getKey().getTimeouts())
+                    .withRegistrationPayload(registrationPayload)
                     .build();
 
-            log.info(String.format("Registering new shutdown hook for %s from %s to %s",
-                                   configuration.getRegistration().getName(),
-                                   configuration.getRegistration().getHostname(),
-                                   client.getHost()));
-            new ShutdownHook.Builder()
-                    .withLifecycleService(lifecycleService)
-                    .build()
-                    .register();
-
-            log.info(String.format("Starting lifecycle service for %s from %s to %s",
-                                   configuration.getRegistration().getName(),
-                                   configuration.getRegistration().getHostname(),
-                                   client.getHost()));
-            new Thread(new LifecycleServiceRunnable(lifecycleService)).start();
+            lifecycleServices.add(lifecycleService);
+        }
+
+        if (configuration.getScheduler().getMode() == RegistrationMode.PRIMARY) {
+            // the discovery services replicate the registration to their peers
+            log.info("Starting lifecycle service for %s from %s to the primary of %d discovery service(s)",
+                     configuration.getRegistration().getName(),
+                     configuration.getRegistration().getHostname(),
+                     lifecycleServices.size());
+            scheduler.schedulePrimary(lifecycleServices);
+        } else {
+            for (LifecycleService lifecycleService : lifecycleServices) {
+                log.info(String.format("Starting lifecycle service for %s from %s to %s",
+                                       configuration.getRegistration().getName(),
+                                       configuration.getRegistration().getHostname(),
+                                       lifecycleService.getRestClient().getHost()));
+                scheduler.schedule(lifecycleService);
+            }
+        }
+
+        if (amazonInfoResolver != null) {
+            resolveAmazonInfo(amazonInfoResolver, registrationPayload);
         }
+
+        final HealthStatusBridge healthStatusBridge = configuration.getHealth().getPropagation().isEnabled()
+                ? propagateHealthStatus(configuration.getHealth().getPropagation(), registrationPayload)
+                : null;
+
+        // a single hook de-registers from every discovery service concurrently, the drain endpoint drains through it
+        log.info("Registering the shutdown hook of %s from %s",
+                 configuration.getRegistration().getName(),
+                 configuration.getRegistration().getHostname());
+        new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .withTimeoutMs(configuration.getShutdown().getTimeoutMs())
+                .withDrainMs(configuration.getShutdown().getDrainMs())
+                .withVirtualThreads(configuration.getScheduler().isVirtualThreads())
+                .withBeforeShutdown(stopHealthStatus(healthStatusBridge))
+                .withResources(resources)
+                .build()
+                .register();
+    }
+
+    private AmazonInfoResolver initializeAmazonInfoResolver(final EurekaPluginConfiguration pluginConfiguration, final Aws aws) {
+        if (pluginConfiguration.getAmazonInfo() != null || !aws.isEnabled()) {
+            return null;
+        }
+        return new AmazonInfoResolver.Builder()
+                .withTimeoutMs(aws.getTimeoutMs())
+                .withCacheFilePath(aws.getCacheFile())
+                .build();
+    }
+
+    private AmazonInfo initialAmazonInfo(
+            final EurekaPluginConfiguration pluginConfiguration,
+            final AmazonInfoResolver amazonInfoResolver
+    ) {
+        if (pluginConfiguration.getAmazonInfo() != null) {
+            return pluginConfiguration.getAmazonInfo();
+        }
+        AmazonInfo cached = amazonInfoResolver == null ? null : amazonInfoResolver.getCached();
+        // without metadata the instance is registered with its own data center information
+        return cached == null ? new AmazonInfo() : cached;
+    }
+
+    private void resolveAmazonInfo(final AmazonInfoResolver amazonInfoResolver, final RegistrationPayload registrationPayload) {
+        log.info("Resolving the AWS metadata in the background.");
+        amazonInfoResolver.resolve().whenComplete(new BiConsumer<AmazonInfo, Throwable>() {
+            @Override
+            public void accept(final AmazonInfo amazonInfo, final Throwable throwable) {
+                if (throwable != null) {
+                    log.warn("The AWS metadata could not be resolved, keeping the current data center information.", throwable);
+                } else if (amazonInfo.getMetadata().isEmpty()) {
+                    log.info("No AWS metadata is available, keeping the current data center information.");
+                } else {
+                    // the next heartbeats carry the new registration to the discovery services
+                    log.info("The AWS metadata is resolved, updating the registration.");
+                    registrationPayload.setAmazonInfo(amazonInfo);
+                }
+            }
+        });
+    }
+
+    private HealthStatusBridge propagateHealthStatus(
+            final Propagation propagation,
+            final RegistrationPayload registrationPayload
+    ) {
+        log.info("Propagating the health status through the registration.");
+        HealthStatusBridge healthStatusBridge = new HealthStatusBridge.Builder()
+                .withRegistrationPayload(registrationPayload)
+                .withDownThreshold(propagation.getDownThreshold())
+                .withUpThreshold(propagation.getUpThreshold())
+                .withMinChangeIntervalMs(propagation.getMinChangeIntervalMs())
+                .withDegradedStatus(propagation.getDegradedStatus())
+                .build();
+        // the health checks are started by the health check endpoint's lifecycle with the database
+        HealthEngines.addListener(healthStatusBridge);
+        return healthStatusBridge;
+    }
+
+    private Runnable stopHealthStatus(final HealthStatusBridge healthStatusBridge) {
+        if (healthStatusBridge == null) {
+            return null;
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                // the registration is not changed while the instance is de-registered
+                HealthEngines.removeListener(healthStatusBridge);
+                healthStatusBridge.shutdown();
+            }
+        };
     }
 
     private Configuration loadConfiguration(final String configurationFilePath) {
@@ -117,16 +256,62 @@ public class EurekaPlugin extends ServerPlugin {
         }
     }
 
-    private List<RestClient> initializeServiceClients(final Configuration configuration) {
-        List<RestClient> clients = new ArrayList<>();
+    private Map<Service, RestClient> initializeServiceClients(final Configuration configuration, final List<Closeable> resources) {
+        final HttpReactor reactor = initializeReactor(configuration.getClient());
+        final ConnectionPool sharedPool = configuration.getClient().getPool().isShared()
+                ? initializeConnectionPool(configuration.getClient(), "shared")
+                : null;
+        if (reactor != null) {
+            resources.add(reactor);
+        }
+        if (sharedPool != null) {
+            resources.add(sharedPool);
+        }
+
+        Map<Service, RestClient> clients = new LinkedHashMap<>();
         for (Service service : configuration.getServices()) {
+            ConnectionPool connectionPool = sharedPool;
+            if (connectionPool == null && !configuration.getClient().getPool().isShared()) {
+                // every pool has its own idle connection evictor thread
+                connectionPool = initializeConnectionPool(configuration.getClient(), service.getHost().trim());
+                if (connectionPool != null) {
+                    resources.add(connectionPool);
+                }
+            }
             RestClient restClient = new RestClient.Builder()
                     .withHost(service.getHost().trim())
                     .withPort(service.getPort())
+                    .withReactor(reactor)
+                    .withConnectionPool(connectionPool)
+                    .withPool(configuration.getClient().getPool())
+                    .withTransportType(configuration.getClient().getTransport())
+                    .withRetry(configuration.getClient().getRetry())
+                    .withCircuitBreaker(configuration.getClient().getCircuitBreaker())
                     .build();
-            clients.add(restClient);
+            clients.put(service, restClient);
         }
         return clients;
     }
 
+    private HttpReactor initializeReactor(final Client client) {
+        if (!client.isAsync()) {
+            return null;
+        }
+        log.info("Starting shared I/O reactor with %d I/O thread(s).", client.getIoThreadCount());
+        return new HttpReactor.Builder()
+                .withIoThreadCount(client.getIoThreadCount())
+                .withPool(client.getPool())
+                .build();
+    }
+
+    private ConnectionPool initializeConnectionPool(final Client client, final String name) {
+        if (client.isAsync() || client.getTransport() != TransportType.APACHE) {
+            return null;
+        }
+        log.info("Creating %s connection pool with %d connection(s).", name, client.getPool().getMaxTotal());
+        return new ConnectionPool.Builder()
+                .withPool(client.getPool())
+                .build();
+    }
+
 }
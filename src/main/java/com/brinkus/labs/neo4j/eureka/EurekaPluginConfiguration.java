@@ -34,7 +34,7 @@ public class EurekaPluginConfiguration {
 
         private String configurationFilePath = EUREKA_CONFIGURATION_PATH;
 
-        private AmazonInfo amazonInfo = AmazonInfo.Builder.newBuilder().autoBuild("eureka");
+        private AmazonInfo amazonInfo;
 
         /**
          * Set the configuration file's path.
@@ -50,7 +50,7 @@ public class EurekaPluginConfiguration {
         }
 
         /**
-         * Set the AWS information instance.
+         * Set the AWS information instance. Without it the AWS metadata is resolved in the background.
          *
          * @param amazonInfo
          *         the AWS information instance.
@@ -101,7 +101,7 @@ public class EurekaPluginConfiguration {
     /**
      * Get the AWS information instance.
      *
-     * @return the AWS information instance.
+     * @return the AWS information instance, or null if the AWS metadata is resolved in the background.
      */
     public AmazonInfo getAmazonInfo() {
         return amazonInfo;
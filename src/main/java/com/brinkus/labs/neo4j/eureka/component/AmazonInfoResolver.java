@@ -0,0 +1,227 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.netflix.appinfo.AmazonInfo;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Resolve the AWS instance metadata in the background.
+ * <p>
+ * Querying the instance metadata service blocks for its connect timeouts and retries on the hosts outside of EC2 or
+ * with a slow metadata service, so it must not run on the plugin loading path of Neo4j. The plugin registers with the
+ * cached metadata of the previous start, or with its own data center information, and the resolved metadata replaces
+ * it in the registration payload once it arrives.
+ */
+public class AmazonInfoResolver {
+
+    /**
+     * Builder to create a new {@link AmazonInfoResolver} instance.
+     */
+    public static final class Builder {
+
+        private long timeoutMs = 10000;
+
+        private String cacheFilePath;
+
+        /**
+         * Set the time budget of the metadata resolution.
+         *
+         * @param timeoutMs
+         *         the time budget in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withTimeoutMs(final long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+            return this;
+        }
+
+        /**
+         * Set the path of the metadata cache file.
+         *
+         * @param cacheFilePath
+         *         the path of the cache file, null or empty to disable the cache.
+         *
+         * @return the builder instance.
+         */
+        public Builder withCacheFilePath(final String cacheFilePath) {
+            this.cacheFilePath = cacheFilePath;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link AmazonInfoResolver}.
+         *
+         * @return the resolver instance.
+         */
+        public AmazonInfoResolver build() {
+            Validate.isTrue(timeoutMs > 0, "The metadata resolution timeout must be positive!");
+            Path cacheFile = StringUtils.isBlank(cacheFilePath) ? null : Paths.get(cacheFilePath);
+            return new AmazonInfoResolver(new Callable<AmazonInfo>() {
+                @Override
+                public AmazonInfo call() {
+                    return AmazonInfo.Builder.newBuilder().autoBuild("eureka");
+                }
+            }, timeoutMs, cacheFile);
+        }
+
+    }
+
+    private static final String DATA_CENTER_NAME = "Amazon";
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final Callable<AmazonInfo> loader;
+
+    private final long timeoutMs;
+
+    private final Path cacheFile;
+
+    /**
+     * Create a new instance of {@link AmazonInfoResolver}.
+     *
+     * @param loader
+     *         the blocking query of the instance metadata service
+     * @param timeoutMs
+     *         the time budget of the metadata resolution in milliseconds
+     * @param cacheFile
+     *         the metadata cache file, or null to disable the cache
+     */
+    AmazonInfoResolver(final Callable<AmazonInfo> loader, final long timeoutMs, final Path cacheFile) {
+        this.loader = loader;
+        this.timeoutMs = timeoutMs;
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Get the metadata resolved by a previous start.
+     *
+     * @return the cached metadata, or null if there is no usable cache.
+     */
+    public AmazonInfo getCached() {
+        if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(cacheFile)) {
+            properties.load(input);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn(String.format("The AWS metadata cache %s could not be read, ignoring it!", cacheFile), e);
+            return null;
+        }
+        HashMap<String, String> metadata = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            metadata.put(key, properties.getProperty(key));
+        }
+        if (metadata.get(AmazonInfo.MetaDataKey.instanceId.getName()) == null) {
+            return null;
+        }
+        log.info("Using the cached AWS metadata of %s", metadata.get(AmazonInfo.MetaDataKey.instanceId.getName()));
+        return new AmazonInfo(DATA_CENTER_NAME, metadata);
+    }
+
+    /**
+     * Query the instance metadata service on a background thread. A successful result is written to the cache file,
+     * even if it arrived after the time budget.
+     *
+     * @return the future completed with the resolved metadata (empty outside of EC2), or exceptionally with a
+     * {@link TimeoutException} after the time budget.
+     */
+    public CompletableFuture<AmazonInfo> resolve() {
+        final CompletableFuture<AmazonInfo> result = new CompletableFuture<>();
+        ThreadFactories.platform("eureka-aws-metadata").newThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    AmazonInfo amazonInfo = loader.call();
+                    if (!amazonInfo.getMetadata().isEmpty()) {
+                        store(amazonInfo);
+                    }
+                    result.complete(amazonInfo);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }).start();
+
+        final ScheduledFuture<?> timeout = DeadlineTimer.delay(timeoutMs, new Runnable() {
+            @Override
+            public void run() {
+                result.completeExceptionally(new TimeoutException(
+                        String.format("The AWS metadata was not resolved within %d ms!", timeoutMs)));
+            }
+        });
+        result.whenComplete(new BiConsumer<AmazonInfo, Throwable>() {
+            @Override
+            public void accept(final AmazonInfo amazonInfo, final Throwable throwable) {
+                DeadlineTimer.cancel(timeout);
+            }
+        });
+        return result;
+    }
+
+    private void store(final AmazonInfo amazonInfo) {
+        if (cacheFile == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        for (Map.Entry<String, String> entry : amazonInfo.getMetadata().entrySet()) {
+            if (entry.getValue() != null) {
+                properties.setProperty(entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            // the cache is replaced atomically, so a crash cannot leave a truncated file behind
+            Path temporary = Files.createTempFile(parent, cacheFile.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream output = Files.newOutputStream(temporary)) {
+                    properties.store(output, "AWS instance metadata cached by the Neo4j Eureka plugin");
+                }
+                Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn(String.format("The AWS metadata cache %s could not be written!", cacheFile), e);
+        }
+    }
+
+}
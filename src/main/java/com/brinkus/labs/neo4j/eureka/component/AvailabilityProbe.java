@@ -0,0 +1,51 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import org.neo4j.graphdb.GraphDatabaseService;
+
+/**
+ * Health check of the availability of the database.
+ */
+public class AvailabilityProbe implements HealthProbe {
+
+    private final GraphDatabaseService service;
+
+    /**
+     * Create a new instance of {@link AvailabilityProbe}.
+     *
+     * @param service
+     *         the checked database
+     */
+    public AvailabilityProbe(final GraphDatabaseService service) {
+        this.service = service;
+    }
+
+    @Override
+    public HealthStatusCode check(final long timeoutMs) {
+        try {
+            return service.isAvailable(timeoutMs) ? HealthStatusCode.UP : HealthStatusCode.DOWN;
+        } catch (Exception e) {
+            return HealthStatusCode.OUT_OF_SERVICE;
+        }
+    }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.apache.commons.lang3.Validate;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking cache in front of a {@link HostnameResolver}.
+ * <p>
+ * The lookups run on a background thread and never on the caller's thread: an unknown address returns null at once
+ * and is resolved in the background, then every entry is refreshed in the background when its time to live expires.
+ * A failed lookup is cached for the shorter negative time to live, and it does not replace a hostname resolved before,
+ * so a DNS outage does not change the registered hostname. The listeners are notified when a hostname changes, so the
+ * registration can be encoded again.
+ */
+public class CachedHostnameResolver implements HostnameResolver {
+
+    /**
+     * Builder to create a new {@link CachedHostnameResolver} instance.
+     */
+    public static final class Builder {
+
+        private HostnameResolver resolver = new DnsHostnameResolver();
+
+        private long ttlMs = 300000;
+
+        private long negativeTtlMs = 30000;
+
+        /**
+         * Set the resolver executing the lookups.
+         *
+         * @param resolver
+         *         the blocking resolver.
+         *
+         * @return the builder instance.
+         */
+        public Builder withResolver(final HostnameResolver resolver) {
+            this.resolver = resolver;
+            return this;
+        }
+
+        /**
+         * Set the time to live of the resolved hostnames.
+         *
+         * @param ttlMs
+         *         the time to live in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withTtlMs(final long ttlMs) {
+            this.ttlMs = ttlMs;
+            return this;
+        }
+
+        /**
+         * Set the time to live of the failed lookups.
+         *
+         * @param negativeTtlMs
+         *         the time to live in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withNegativeTtlMs(final long negativeTtlMs) {
+            this.negativeTtlMs = negativeTtlMs;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link CachedHostnameResolver}.
+         *
+         * @return the resolver instance.
+         */
+        public CachedHostnameResolver build() {
+            Validate.notNull(resolver);
+            Validate.isTrue(ttlMs > 0, "The hostname time to live must be positive!");
+            Validate.isTrue(negativeTtlMs > 0, "The negative hostname time to live must be positive!");
+            return new CachedHostnameResolver(resolver, ttlMs, negativeTtlMs);
+        }
+
+    }
+
+    /**
+     * The cached result of a lookup.
+     */
+    private static final class Entry {
+
+        private final String hostname;
+
+        private final long expiresNanos;
+
+        private Entry(final String hostname, final long expiresNanos) {
+            this.hostname = hostname;
+            this.expiresNanos = expiresNanos;
+        }
+
+    }
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final HostnameResolver resolver;
+
+    private final long ttlMs;
+
+    private final long negativeTtlMs;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong lookups = new AtomicLong();
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Create a new instance of {@link CachedHostnameResolver}.
+     *
+     * @param resolver
+     *         the blocking resolver executing the lookups
+     * @param ttlMs
+     *         the time to live of the resolved hostnames in milliseconds
+     * @param negativeTtlMs
+     *         the time to live of the failed lookups in milliseconds
+     */
+    CachedHostnameResolver(final HostnameResolver resolver, final long ttlMs, final long negativeTtlMs) {
+        this.resolver = resolver;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.executor = new ScheduledThreadPoolExecutor(1, ThreadFactories.platform("eureka-hostname-resolver"));
+    }
+
+    /**
+     * Get the cached hostname of the IP address without blocking. An unknown or expired address is resolved in the
+     * background.
+     *
+     * @param ipAddress
+     *         the IP address.
+     *
+     * @return the cached hostname or null if it is not resolved (yet).
+     */
+    @Override
+    public String resolve(final String ipAddress) {
+        Entry entry = entries.get(ipAddress);
+        if (entry == null || entry.expiresNanos - System.nanoTime() < 0) {
+            refresh(ipAddress, 0);
+        }
+        return entry == null ? null : entry.hostname;
+    }
+
+    /**
+     * Add a listener notified on the background thread when a resolved hostname changes.
+     *
+     * @param listener
+     *         the listener.
+     */
+    public void addListener(final Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Get the number of the completed lookups of the underlying resolver.
+     *
+     * @return the number of the lookups.
+     */
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * Stop the background lookups.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void refresh(final String ipAddress, final long delayMs) {
+        // a single lookup per address is scheduled at a time
+        if (!pending.add(ipAddress)) {
+            return;
+        }
+        try {
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    lookup(ipAddress);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.remove(ipAddress);
+        }
+    }
+
+    private void lookup(final String ipAddress) {
+        String hostname;
+        try {
+            hostname = resolver.resolve(ipAddress);
+        } catch (RuntimeException e) {
+            log.warn(String.format("The hostname lookup of %s failed!", ipAddress), e);
+            hostname = null;
+        }
+
+        Entry previous = entries.get(ipAddress);
+        long ttl = hostname == null ? negativeTtlMs : ttlMs;
+        if (hostname == null && previous != null && previous.hostname != null) {
+            // keep the last known hostname during a DNS outage
+            log.warn("The hostname lookup of %s failed, keeping %s", ipAddress, previous.hostname);
+            hostname = previous.hostname;
+        }
+        entries.put(ipAddress, new Entry(hostname, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl)));
+        lookups.incrementAndGet();
+        pending.remove(ipAddress);
+        refresh(ipAddress, ttl);
+
+        if (!Objects.equals(previous == null ? null : previous.hostname, hostname)) {
+            log.info("The hostname of %s is %s", ipAddress, hostname);
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.CircuitState;
+import com.brinkus.labs.neo4j.eureka.type.config.Breaker;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of a discovery service. After the configured number of consecutive failures the circuit opens and
+ * the requests are rejected without touching the network. When the open time elapsed a single probe request is let
+ * through: its success closes the circuit, its failure opens it again.
+ */
+public class CircuitBreaker {
+
+    /**
+     * Builder to create a new {@link CircuitBreaker} instance.
+     */
+    public static final class Builder {
+
+        private String name;
+
+        private Breaker breaker = new Breaker();
+
+        /**
+         * Set the name of the protected discovery service.
+         *
+         * @param name
+         *         the name used in the log messages.
+         *
+         * @return the builder instance.
+         */
+        public Builder withName(final String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Set the circuit breaker settings.
+         *
+         * @param breaker
+         *         the circuit breaker settings.
+         *
+         * @return the builder instance.
+         */
+        public Builder withBreaker(final Breaker breaker) {
+            this.breaker = breaker;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link CircuitBreaker}.
+         *
+         * @return the circuit breaker instance.
+         */
+        public CircuitBreaker build() {
+            return new CircuitBreaker(name, breaker.getFailureThreshold(), TimeUnit.MILLISECONDS.toNanos(breaker.getOpenMs()));
+        }
+    }
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final String name;
+
+    private final int failureThreshold;
+
+    private final long openNanos;
+
+    private CircuitState state;
+
+    private int failures;
+
+    private long openedAt;
+
+    private boolean probing;
+
+    /**
+     * Create a new instance of {@link CircuitBreaker}.
+     *
+     * @param name
+     *         the name of the protected discovery service
+     * @param failureThreshold
+     *         the number of the consecutive failures that opens the circuit, 0 disables the breaker
+     * @param openNanos
+     *         the time in nanoseconds the circuit stays open
+     */
+    CircuitBreaker(final String name, final int failureThreshold, final long openNanos) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+        this.state = CircuitState.CLOSED;
+    }
+
+    /**
+     * Check that a request can be sent to the discovery service. In half-open state only the first caller gets the
+     * permission to send the probe request.
+     *
+     * @return true if the request is allowed.
+     */
+    public synchronized boolean allowRequest() {
+        if (failureThreshold <= 0) {
+            return true;
+        }
+        switch (state) {
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                transition(CircuitState.HALF_OPEN);
+                probing = true;
+                return true;
+            case HALF_OPEN:
+                if (probing) {
+                    return false;
+                }
+                probing = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Record a successful request (the discovery service responded).
+     */
+    public synchronized void onSuccess() {
+        failures = 0;
+        probing = false;
+        if (state != CircuitState.CLOSED) {
+            transition(CircuitState.CLOSED);
+        }
+    }
+
+    /**
+     * Record a failed request (the discovery service did not respond or it responded with a server error).
+     */
+    public synchronized void onFailure() {
+        if (failureThreshold <= 0) {
+            return;
+        }
+        failures++;
+        probing = false;
+        if (state == CircuitState.HALF_OPEN || (state == CircuitState.CLOSED && failures >= failureThreshold)) {
+            openedAt = System.nanoTime();
+            transition(CircuitState.OPEN);
+        }
+    }
+
+    /**
+     * Get the current state of the circuit.
+     *
+     * @return the circuit state.
+     */
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    private void transition(final CircuitState state) {
+        log.warn("Circuit breaker of %s changed from %s to %s after %d consecutive failure(s)", name, this.state, state, failures);
+        this.state = state;
+    }
+
+}
@@ -21,6 +21,7 @@ package com.brinkus.labs.neo4j.eureka.component;
 import com.brinkus.labs.neo4j.eureka.exception.ConfigurationLoadFailedException;
 import com.brinkus.labs.neo4j.eureka.exception.EurekaPluginException;
 import com.brinkus.labs.neo4j.eureka.type.config.Configuration;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
@@ -33,6 +34,11 @@ import java.io.IOException;
  */
 public class ConfigurationLoader {
 
+    /**
+     * The lease must outlive this many renewal intervals, so a couple of missed heartbeats do not evict the instance.
+     */
+    private static final int MIN_LEASE_RENEWALS = 3;
+
     private final ObjectMapper mapper;
 
     /**
@@ -53,15 +59,33 @@ public class ConfigurationLoader {
      * @return the configuration instance
      *
      * @throws ConfigurationLoadFailedException
-     *         an error occur during the reading process
+     *         an error occur during the reading process or the settings are invalid
      */
     public Configuration loadConfiguration(final String path) throws EurekaPluginException {
+        Configuration configuration;
         try {
             File source = new File(path);
-            return mapper.readValue(source, Configuration.class);
+            configuration = mapper.readValue(source, Configuration.class);
         } catch (IOException e) {
             throw new ConfigurationLoadFailedException(e);
         }
+        validateLease(configuration.getRegistration());
+        return configuration;
+    }
+
+    private void validateLease(final Registration registration) throws ConfigurationLoadFailedException {
+        if (registration == null) {
+            return;
+        }
+        if (registration.getRenewalIntervalSecs() <= 0) {
+            throw new ConfigurationLoadFailedException(String.format(
+                    "The lease renewal interval must be positive: %d sec!", registration.getRenewalIntervalSecs()));
+        }
+        if (registration.getDurationSecs() < MIN_LEASE_RENEWALS * registration.getRenewalIntervalSecs()) {
+            throw new ConfigurationLoadFailedException(String.format(
+                    "The lease duration (%d sec) must be at least %d times the renewal interval (%d sec)!",
+                    registration.getDurationSecs(), MIN_LEASE_RENEWALS, registration.getRenewalIntervalSecs()));
+        }
     }
 
 }
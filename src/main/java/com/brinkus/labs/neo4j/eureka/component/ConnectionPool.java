@@ -0,0 +1,205 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.PoolStatistics;
+import com.brinkus.labs.neo4j.eureka.type.config.Pool;
+import org.apache.commons.lang3.Validate;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Blocking HTTP client with a right-sized connection pool. One instance can be shared by all the {@link RestClient}
+ * instances, so the idle connections, the file descriptors and the idle connection evictor threads do not multiply
+ * with the number of the discovery services. The pools of the plugin are closed by the {@link ShutdownCoordinator}
+ * after the de-registration.
+ */
+public class ConnectionPool implements Closeable {
+
+    /**
+     * Builder to create a new {@link ConnectionPool} instance.
+     */
+    public static final class Builder {
+
+        private Pool pool = new Pool();
+
+        /**
+         * Set the connection pool settings.
+         *
+         * @param pool
+         *         the connection pool settings.
+         *
+         * @return the builder instance.
+         */
+        public Builder withPool(final Pool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link ConnectionPool}.
+         *
+         * @return the {@link ConnectionPool} instance.
+         */
+        public ConnectionPool build() {
+            Validate.notNull(pool);
+            Validate.isTrue(pool.getMaxTotal() > 0, "The maximum number of the connections must be positive!");
+            Validate.isTrue(pool.getMaxPerRoute() > 0, "The maximum number of the connections per route must be positive!");
+
+            final AtomicLong requests = new AtomicLong();
+            final AtomicLong connections = new AtomicLong();
+
+            HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connectionFactory =
+                    new HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection>() {
+                        @Override
+                        public ManagedHttpClientConnection create(final HttpRoute route, final ConnectionConfig config) {
+                            connections.incrementAndGet();
+                            return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+                        }
+                    };
+
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(connectionFactory);
+            connectionManager.setDefaultMaxPerRoute(pool.getMaxPerRoute());
+            connectionManager.setMaxTotal(pool.getMaxTotal());
+            connectionManager.setValidateAfterInactivity(pool.getValidateAfterInactivityMs());
+
+            final long keepAliveMs = TimeUnit.SECONDS.toMillis(pool.getKeepAliveSec());
+            ConnectionKeepAliveStrategy keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+                @Override
+                public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+                    // respect the server's shorter keep-alive timeout, otherwise use the configured one
+                    long duration = super.getKeepAliveDuration(response, context);
+                    return duration > 0 ? Math.min(duration, keepAliveMs) : keepAliveMs;
+                }
+            };
+
+            CloseableHttpClient httpClient = HttpClientBuilder
+                    .create()
+                    .setDefaultHeaders(Collections.singletonList(new BasicHeader(HttpHeaders.ACCEPT, "application/json")))
+                    .setConnectionManager(connectionManager)
+                    .setKeepAliveStrategy(keepAliveStrategy)
+                    .addInterceptorFirst(new HttpRequestInterceptor() {
+                        @Override
+                        public void process(final HttpRequest request, final HttpContext context) {
+                            requests.incrementAndGet();
+                        }
+                    })
+                    .evictExpiredConnections()
+                    .evictIdleConnections((long) pool.getMaxIdleTimeSec(), TimeUnit.SECONDS)
+                    .build();
+
+            return new ConnectionPool(httpClient, connectionManager, requests, connections);
+        }
+
+    }
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final CloseableHttpClient httpClient;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final AtomicLong requests;
+
+    private final AtomicLong connections;
+
+    /**
+     * Create a new instance of {@link ConnectionPool}.
+     *
+     * @param httpClient
+     *         the HTTP client using the connection pool.
+     * @param connectionManager
+     *         the pooling connection manager.
+     * @param requests
+     *         the counter of the executed requests.
+     * @param connections
+     *         the counter of the opened connections.
+     */
+    ConnectionPool(
+            final CloseableHttpClient httpClient,
+            final PoolingHttpClientConnectionManager connectionManager,
+            final AtomicLong requests,
+            final AtomicLong connections
+    ) {
+        this.httpClient = httpClient;
+        this.connectionManager = connectionManager;
+        this.requests = requests;
+        this.connections = connections;
+    }
+
+    /**
+     * Get the HTTP client using the connection pool.
+     *
+     * @return the HTTP client.
+     */
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Get the current usage of the connection pool.
+     *
+     * @return the connection pool statistics.
+     */
+    public PoolStatistics getStatistics() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return new PoolStatistics(stats.getLeased(),
+                                  stats.getAvailable(),
+                                  stats.getPending(),
+                                  stats.getMax(),
+                                  requests.get(),
+                                  connections.get());
+    }
+
+    /**
+     * Close the HTTP client, stop its idle connection evictor and release all the pooled connections.
+     */
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("An error occurred during the connection pool shutdown process!", e);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health check executing a read Cypher query.
+ * <p>
+ * The query runs in a transaction with the time budget of the check, so the database terminates a slow query, and the
+ * transaction is always rolled back, so the query cannot change the data.
+ */
+public class CypherProbe implements HealthProbe {
+
+    private final GraphDatabaseService service;
+
+    private final String query;
+
+    /**
+     * Create a new instance of {@link CypherProbe}.
+     *
+     * @param service
+     *         the checked database
+     * @param query
+     *         the Cypher query
+     */
+    public CypherProbe(final GraphDatabaseService service, final String query) {
+        this.service = service;
+        this.query = query;
+    }
+
+    @Override
+    public HealthStatusCode check(final long timeoutMs) {
+        try (Transaction transaction = service.beginTx(timeoutMs, TimeUnit.MILLISECONDS);
+             Result result = service.execute(query)) {
+            while (result.hasNext()) {
+                result.next();
+            }
+            transaction.failure();
+        }
+        return HealthStatusCode.UP;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide timer that aborts the requests running over their deadline and delays the request retries.
+ */
+final class DeadlineTimer {
+
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    /**
+     * Creates a new instance of {@link DeadlineTimer}
+     */
+    private DeadlineTimer() {
+        // utility class
+    }
+
+    /**
+     * Schedule the given task to the deadline.
+     *
+     * @param deadline
+     *         the deadline of the operation.
+     * @param task
+     *         the task that aborts the operation.
+     *
+     * @return the scheduled task that has to be cancelled if the operation completes in time, or null if the deadline
+     * is unbounded.
+     */
+    static ScheduledFuture<?> schedule(final Deadline deadline, final Runnable task) {
+        if (!deadline.isBounded()) {
+            return null;
+        }
+        return TIMER.schedule(task, deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Execute the given task after the delay.
+     *
+     * @param delayMs
+     *         the delay in milliseconds.
+     * @param task
+     *         the task to execute.
+     *
+     * @return the scheduled task.
+     */
+    static ScheduledFuture<?> delay(final long delayMs, final Runnable task) {
+        return TIMER.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancel the scheduled task.
+     *
+     * @param scheduled
+     *         the scheduled task (can be null).
+     */
+    static void cancel(final ScheduledFuture<?> scheduled) {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "eureka-deadline-timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+}
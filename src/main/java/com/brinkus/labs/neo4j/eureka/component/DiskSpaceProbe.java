@@ -0,0 +1,56 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+
+import java.io.File;
+
+/**
+ * Health check of the usable disk space of a directory, such as the store directory.
+ */
+public class DiskSpaceProbe implements HealthProbe {
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final File directory;
+
+    private final long minFreeMb;
+
+    /**
+     * Create a new instance of {@link DiskSpaceProbe}.
+     *
+     * @param path
+     *         the checked directory
+     * @param minFreeMb
+     *         the minimum usable disk space in megabytes
+     */
+    public DiskSpaceProbe(final String path, final long minFreeMb) {
+        this.directory = new File(path);
+        this.minFreeMb = minFreeMb;
+    }
+
+    @Override
+    public HealthStatusCode check(final long timeoutMs) {
+        // a missing directory has no usable space
+        return directory.getUsableSpace() / MEGABYTE >= minFreeMb ? HealthStatusCode.UP : HealthStatusCode.DOWN;
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Blocking reverse DNS lookup with the resolver of the JVM.
+ */
+public class DnsHostnameResolver implements HostnameResolver {
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    @Override
+    public String resolve(final String ipAddress) {
+        try {
+            String hostname = InetAddress.getByName(ipAddress).getHostName();
+            // the JVM returns the IP address itself if there is no PTR record
+            if (hostname != null && !hostname.equals(ipAddress)) {
+                log.info("Resolved the DNS hostname %s of %s", hostname, ipAddress);
+                return hostname;
+            }
+        } catch (UnknownHostException e) {
+            log.warn(String.format("The DNS hostname of %s could not be resolved!", ipAddress), e);
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring of the discovery services.
+ * <p>
+ * Every node is placed on the ring at several virtual points, and a key is served by the first node clockwise from
+ * the hash of the key, then by the following distinct nodes in ring order. The instances of the fleet spread evenly
+ * across the nodes, and adding or removing a node only moves the keys of that node.
+ *
+ * @param <T>
+ *         the type of the nodes.
+ */
+public final class HashRing<T> {
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+
+    private final int nodeCount;
+
+    /**
+     * Create a new instance of {@link HashRing}.
+     *
+     * @param nodes
+     *         the nodes by their stable key, e.g. the address of the discovery service
+     * @param virtualNodeCount
+     *         the number of the points of each node on the ring
+     */
+    public HashRing(final Map<String, T> nodes, final int virtualNodeCount) {
+        Validate.notEmpty(nodes);
+        Validate.isTrue(virtualNodeCount > 0, "The virtual node count must be positive!");
+        for (Map.Entry<String, T> node : nodes.entrySet()) {
+            for (int i = 0; i < virtualNodeCount; i++) {
+                ring.put(Jitter.hash(node.getKey() + "#" + i), node.getValue());
+            }
+        }
+        this.nodeCount = nodes.size();
+    }
+
+    /**
+     * Get the primary node of the key.
+     *
+     * @param key
+     *         the key, e.g. the instance id.
+     *
+     * @return the primary node.
+     */
+    public T getPrimary(final String key) {
+        return getSuccessors(key).get(0);
+    }
+
+    /**
+     * Get every node in the failover order of the key: the primary node first, then the following distinct nodes
+     * clockwise on the ring.
+     *
+     * @param key
+     *         the key, e.g. the instance id.
+     *
+     * @return the nodes in failover order.
+     */
+    public List<T> getSuccessors(final String key) {
+        long hash = Jitter.hash(key);
+        Set<T> successors = new LinkedHashSet<>();
+        collect(ring.tailMap(hash), successors);
+        collect(ring.headMap(hash), successors);
+        return Collections.unmodifiableList(new ArrayList<>(successors));
+    }
+
+    private void collect(final SortedMap<Long, T> points, final Set<T> successors) {
+        for (T node : points.values()) {
+            if (successors.size() == nodeCount) {
+                return;
+            }
+            successors.add(node);
+        }
+    }
+
+}
@@ -0,0 +1,481 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.config.Check;
+import com.brinkus.labs.neo4j.eureka.type.health.CheckResult;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthCheck;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthSnapshot;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.Validate;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Health checks of the instance executed in the background.
+ * <p>
+ * The configured probes are executed in parallel at a fixed interval, each within its own time budget, and their
+ * results are aggregated into the worst status code: a failed critical check takes the instance down, while a check
+ * slower than its latency objective or a failed non-critical check only degrades it. The result is encoded once per
+ * interval and published as an immutable {@link HealthSnapshot} through a volatile reference, so reading the health
+ * status is a single memory read and never waits for the database. A result older than the maximum staleness (the
+ * checks are stuck) is reported as {@link HealthStatusCode#DOWN}. The listeners receive every result on the background
+ * thread.
+ */
+public class HealthEngine {
+
+    /**
+     * Builder to create a new {@link HealthEngine} instance.
+     */
+    public static final class Builder {
+
+        private GraphDatabaseService service;
+
+        private long refreshIntervalMs = 5000;
+
+        private long maxStaleMs = 15000;
+
+        private long checkTimeoutMs = 1000;
+
+        private List<Check> checks = new ArrayList<>();
+
+        private boolean virtualThreads = false;
+
+        /**
+         * Set the checked database.
+         *
+         * @param service
+         *         the database service.
+         *
+         * @return the builder instance.
+         */
+        public Builder withService(final GraphDatabaseService service) {
+            this.service = service;
+            return this;
+        }
+
+        /**
+         * Set the interval of the background health checks.
+         *
+         * @param refreshIntervalMs
+         *         the interval in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withRefreshIntervalMs(final long refreshIntervalMs) {
+            this.refreshIntervalMs = refreshIntervalMs;
+            return this;
+        }
+
+        /**
+         * Set the maximum age of the published health check result.
+         *
+         * @param maxStaleMs
+         *         the maximum age in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withMaxStaleMs(final long maxStaleMs) {
+            this.maxStaleMs = maxStaleMs;
+            return this;
+        }
+
+        /**
+         * Set the time budget of the database availability check used without configured checks.
+         *
+         * @param checkTimeoutMs
+         *         the time budget in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withCheckTimeoutMs(final long checkTimeoutMs) {
+            this.checkTimeoutMs = checkTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Set the health check probes.
+         *
+         * @param checks
+         *         the settings of the probes.
+         *
+         * @return the builder instance.
+         */
+        public Builder withChecks(final List<Check> checks) {
+            this.checks = checks;
+            return this;
+        }
+
+        /**
+         * Set the virtual thread usage of the probes.
+         *
+         * @param virtualThreads
+         *         the virtual thread usage state.
+         *
+         * @return the builder instance.
+         */
+        public Builder withVirtualThreads(final boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link HealthEngine}.
+         *
+         * @return the health engine instance.
+         */
+        public HealthEngine build() {
+            Validate.notNull(service);
+            Validate.notNull(checks);
+            Validate.isTrue(refreshIntervalMs > 0, "The health check interval must be positive!");
+            Validate.isTrue(checkTimeoutMs > 0, "The health check timeout must be positive!");
+
+            Map<Check, HealthProbe> probes = new LinkedHashMap<>();
+            if (checks.isEmpty()) {
+                Check availability = new Check();
+                availability.setName(DEFAULT_CHECK);
+                availability.setTimeoutMs((int) checkTimeoutMs);
+                probes.put(availability, new AvailabilityProbe(service));
+            }
+            for (Check check : checks) {
+                probes.put(check, createProbe(check));
+            }
+            validateChecks(probes.keySet());
+            return new HealthEngine(probes, refreshIntervalMs, maxStaleMs,
+                                    ThreadFactories.create("eureka-health-probe", virtualThreads));
+        }
+
+        private HealthProbe createProbe(final Check check) {
+            Validate.notNull(check.getType(), "The type of the %s health check is missing!", check.getName());
+            switch (check.getType()) {
+                case CYPHER:
+                    Validate.notBlank(check.getQuery(), "The query of the %s health check is missing!", check.getName());
+                    return new CypherProbe(service, check.getQuery());
+                case WRITE:
+                    return new WriteProbe(service);
+                case DISK_SPACE:
+                    Validate.notBlank(check.getPath(), "The path of the %s health check is missing!", check.getName());
+                    return new DiskSpaceProbe(check.getPath(), check.getMinFreeMb());
+                case AVAILABILITY:
+                default:
+                    return new AvailabilityProbe(service);
+            }
+        }
+
+        private void validateChecks(final Set<Check> checks) {
+            Set<String> names = new HashSet<>();
+            long maxTimeoutMs = 0;
+            for (Check check : checks) {
+                Validate.notBlank(check.getName(), "The name of a health check is missing!");
+                Validate.isTrue(names.add(check.getName()), "The health check name %s is not unique!", check.getName());
+                Validate.isTrue(check.getTimeoutMs() > 0, "The timeout of the %s health check must be positive!", check.getName());
+                Validate.isTrue(check.getSloMs() >= 0, "The latency objective of the %s health check must not be negative!", check.getName());
+                maxTimeoutMs = Math.max(maxTimeoutMs, check.getTimeoutMs());
+            }
+            Validate.isTrue(maxStaleMs >= refreshIntervalMs + maxTimeoutMs,
+                            "The maximum staleness must not be less than the health check interval and the longest check timeout!");
+        }
+
+    }
+
+    /**
+     * A configured probe and its last execution.
+     */
+    private static final class Probe {
+
+        private final Check check;
+
+        private final HealthProbe probe;
+
+        private Future<CheckResult> execution;
+
+        private Probe(final Check check, final HealthProbe probe) {
+            this.check = check;
+            this.probe = probe;
+        }
+
+    }
+
+    /**
+     * The name of the availability check used without configured checks.
+     */
+    static final String DEFAULT_CHECK = "availability";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final HealthCheck STALE = new HealthCheck(HealthStatusCode.DOWN, "Neo4j health check result is stale!");
+
+    private static final byte[] STALE_CONTENT = encode(STALE);
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final List<Probe> probes = new ArrayList<>();
+
+    private final long refreshIntervalMs;
+
+    private final long maxStaleMs;
+
+    private final AtomicLong checks = new AtomicLong();
+
+    private final List<Consumer<HealthCheck>> listeners = new CopyOnWriteArrayList<>();
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final ExecutorService probeExecutor;
+
+    private volatile HealthSnapshot snapshot;
+
+    /**
+     * Create a new instance of {@link HealthEngine}.
+     *
+     * @param probes
+     *         the settings of the probes and the probes
+     * @param refreshIntervalMs
+     *         the interval of the background health checks in milliseconds
+     * @param maxStaleMs
+     *         the maximum age of the published result in milliseconds
+     * @param probeThreadFactory
+     *         the factory of the threads executing the probes
+     */
+    HealthEngine(
+            final Map<Check, HealthProbe> probes,
+            final long refreshIntervalMs,
+            final long maxStaleMs,
+            final ThreadFactory probeThreadFactory
+    ) {
+        for (Map.Entry<Check, HealthProbe> probe : probes.entrySet()) {
+            this.probes.add(new Probe(probe.getKey(), probe.getValue()));
+        }
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.maxStaleMs = maxStaleMs;
+        this.executor = new ScheduledThreadPoolExecutor(1, ThreadFactories.platform("eureka-health"));
+        this.probeExecutor = Executors.newFixedThreadPool(probes.size(), probeThreadFactory);
+    }
+
+    /**
+     * Execute the first health check on the caller's thread and schedule the next ones in the background.
+     *
+     * @return the health engine instance.
+     */
+    public HealthEngine start() {
+        refresh();
+        // the delay is counted from the end of the previous check, so a slow check does not pile up the next ones
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    // the result gets stale, but the next checks are still executed
+                    log.warn("The health check failed!", e);
+                }
+            }
+        }, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Get the last published health check result without blocking.
+     *
+     * @return the health snapshot, reported as down if it is older than the maximum staleness.
+     */
+    public HealthSnapshot getSnapshot() {
+        HealthSnapshot current = snapshot;
+        if (current.getAgeMs() > maxStaleMs) {
+            return new HealthSnapshot(STALE, STALE_CONTENT, current.getCheckedNanos());
+        }
+        return current;
+    }
+
+    /**
+     * Add a listener receiving the result of every health check on the background thread.
+     *
+     * @param listener
+     *         the listener.
+     */
+    public void addListener(final Consumer<HealthCheck> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener added by {@link #addListener(Consumer)}.
+     *
+     * @param listener
+     *         the listener.
+     */
+    public void removeListener(final Consumer<HealthCheck> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the maximum age of the published health check result.
+     *
+     * @return the maximum age in milliseconds.
+     */
+    public long getMaxStaleMs() {
+        return maxStaleMs;
+    }
+
+    /**
+     * Get the number of the executed health checks.
+     *
+     * @return the number of the checks.
+     */
+    public long getCheckCount() {
+        return checks.get();
+    }
+
+    /**
+     * Stop the background health checks.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        probeExecutor.shutdownNow();
+    }
+
+    private void refresh() {
+        long startNanos = System.nanoTime();
+        for (Probe probe : probes) {
+            // a probe still running since the previous interval is not started again
+            if (probe.execution == null || probe.execution.isDone()) {
+                probe.execution = probeExecutor.submit(execute(probe));
+            }
+        }
+
+        List<CheckResult> results = new ArrayList<>(probes.size());
+        HealthStatusCode code = HealthStatusCode.UP;
+        for (Probe probe : probes) {
+            CheckResult result = await(probe, startNanos);
+            results.add(result);
+            if (result.getCode().compareTo(code) > 0) {
+                code = result.getCode();
+            }
+        }
+
+        HealthCheck healthCheck = new HealthCheck(code, describe(code), results);
+        HealthSnapshot previous = snapshot;
+        snapshot = new HealthSnapshot(healthCheck, encode(healthCheck), System.nanoTime());
+        checks.incrementAndGet();
+        if (previous == null || previous.getHealthCheck().getCode() != code) {
+            log.info("The Neo4j health status is %s %s", code, results);
+        }
+        for (Consumer<HealthCheck> listener : listeners) {
+            try {
+                listener.accept(healthCheck);
+            } catch (RuntimeException e) {
+                log.warn("A health check listener failed!", e);
+            }
+        }
+    }
+
+    private Callable<CheckResult> execute(final Probe probe) {
+        return new Callable<CheckResult>() {
+            @Override
+            public CheckResult call() {
+                long startNanos = System.nanoTime();
+                HealthStatusCode code;
+                String description = null;
+                try {
+                    code = probe.probe.check(probe.check.getTimeoutMs());
+                } catch (Exception e) {
+                    code = HealthStatusCode.DOWN;
+                    description = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                }
+                return evaluate(probe.check, code, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), description);
+            }
+        };
+    }
+
+    private CheckResult await(final Probe probe, final long startNanos) {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        try {
+            return probe.execution.get(Math.max(probe.check.getTimeoutMs() - elapsedMs, 0), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return evaluate(probe.check, HealthStatusCode.DOWN, elapsedMs, "The check was interrupted.");
+        } catch (ExecutionException e) {
+            return evaluate(probe.check, HealthStatusCode.DOWN, elapsedMs, e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            // the probe is not interrupted, the transaction timeout of the database terminates a slow query
+            return evaluate(probe.check, HealthStatusCode.DOWN, probe.check.getTimeoutMs(),
+                            String.format("The check did not complete in %d ms.", probe.check.getTimeoutMs()));
+        }
+    }
+
+    private static CheckResult evaluate(
+            final Check check,
+            final HealthStatusCode code,
+            final long durationMs,
+            final String description
+    ) {
+        if (code == HealthStatusCode.UP && check.getSloMs() > 0 && durationMs > check.getSloMs()) {
+            return new CheckResult(check.getName(), HealthStatusCode.DEGRADED, durationMs,
+                                   String.format("The check took longer than %d ms.", check.getSloMs()));
+        }
+        if (!check.isCritical() && code.compareTo(HealthStatusCode.DEGRADED) > 0) {
+            return new CheckResult(check.getName(), HealthStatusCode.DEGRADED, durationMs, description);
+        }
+        return new CheckResult(check.getName(), code, durationMs, description);
+    }
+
+    private static String describe(final HealthStatusCode code) {
+        switch (code) {
+            case UP:
+                return "Neo4j health check was success.";
+            case DEGRADED:
+                return "Neo4j health check was degraded!";
+            case DOWN:
+                return "Neo4j health check result was invalid!";
+            default:
+                return "Neo4j health check failed!";
+        }
+    }
+
+    private static byte[] encode(final HealthCheck healthCheck) {
+        try {
+            return MAPPER.writeValueAsBytes(healthCheck);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(String.format("The %s health check could not be encoded!", healthCheck), e);
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+
+/**
+ * A single health check of the instance executed by the {@link HealthEngine}.
+ */
+public interface HealthProbe {
+
+    /**
+     * Execute the check. The engine measures the duration, and reports the check as failed if it throws an exception
+     * or does not complete within the time budget.
+     *
+     * @param timeoutMs
+     *         the time budget of the check in milliseconds.
+     *
+     * @return the status code of the check.
+     *
+     * @throws Exception
+     *         if the check failed.
+     */
+    HealthStatusCode check(long timeoutMs) throws Exception;
+
+}
@@ -0,0 +1,273 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthCheck;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import org.apache.commons.lang3.Validate;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Propagation of the local health status to the discovery services.
+ * <p>
+ * The bridge receives every health check result and maps it to an instance status: UP, the configured status of a
+ * degraded instance, or DOWN. A new status is only accepted after the configured number of consecutive results
+ * (hysteresis, with more successful results required to go up than failed ones to go down) and not sooner than the
+ * minimum interval after the previous change (debounce), so a flapping check does not flap the registry.
+ * <p>
+ * An accepted status is only carried by the registration, as the stock Eureka client does: it is set in the
+ * registration payload with a new dirty timestamp, the next heartbeat of every discovery service is rejected with 404
+ * as its timestamp is newer than the registered one, and the registration is sent again with the new status. No
+ * status override is set in the discovery services, so a lost request cannot leave the instance DOWN, and the clients
+ * stop routing to an unhealthy instance after the next heartbeat and their next registry refresh.
+ */
+public class HealthStatusBridge implements Consumer<HealthCheck> {
+
+    /**
+     * Builder to create a new {@link HealthStatusBridge} instance.
+     */
+    public static final class Builder {
+
+        private RegistrationPayload registrationPayload;
+
+        private int downThreshold = 2;
+
+        private int upThreshold = 3;
+
+        private long minChangeIntervalMs = 10000;
+
+        private InstanceStatus degradedStatus = InstanceStatus.UP;
+
+        /**
+         * Set the registration payload shared by the lifecycle services.
+         *
+         * @param registrationPayload
+         *         the registration payload.
+         *
+         * @return the builder instance.
+         */
+        public Builder withRegistrationPayload(final RegistrationPayload registrationPayload) {
+            this.registrationPayload = registrationPayload;
+            return this;
+        }
+
+        /**
+         * Set the number of the consecutive failed health checks taking the instance down.
+         *
+         * @param downThreshold
+         *         the number of the checks.
+         *
+         * @return the builder instance.
+         */
+        public Builder withDownThreshold(final int downThreshold) {
+            this.downThreshold = downThreshold;
+            return this;
+        }
+
+        /**
+         * Set the number of the consecutive successful health checks taking the instance up again.
+         *
+         * @param upThreshold
+         *         the number of the checks.
+         *
+         * @return the builder instance.
+         */
+        public Builder withUpThreshold(final int upThreshold) {
+            this.upThreshold = upThreshold;
+            return this;
+        }
+
+        /**
+         * Set the minimum time between two status changes.
+         *
+         * @param minChangeIntervalMs
+         *         the time in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withMinChangeIntervalMs(final long minChangeIntervalMs) {
+            this.minChangeIntervalMs = minChangeIntervalMs;
+            return this;
+        }
+
+        /**
+         * Set the registered status of a degraded instance.
+         *
+         * @param degradedStatus
+         *         the instance status.
+         *
+         * @return the builder instance.
+         */
+        public Builder withDegradedStatus(final InstanceStatus degradedStatus) {
+            this.degradedStatus = degradedStatus;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link HealthStatusBridge}.
+         *
+         * @return the bridge instance.
+         */
+        public HealthStatusBridge build() {
+            Validate.notNull(registrationPayload);
+            Validate.notNull(degradedStatus);
+            Validate.isTrue(downThreshold > 0, "The down threshold must be positive!");
+            Validate.isTrue(upThreshold > 0, "The up threshold must be positive!");
+            Validate.isTrue(minChangeIntervalMs >= 0, "The minimum status change interval must not be negative!");
+            return new HealthStatusBridge(registrationPayload, downThreshold, upThreshold, minChangeIntervalMs,
+                                          degradedStatus);
+        }
+
+    }
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final RegistrationPayload registrationPayload;
+
+    private final int downThreshold;
+
+    private final int upThreshold;
+
+    private final long minChangeIntervalNanos;
+
+    private final InstanceStatus degradedStatus;
+
+    private final AtomicLong changes = new AtomicLong();
+
+    private InstanceStatus status;
+
+    private InstanceStatus candidate;
+
+    private int streak;
+
+    private long changedNanos;
+
+    private boolean stopped;
+
+    /**
+     * Create a new instance of {@link HealthStatusBridge}.
+     *
+     * @param registrationPayload
+     *         the registration payload shared by the lifecycle services
+     * @param downThreshold
+     *         the number of the consecutive failed checks taking the instance down
+     * @param upThreshold
+     *         the number of the consecutive successful checks taking the instance up again
+     * @param minChangeIntervalMs
+     *         the minimum time between two status changes in milliseconds
+     * @param degradedStatus
+     *         the registered status of a degraded instance
+     */
+    HealthStatusBridge(
+            final RegistrationPayload registrationPayload,
+            final int downThreshold,
+            final int upThreshold,
+            final long minChangeIntervalMs,
+            final InstanceStatus degradedStatus
+    ) {
+        this.registrationPayload = registrationPayload;
+        this.downThreshold = downThreshold;
+        this.upThreshold = upThreshold;
+        this.minChangeIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minChangeIntervalMs);
+        this.degradedStatus = degradedStatus;
+        this.status = registrationPayload.getStatus();
+        this.candidate = status;
+        this.changedNanos = System.nanoTime() - minChangeIntervalNanos;
+    }
+
+    /**
+     * Receive a health check result.
+     *
+     * @param healthCheck
+     *         the health check result.
+     */
+    @Override
+    public synchronized void accept(final HealthCheck healthCheck) {
+        if (stopped) {
+            return;
+        }
+        InstanceStatus observed = toInstanceStatus(healthCheck.getCode());
+        if (observed != candidate) {
+            candidate = observed;
+            streak = 0;
+        }
+        streak++;
+        if (candidate == status || streak < (candidate == InstanceStatus.UP ? upThreshold : downThreshold)) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - changedNanos < minChangeIntervalNanos) {
+            // the change is accepted by a later check after the interval
+            return;
+        }
+
+        log.info("The health status is %s after %d check(s), changing the registered status from %s to %s",
+                 healthCheck.getCode(), streak, status, candidate);
+        status = candidate;
+        changedNanos = now;
+        changes.incrementAndGet();
+        // the next heartbeats are rejected and the registrations are sent again with the new status
+        registrationPayload.setStatus(status);
+    }
+
+    /**
+     * Get the registered status of the instance.
+     *
+     * @return the instance status.
+     */
+    public synchronized InstanceStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the number of the registered status changes.
+     *
+     * @return the number of the changes.
+     */
+    public long getChangeCount() {
+        return changes.get();
+    }
+
+    /**
+     * Stop the status propagation. The status change in progress is awaited, so the registration payload is not
+     * changed after the method returned.
+     */
+    public synchronized void shutdown() {
+        stopped = true;
+    }
+
+    private InstanceStatus toInstanceStatus(final HealthStatusCode code) {
+        switch (code) {
+            case UP:
+                return InstanceStatus.UP;
+            case DEGRADED:
+                return degradedStatus;
+            default:
+                return InstanceStatus.DOWN;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+/**
+ * Resolve the hostname of the instance from its IP address, e.g. with a reverse DNS lookup.
+ * <p>
+ * The {@link InstanceInfoFactory} uses the resolver when the registration overrides the AWS hostname with the DNS
+ * hostname. The implementations may block, the {@link CachedHostnameResolver} keeps the lookups off the registration
+ * path.
+ */
+public interface HostnameResolver {
+
+    /**
+     * Resolve the hostname of the IP address.
+     *
+     * @param ipAddress
+     *         the IP address.
+     *
+     * @return the hostname or null if it is not known.
+     */
+    String resolve(String ipAddress);
+
+}
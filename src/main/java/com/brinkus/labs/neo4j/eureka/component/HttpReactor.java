@@ -0,0 +1,168 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.config.Pool;
+import org.apache.commons.lang3.Validate;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.protocol.HttpContext;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking HTTP client running on a single I/O reactor. One instance can be shared by all the {@link RestClient}
+ * instances, so the number of the I/O threads and the connections does not depend on the number of the discovery
+ * services. The lifecycle steps use the blocking methods of the {@link RestClient}, so they still wait for the response
+ * on their scheduler thread, only the I/O is executed by the reactor.
+ * <p>
+ * The I/O dispatcher threads are daemon threads, and the reactor is closed by the {@link ShutdownCoordinator} after
+ * the de-registration.
+ */
+public class HttpReactor implements Closeable {
+
+    /**
+     * Builder to create a new {@link HttpReactor} instance.
+     */
+    public static final class Builder {
+
+        private int ioThreadCount = 1;
+
+        private Pool pool = new Pool();
+
+        /**
+         * Set the number of the I/O dispatcher threads.
+         *
+         * @param ioThreadCount
+         *         the number of the I/O dispatcher threads.
+         *
+         * @return the builder instance.
+         */
+        public Builder withIoThreadCount(final int ioThreadCount) {
+            this.ioThreadCount = ioThreadCount;
+            return this;
+        }
+
+        /**
+         * Set the connection pool settings of the reactor.
+         *
+         * @param pool
+         *         the connection pool settings.
+         *
+         * @return the builder instance.
+         */
+        public Builder withPool(final Pool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Create and start a new instance of the {@link HttpReactor}.
+         *
+         * @return the {@link HttpReactor} instance.
+         */
+        public HttpReactor build() {
+            Validate.isTrue(ioThreadCount > 0, "The I/O thread count must be positive!");
+
+            IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                    .setIoThreadCount(ioThreadCount)
+                    .setSoKeepAlive(true)
+                    .build();
+
+            final long keepAliveMs = TimeUnit.SECONDS.toMillis(pool.getKeepAliveSec());
+            ConnectionKeepAliveStrategy keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+                @Override
+                public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+                    long duration = super.getKeepAliveDuration(response, context);
+                    return duration > 0 ? Math.min(duration, keepAliveMs) : keepAliveMs;
+                }
+            };
+
+            CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                    .setDefaultIOReactorConfig(reactorConfig)
+                    .setDefaultHeaders(Collections.singletonList(new BasicHeader(HttpHeaders.ACCEPT, "application/json")))
+                    .setMaxConnTotal(pool.getMaxTotal())
+                    .setMaxConnPerRoute(pool.getMaxPerRoute())
+                    .setKeepAliveStrategy(keepAliveStrategy)
+                    .setThreadFactory(ThreadFactories.platform("eureka-io"))
+                    .build();
+            client.start();
+
+            return new HttpReactor(client);
+        }
+
+    }
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final CloseableHttpAsyncClient client;
+
+    /**
+     * Create a new instance of {@link HttpReactor}.
+     *
+     * @param client
+     *         the started non-blocking HTTP client.
+     */
+    HttpReactor(final CloseableHttpAsyncClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Get the non-blocking HTTP client.
+     *
+     * @return the non-blocking HTTP client.
+     */
+    public HttpAsyncClient getClient() {
+        return client;
+    }
+
+    /**
+     * Check that the I/O reactor is running.
+     *
+     * @return true if the reactor accepts new requests.
+     */
+    public boolean isRunning() {
+        return client.isRunning();
+    }
+
+    /**
+     * Stop the I/O reactor and release all the pooled connections.
+     */
+    @Override
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            log.warn("An error occurred during the I/O reactor shutdown process!", e);
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Streaming JSON encoder of the {@link InstanceInfo} registration payload.
+ * <p>
+ * The encoder writes the fields populated by the {@link InstanceInfoFactory} directly with a Jackson
+ * {@link JsonGenerator}, in the same wire format as Eureka's {@code JsonXStream} converter, without the reflective
+ * object graph walk of XStream.
+ */
+public final class InstanceInfoEncoder {
+
+    private static final InstanceInfoEncoder ENCODER = new InstanceInfoEncoder();
+
+    private static final String DEFAULT_DATA_CENTER_CLASS = "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo";
+
+    private static final String AMAZON_DATA_CENTER_CLASS = "com.netflix.appinfo.AmazonInfo";
+
+    private static final String NO_SID = "na";
+
+    private static final int INITIAL_SIZE = 1024;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Creates a new instance of {@link InstanceInfoEncoder}
+     */
+    private InstanceInfoEncoder() {
+        // default
+    }
+
+    /**
+     * Get the {@link InstanceInfoEncoder}. The encoder is stateless and thread-safe.
+     *
+     * @return the {@link InstanceInfoEncoder} instance.
+     */
+    public static InstanceInfoEncoder getEncoder() {
+        return ENCODER;
+    }
+
+    /**
+     * Encode the instance information.
+     *
+     * @param instanceInfo
+     *         the instance information.
+     *
+     * @return the UTF-8 encoded JSON.
+     *
+     * @throws IOException
+     *         if the instance information could not be encoded.
+     */
+    public byte[] encode(final InstanceInfo instanceInfo) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(INITIAL_SIZE);
+        encode(instanceInfo, stream);
+        return stream.toByteArray();
+    }
+
+    /**
+     * Encode the instance information to the stream. The stream is not closed.
+     *
+     * @param instanceInfo
+     *         the instance information.
+     * @param stream
+     *         the target stream.
+     *
+     * @throws IOException
+     *         if the instance information could not be encoded or written.
+     */
+    public void encode(final InstanceInfo instanceInfo, final OutputStream stream) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(stream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("instance");
+            writeInstance(generator, instanceInfo);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeInstance(final JsonGenerator generator, final InstanceInfo instanceInfo) throws IOException {
+        writeOptional(generator, "instanceId", instanceInfo.getInstanceId());
+        generator.writeStringField("hostName", String.valueOf(instanceInfo.getHostName()));
+        generator.writeStringField("app", String.valueOf(instanceInfo.getAppName()));
+        generator.writeStringField("ipAddr", String.valueOf(instanceInfo.getIPAddr()));
+        writeSid(generator, instanceInfo);
+        generator.writeStringField("status", instanceInfo.getStatus().name());
+        generator.writeStringField("overriddenstatus", instanceInfo.getOverriddenStatus().name());
+        writePort(generator, "port", instanceInfo.getPort(), instanceInfo.isPortEnabled(InstanceInfo.PortType.UNSECURE));
+        writePort(generator, "securePort", instanceInfo.getSecurePort(), instanceInfo.isPortEnabled(InstanceInfo.PortType.SECURE));
+        writeCountryId(generator, instanceInfo);
+        if (instanceInfo.getDataCenterInfo() != null) {
+            writeDataCenterInfo(generator, instanceInfo.getDataCenterInfo());
+        }
+        if (instanceInfo.getLeaseInfo() != null) {
+            writeLeaseInfo(generator, instanceInfo.getLeaseInfo());
+        }
+        if (instanceInfo.getMetadata() != null) {
+            writeMap(generator, "metadata", instanceInfo.getMetadata());
+        }
+        writeOptional(generator, "appGroupName", instanceInfo.getAppGroupName());
+        writeOptional(generator, "homePageUrl", instanceInfo.getHomePageUrl());
+        writeOptional(generator, "statusPageUrl", instanceInfo.getStatusPageUrl());
+        writeOptional(generator, "healthCheckUrl", instanceInfo.getHealthCheckUrl());
+        writeOptional(generator, "secureHealthCheckUrl", instanceInfo.getSecureHealthCheckUrl());
+        writeOptional(generator, "vipAddress", instanceInfo.getVIPAddress());
+        writeOptional(generator, "secureVipAddress", instanceInfo.getSecureVipAddress());
+        generator.writeBooleanField("isCoordinatingDiscoveryServer", Boolean.TRUE.equals(instanceInfo.isCoordinatingDiscoveryServer()));
+        generator.writeNumberField("lastUpdatedTimestamp", instanceInfo.getLastUpdatedTimestamp());
+        if (instanceInfo.getLastDirtyTimestamp() != null) {
+            generator.writeNumberField("lastDirtyTimestamp", instanceInfo.getLastDirtyTimestamp());
+        }
+        writeOptional(generator, "asgName", instanceInfo.getASGName());
+    }
+
+    // kept for wire compatibility with the Jackson/XStream codec of the Eureka client
+    @SuppressWarnings("deprecation")
+    private void writeSid(final JsonGenerator generator, final InstanceInfo instanceInfo) throws IOException {
+        String sid = instanceInfo.getSID();
+        if (sid != null && !NO_SID.equals(sid)) {
+            generator.writeStringField("sid", sid);
+        }
+    }
+
+    // kept for wire compatibility, like the sid
+    @SuppressWarnings("deprecation")
+    private void writeCountryId(final JsonGenerator generator, final InstanceInfo instanceInfo) throws IOException {
+        generator.writeNumberField("countryId", instanceInfo.getCountryId());
+    }
+
+    private void writePort(final JsonGenerator generator, final String name, final int port, final boolean enabled) throws IOException {
+        // XStream attribute and value notation of the Eureka wire format
+        generator.writeObjectFieldStart(name);
+        generator.writeStringField("@enabled", String.valueOf(enabled));
+        generator.writeStringField("$", String.valueOf(port));
+        generator.writeEndObject();
+    }
+
+    private void writeDataCenterInfo(final JsonGenerator generator, final DataCenterInfo dataCenterInfo) throws IOException {
+        generator.writeObjectFieldStart("dataCenterInfo");
+        if (dataCenterInfo instanceof AmazonInfo) {
+            generator.writeStringField("@class", AMAZON_DATA_CENTER_CLASS);
+            generator.writeStringField("name", dataCenterInfo.getName().name());
+            writeMap(generator, "metadata", ((AmazonInfo) dataCenterInfo).getMetadata());
+        } else {
+            generator.writeStringField("@class", DEFAULT_DATA_CENTER_CLASS);
+            generator.writeStringField("name", dataCenterInfo.getName().name());
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeLeaseInfo(final JsonGenerator generator, final LeaseInfo leaseInfo) throws IOException {
+        generator.writeObjectFieldStart("leaseInfo");
+        generator.writeNumberField("renewalIntervalInSecs", leaseInfo.getRenewalIntervalInSecs());
+        generator.writeNumberField("durationInSecs", leaseInfo.getDurationInSecs());
+        generator.writeNumberField("registrationTimestamp", leaseInfo.getRegistrationTimestamp());
+        generator.writeNumberField("lastRenewalTimestamp", leaseInfo.getRenewalTimestamp());
+        generator.writeNumberField("evictionTimestamp", leaseInfo.getEvictionTimestamp());
+        generator.writeNumberField("serviceUpTimestamp", leaseInfo.getServiceUpTimestamp());
+        generator.writeEndObject();
+    }
+
+    private void writeMap(final JsonGenerator generator, final String name, final Map<String, String> map) throws IOException {
+        generator.writeObjectFieldStart(name);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            generator.writeStringField(entry.getKey(), entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeOptional(final JsonGenerator generator, final String name, final String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+}
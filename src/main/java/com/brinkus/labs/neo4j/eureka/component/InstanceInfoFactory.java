@@ -27,31 +27,100 @@ import com.netflix.appinfo.MyDataCenterInfo;
 import org.neo4j.logging.FormattedLog;
 import org.neo4j.logging.Log;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Eureka instance information creator.
+ * <p>
+ * The static part of the instance information (instance id, hostname, IP address, data center and lease information)
+ * is derived once from the registration and the AWS information and reused by the following calls of a factory
+ * instance, so a long-lived factory only builds the snapshot of the dynamic fields (status, metadata, timestamps).
+ * The static part is derived again when the registration or the AWS information instance, or the resolved DNS hostname
+ * changes, or after {@link #invalidate()}.
  */
 public class InstanceInfoFactory {
 
+    /**
+     * The static part of the instance information.
+     */
+    private static final class Template {
+
+        private final Registration registration;
+
+        private final AmazonInfo amazonInfo;
+
+        private final String dnsHostname;
+
+        private final DataCenterInfo dataCenterInfo;
+
+        private final String instanceId;
+
+        private final String hostname;
+
+        private final String ipAddress;
+
+        private final LeaseInfo leaseInfo;
+
+        private Template(
+                final Registration registration,
+                final AmazonInfo amazonInfo,
+                final String dnsHostname,
+                final DataCenterInfo dataCenterInfo,
+                final String instanceId,
+                final String hostname,
+                final String ipAddress,
+                final LeaseInfo leaseInfo
+        ) {
+            this.registration = registration;
+            this.amazonInfo = amazonInfo;
+            this.dnsHostname = dnsHostname;
+            this.dataCenterInfo = dataCenterInfo;
+            this.instanceId = instanceId;
+            this.hostname = hostname;
+            this.ipAddress = ipAddress;
+            this.leaseInfo = leaseInfo;
+        }
+
+    }
+
     private final Log log = FormattedLog.toOutputStream(System.out);
 
+    private final HostnameResolver hostnameResolver;
+
+    private volatile Template template;
+
     /**
      * Creates a new instance of {@link InstanceInfoFactory}
+     *
+     * @param hostnameResolver
+     *         the resolver of the DNS hostname
      */
-    private InstanceInfoFactory() {
-        // default
+    private InstanceInfoFactory(final HostnameResolver hostnameResolver) {
+        this.hostnameResolver = hostnameResolver;
     }
 
     /**
-     * Create a new instance of the {@link InstanceInfoFactory}.
+     * Create a new instance of the {@link InstanceInfoFactory} resolving the DNS hostname with a blocking lookup.
      *
      * @return a new  {@link InstanceInfoFactory} instance.
      */
     public static InstanceInfoFactory getFactory() {
-        return new InstanceInfoFactory();
+        return getFactory(new DnsHostnameResolver());
+    }
+
+    /**
+     * Create a new instance of the {@link InstanceInfoFactory} resolving the DNS hostname with the given resolver. The
+     * instance should be kept to reuse the static part of the instance information.
+     *
+     * @param hostnameResolver
+     *         the resolver of the DNS hostname.
+     *
+     * @return a new  {@link InstanceInfoFactory} instance.
+     */
+    public static InstanceInfoFactory getFactory(final HostnameResolver hostnameResolver) {
+        return new InstanceInfoFactory(hostnameResolver);
     }
 
     /**
@@ -88,6 +157,86 @@ public class InstanceInfoFactory {
             final AmazonInfo amazonInfo,
             final InstanceInfo.InstanceStatus status
     ) {
+        return create(registration, amazonInfo, status, new HashMap<String, String>());
+    }
+
+    /**
+     * Create a new {@link InstanceInfo} object with the given status and metadata.
+     *
+     * @param registration
+     *         the registration information.
+     * @param amazonInfo
+     *         the AWS information instance.
+     * @param status
+     *         the registered instance's status.
+     * @param metadata
+     *         the registered instance's metadata.
+     *
+     * @return the {@link InstanceInfo} object.
+     */
+    public InstanceInfo create(
+            final Registration registration,
+            final AmazonInfo amazonInfo,
+            final InstanceInfo.InstanceStatus status,
+            final Map<String, String> metadata
+    ) {
+        final Template current = getTemplate(registration, amazonInfo);
+        final long timestamp = System.currentTimeMillis();
+
+        return InstanceInfo.Builder
+                .newBuilder()
+                .setInstanceId(current.instanceId)
+                .setHostName(current.hostname)
+                .setAppName(registration.getName())
+                .setIPAddr(current.ipAddress)
+                .setStatus(status)
+                .setOverriddenStatus(InstanceInfo.InstanceStatus.UNKNOWN)
+                .setPort(registration.getPort().getPort())
+                .enablePort(InstanceInfo.PortType.UNSECURE, registration.getPort().isEnabled())
+                .setSecurePort(registration.getSecurePort().getPort())
+                .enablePort(InstanceInfo.PortType.SECURE, registration.getSecurePort().isEnabled())
+                .setDataCenterInfo(current.dataCenterInfo)
+                .setLeaseInfo(current.leaseInfo)
+                .setMetadata(metadata)
+                .setAppGroupName("UNKNOWN")
+                .setHomePageUrlForDeser(registration.getHomePageUrl())
+                .setStatusPageUrlForDeser(registration.getStatusPageUrl())
+                .setHealthCheckUrlsForDeser(registration.getHealthCheckUrl(), null)
+                .setVIPAddress(registration.getVipAddress())
+                .setIsCoordinatingDiscoveryServer(false)
+                .setLastUpdatedTimestamp(timestamp)
+                .setLastDirtyTimestamp(timestamp)
+                .build();
+    }
+
+    /**
+     * Drop the cached static part of the instance information, e.g. after the registration settings were changed.
+     */
+    public void invalidate() {
+        template = null;
+    }
+
+    private Template getTemplate(final Registration registration, final AmazonInfo amazonInfo) {
+        Template current = template;
+        String dnsHostname = getDnsHostname(registration, amazonInfo);
+        if (current == null
+                || current.registration != registration
+                || current.amazonInfo != amazonInfo
+                || !Objects.equals(current.dnsHostname, dnsHostname)) {
+            current = createTemplate(registration, amazonInfo, dnsHostname);
+            template = current;
+        }
+        return current;
+    }
+
+    private String getDnsHostname(final Registration registration, final AmazonInfo amazonInfo) {
+        if (amazonInfo.getMetadata().isEmpty() || !registration.useAwsDnsHostname()) {
+            return null;
+        }
+        return hostnameResolver.resolve(amazonInfo.get(AmazonInfo.MetaDataKey.localIpv4));
+    }
+
+    private Template createTemplate(final Registration registration, final AmazonInfo amazonInfo, final String dnsHostname) {
         DataCenterInfo dataCenterInfo;
 
         String instanceId;
@@ -106,67 +255,24 @@ public class InstanceInfoFactory {
             dataCenterInfo = amazonInfo;
 
             instanceId = amazonInfo.get(AmazonInfo.MetaDataKey.instanceId);
-            hostname = amazonInfo.get(AmazonInfo.MetaDataKey.localHostname);
+            hostname = dnsHostname != null ? dnsHostname : amazonInfo.get(AmazonInfo.MetaDataKey.localHostname);
             ipAddress = amazonInfo.get(AmazonInfo.MetaDataKey.localIpv4);
 
-            if (registration.useAwsDnsHostname()) {
-                String dnsHostname = getDnsHostname(ipAddress);
-                if (dnsHostname != null) {
-                    hostname = dnsHostname;
-                }
-            }
-
             log.info("Eureka instance ip address: %s", ipAddress);
             log.info("Eureka instance hostname: %s", hostname);
         }
 
-        final long timestamp = System.currentTimeMillis();
-
         // e.g.: i-0f84ec0b4c02e7878:neo4j:7474
         final String fullInstanceId = String.format("%s:%s:%d", instanceId, registration.getName(), registration.getPort().getPort()).toLowerCase();
         log.info("Eureka instance identifier: %s", fullInstanceId);
 
         final LeaseInfo leaseInfo = LeaseInfo.Builder
                 .newBuilder()
+                .setRenewalIntervalInSecs(registration.getRenewalIntervalSecs())
+                .setDurationInSecs(registration.getDurationSecs())
                 .build();
 
-        return InstanceInfo.Builder
-                .newBuilder()
-                .setInstanceId(fullInstanceId)
-                .setHostName(hostname)
-                .setAppName(registration.getName())
-                .setIPAddr(ipAddress)
-                .setStatus(status)
-                .setOverriddenStatus(InstanceInfo.InstanceStatus.UNKNOWN)
-                .setPort(registration.getPort().getPort())
-                .enablePort(InstanceInfo.PortType.UNSECURE, registration.getPort().isEnabled())
-                .setSecurePort(registration.getSecurePort().getPort())
-                .enablePort(InstanceInfo.PortType.SECURE, registration.getSecurePort().isEnabled())
-                .setDataCenterInfo(dataCenterInfo)
-                .setLeaseInfo(leaseInfo)
-                .setMetadata(new HashMap<>())
-                .setAppGroupName("UNKNOWN")
-                .setHomePageUrlForDeser(registration.getHomePageUrl())
-                .setStatusPageUrlForDeser(registration.getStatusPageUrl())
-                .setHealthCheckUrlsForDeser(registration.getHealthCheckUrl(), null)
-                .setVIPAddress(registration.getVipAddress())
-                .setIsCoordinatingDiscoveryServer(false)
-                .setLastUpdatedTimestamp(timestamp)
-                .setLastDirtyTimestamp(timestamp)
-                .build();
-    }
-
-    private String getDnsHostname(String ipAddress) {
-        try {
-            InetAddress address = InetAddress.getByName(ipAddress);
-            if (address != null && address.getHostName() != null) {
-                log.info("Overriding Amazon hostname", address.getHostName());
-                return address.getHostName();
-            }
-        } catch (UnknownHostException e) {
-            log.warn("An error occurred during the hostname query. Using the aws hostname.", e);
-        }
-        return null;
+        return new Template(registration, amazonInfo, dnsHostname, dataCenterInfo, fullInstanceId, hostname, ipAddress, leaseInfo);
     }
 
 }
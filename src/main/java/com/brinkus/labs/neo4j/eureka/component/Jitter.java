@@ -0,0 +1,117 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Deterministic jitter of the lifecycle schedule.
+ * <p>
+ * The jitter is derived from a hash of the instance id and the discovery service, so the instances restarted together
+ * (auto-scaling, configuration push) spread their registrations and heartbeats over the interval instead of hitting
+ * the discovery service in lock-step, while an instance keeps the same phase across its own restarts.
+ */
+public final class Jitter {
+
+    private static final double UNIT = 1.0 / (1L << 53);
+
+    private final long seed;
+
+    private final long initialJitterMs;
+
+    private final int heartbeatJitterPercent;
+
+    /**
+     * Create a new instance of {@link Jitter}.
+     *
+     * @param key
+     *         the key of the schedule, e.g. the instance id and the discovery service address
+     * @param initialJitterMs
+     *         the maximum delay of the registration in milliseconds
+     * @param heartbeatJitterPercent
+     *         the maximum shift of a heartbeat in the percentage of the interval
+     */
+    public Jitter(final String key, final long initialJitterMs, final int heartbeatJitterPercent) {
+        this.seed = hash(key);
+        this.initialJitterMs = initialJitterMs;
+        this.heartbeatJitterPercent = heartbeatJitterPercent;
+    }
+
+    /**
+     * Get the delay of the registration.
+     *
+     * @return the delay in milliseconds, between 0 (inclusive) and the maximum initial jitter (exclusive).
+     */
+    public long getInitialDelayMs() {
+        return (long) (fraction(seed) * initialJitterMs);
+    }
+
+    /**
+     * Get the shift of the given heartbeat from its fixed-rate due time. The shift is different in every period, but
+     * it does not accumulate, because the due times stay on the grid.
+     *
+     * @param heartbeat
+     *         the sequence number of the heartbeat.
+     * @param intervalNanos
+     *         the interval of the heartbeats in nanoseconds.
+     *
+     * @return the shift in nanoseconds, between minus and plus the maximum heartbeat jitter.
+     */
+    public long getHeartbeatOffsetNanos(final long heartbeat, final long intervalNanos) {
+        if (heartbeatJitterPercent == 0) {
+            return 0;
+        }
+        double maxOffset = intervalNanos * heartbeatJitterPercent / 100.0;
+        return (long) ((fraction(mix(seed + heartbeat)) * 2 - 1) * maxOffset);
+    }
+
+    /**
+     * Hash the key to a well-distributed value that is stable across JVMs and restarts.
+     *
+     * @param key
+     *         the key to hash.
+     *
+     * @return the hash value.
+     */
+    static long hash(final String key) {
+        // FNV-1a, which does not depend on the JVM unlike the identity hash codes
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(final long value) {
+        // the finalizer of MurmurHash3, so the consecutive heartbeats get unrelated shifts
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static double fraction(final long value) {
+        return (value >>> 11) * UNIT;
+    }
+
+}
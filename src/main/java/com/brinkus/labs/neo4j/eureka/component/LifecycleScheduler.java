@@ -0,0 +1,373 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.apache.commons.lang3.Validate;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler of the lifecycle tasks of every discovery service.
+ * <p>
+ * One small pool runs the registration, keep alive and de-registration steps of all the {@link LifecycleTask}
+ * instances, so the number of the threads does not depend on the number of the discovery services. In the virtual
+ * thread mode a single timer thread schedules the steps, and every step runs on its own virtual thread.
+ */
+public class LifecycleScheduler {
+
+    /**
+     * Builder to create a new {@link LifecycleScheduler} instance.
+     */
+    public static final class Builder {
+
+        private int threadCount = 2;
+
+        private boolean virtualThreads = false;
+
+        private long initialJitterMs = 5000;
+
+        private int heartbeatJitterPercent = 10;
+
+        private int failoverThreshold = 2;
+
+        /**
+         * Set the number of the scheduler threads.
+         *
+         * @param threadCount
+         *         the number of the scheduler threads.
+         *
+         * @return the builder instance.
+         */
+        public Builder withThreadCount(final int threadCount) {
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * Set the virtual thread usage. The steps are executed on virtual threads if the JVM supports them, and only
+         * the timer uses a platform thread.
+         *
+         * @param virtualThreads
+         *         the virtual thread usage state.
+         *
+         * @return the builder instance.
+         */
+        public Builder withVirtualThreads(final boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Set the maximum delay of the registrations.
+         *
+         * @param initialJitterMs
+         *         the maximum delay in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withInitialJitterMs(final long initialJitterMs) {
+            this.initialJitterMs = initialJitterMs;
+            return this;
+        }
+
+        /**
+         * Set the maximum shift of the heartbeats.
+         *
+         * @param heartbeatJitterPercent
+         *         the maximum shift in the percentage of the keep alive interval.
+         *
+         * @return the builder instance.
+         */
+        public Builder withHeartbeatJitterPercent(final int heartbeatJitterPercent) {
+            this.heartbeatJitterPercent = heartbeatJitterPercent;
+            return this;
+        }
+
+        /**
+         * Set the number of the consecutive failed heartbeats after a primary mode task fails over to the next
+         * discovery service.
+         *
+         * @param failoverThreshold
+         *         the failover threshold.
+         *
+         * @return the builder instance.
+         */
+        public Builder withFailoverThreshold(final int failoverThreshold) {
+            this.failoverThreshold = failoverThreshold;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link LifecycleScheduler}.
+         *
+         * @return the lifecycle scheduler instance.
+         */
+        public LifecycleScheduler build() {
+            Validate.isTrue(threadCount > 0, "The thread count must be positive!");
+            Validate.isTrue(initialJitterMs >= 0, "The initial jitter must not be negative!");
+            Validate.isTrue(heartbeatJitterPercent >= 0 && heartbeatJitterPercent <= 50, "The heartbeat jitter must be between 0 and 50 percent!");
+            Validate.isTrue(failoverThreshold > 0, "The failover threshold must be positive!");
+            if (virtualThreads && ThreadFactories.isVirtualThreadSupported()) {
+                ThreadFactory workerFactory = ThreadFactories.create("eureka-lifecycle", true);
+                return new LifecycleScheduler(1, workerFactory, initialJitterMs, heartbeatJitterPercent, failoverThreshold);
+            }
+            return new LifecycleScheduler(threadCount, null, initialJitterMs, heartbeatJitterPercent, failoverThreshold);
+        }
+
+    }
+
+    private static final int VIRTUAL_NODE_COUNT = 100;
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final ThreadFactory workerFactory;
+
+    private final long initialJitterMs;
+
+    private final int heartbeatJitterPercent;
+
+    private final int failoverThreshold;
+
+    private final List<LifecycleTask> tasks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Create a new instance of {@link LifecycleScheduler}.
+     *
+     * @param threadCount
+     *         the number of the scheduler threads
+     * @param workerFactory
+     *         the factory of the threads executing the steps, or null to execute them on the scheduler threads
+     * @param initialJitterMs
+     *         the maximum delay of the registrations in milliseconds
+     * @param heartbeatJitterPercent
+     *         the maximum shift of the heartbeats in the percentage of the keep alive interval
+     * @param failoverThreshold
+     *         the number of the consecutive failed heartbeats after a primary mode task fails over
+     */
+    LifecycleScheduler(
+            final int threadCount,
+            final ThreadFactory workerFactory,
+            final long initialJitterMs,
+            final int heartbeatJitterPercent,
+            final int failoverThreshold
+    ) {
+        this.executor = new ScheduledThreadPoolExecutor(threadCount, ThreadFactories.platform(
+                workerFactory == null ? "eureka-lifecycle" : "eureka-lifecycle-timer"));
+        // the cancelled keep alive tasks must not stay in the queue until their delay expires
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.workerFactory = workerFactory;
+        this.initialJitterMs = initialJitterMs;
+        this.heartbeatJitterPercent = heartbeatJitterPercent;
+        this.failoverThreshold = failoverThreshold;
+    }
+
+    /**
+     * Start the lifecycle of the given service: register it after the initial jitter, then renew the lease
+     * periodically with the renewal interval sent in the registration.
+     *
+     * @param lifecycleService
+     *         the lifecycle service of a discovery service.
+     *
+     * @return the started lifecycle task.
+     */
+    public LifecycleTask schedule(final LifecycleService lifecycleService) {
+        long renewalIntervalSecs = lifecycleService.getRegistrationPayload().get()
+                .getInstanceInfo().getLeaseInfo().getRenewalIntervalInSecs();
+        return schedule(lifecycleService, TimeUnit.SECONDS.toMillis(renewalIntervalSecs));
+    }
+
+    /**
+     * Start the lifecycle of the given service: register it after the initial jitter, then send the keep alive requests
+     * periodically. The jitter is derived from the instance id and the discovery service address.
+     *
+     * @param lifecycleService
+     *         the lifecycle service of a discovery service.
+     * @param intervalMs
+     *         the interval of the keep alive requests in milliseconds.
+     *
+     * @return the started lifecycle task.
+     */
+    public LifecycleTask schedule(final LifecycleService lifecycleService, final long intervalMs) {
+        Validate.notNull(lifecycleService);
+        Validate.isTrue(intervalMs > 0, "The keep alive interval must be positive!");
+        String key = String.format("%s@%s:%d",
+                                   lifecycleService.getRegistrationPayload().get().getInstanceInfo().getInstanceId(),
+                                   lifecycleService.getRestClient().getHost(),
+                                   lifecycleService.getRestClient().getPort());
+        Jitter jitter = new Jitter(key, initialJitterMs, heartbeatJitterPercent);
+        log.info("Scheduling the lifecycle of %s with %d ms registration delay and %d%% heartbeat jitter",
+                 key, jitter.getInitialDelayMs(), heartbeatJitterPercent);
+        LifecycleTask task = new LifecycleTask(lifecycleService, this, intervalMs, jitter);
+        tasks.add(task);
+        task.start();
+        return task;
+    }
+
+    /**
+     * Start the lifecycle of the instance in primary mode: register it in a single primary discovery service, chosen by
+     * consistent hashing on the instance id, and renew the lease periodically with the renewal interval sent in the
+     * registration.
+     *
+     * @param lifecycleServices
+     *         the lifecycle services of every discovery service.
+     *
+     * @return the started lifecycle task.
+     */
+    public LifecycleTask schedulePrimary(final List<LifecycleService> lifecycleServices) {
+        Validate.notEmpty(lifecycleServices);
+        long renewalIntervalSecs = lifecycleServices.get(0).getRegistrationPayload().get()
+                .getInstanceInfo().getLeaseInfo().getRenewalIntervalInSecs();
+        return schedulePrimary(lifecycleServices, TimeUnit.SECONDS.toMillis(renewalIntervalSecs));
+    }
+
+    /**
+     * Start the lifecycle of the instance in primary mode: register it in a single primary discovery service, chosen by
+     * consistent hashing on the instance id, then send the keep alive requests periodically to it only. The task fails
+     * over to the next discovery service on the hash ring when the primary one fails.
+     *
+     * @param lifecycleServices
+     *         the lifecycle services of every discovery service.
+     * @param intervalMs
+     *         the interval of the keep alive requests in milliseconds.
+     *
+     * @return the started lifecycle task.
+     */
+    public LifecycleTask schedulePrimary(final List<LifecycleService> lifecycleServices, final long intervalMs) {
+        Validate.notEmpty(lifecycleServices);
+        Validate.isTrue(intervalMs > 0, "The keep alive interval must be positive!");
+        Map<String, LifecycleService> nodes = new LinkedHashMap<>();
+        for (LifecycleService lifecycleService : lifecycleServices) {
+            nodes.put(lifecycleService.getRestClient().getHost() + ":" + lifecycleService.getRestClient().getPort(), lifecycleService);
+        }
+        String instanceId = lifecycleServices.get(0).getRegistrationPayload().get().getInstanceInfo().getInstanceId();
+        List<LifecycleService> failoverOrder = new HashRing<>(nodes, VIRTUAL_NODE_COUNT).getSuccessors(instanceId);
+
+        Jitter jitter = new Jitter(instanceId, initialJitterMs, heartbeatJitterPercent);
+        log.info("Scheduling the lifecycle of %s to the primary %s with %d ms registration delay and %d%% heartbeat jitter",
+                 instanceId, failoverOrder.get(0).getRestClient().getHost(), jitter.getInitialDelayMs(), heartbeatJitterPercent);
+        LifecycleTask task = new LifecycleTask(failoverOrder, this, intervalMs, jitter, failoverThreshold);
+        tasks.add(task);
+        task.start();
+        return task;
+    }
+
+    /**
+     * Get the scheduled lifecycle tasks.
+     *
+     * @return the lifecycle tasks.
+     */
+    public List<LifecycleTask> getTasks() {
+        return new ArrayList<>(tasks);
+    }
+
+    /**
+     * Get the number of the scheduler threads.
+     *
+     * @return the number of the scheduler threads.
+     */
+    public int getThreadCount() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Get the phase spread of the registered tasks: the shortest part of the keep alive interval that contains the
+     * phase of every heartbeat schedule.
+     *
+     * @return the phase spread in milliseconds.
+     */
+    public long getPhaseSpreadMs() {
+        List<Long> phases = new ArrayList<>();
+        long intervalMs = 0;
+        for (LifecycleTask task : tasks) {
+            if (task.getPhaseMs() >= 0) {
+                phases.add(task.getPhaseMs());
+                intervalMs = Math.max(intervalMs, task.getIntervalMs());
+            }
+        }
+        if (phases.size() < 2) {
+            return 0;
+        }
+        Collections.sort(phases);
+        // the phases are on a circle, the spread is the circle without its largest gap
+        long largestGap = phases.get(0) + intervalMs - phases.get(phases.size() - 1);
+        for (int i = 1; i < phases.size(); i++) {
+            largestGap = Math.max(largestGap, phases.get(i) - phases.get(i - 1));
+        }
+        return intervalMs - largestGap;
+    }
+
+    /**
+     * Check that the steps are executed on virtual threads.
+     *
+     * @return true if the virtual threads are used.
+     */
+    public boolean isVirtual() {
+        return workerFactory != null;
+    }
+
+    /**
+     * Cancel every lifecycle task and stop the scheduler threads. The running steps are completed, but no new step
+     * is started.
+     */
+    public void shutdown() {
+        log.info("Stopping the lifecycle scheduler with %d task(s).", tasks.size());
+        for (LifecycleTask task : tasks) {
+            task.cancel();
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Execute the step of a lifecycle task after the delay.
+     *
+     * @param step
+     *         the step to execute.
+     * @param delayNanos
+     *         the delay in nanoseconds.
+     *
+     * @return the scheduled step.
+     */
+    ScheduledFuture<?> schedule(final Runnable step, final long delayNanos) {
+        Runnable task = step;
+        if (workerFactory != null) {
+            // the timer thread only hands the blocking step over to a new virtual thread
+            task = new Runnable() {
+                @Override
+                public void run() {
+                    workerFactory.newThread(step).start();
+                }
+            };
+        }
+        return executor.schedule(task, Math.max(delayNanos, 0), TimeUnit.NANOSECONDS);
+    }
+
+}
@@ -20,14 +20,25 @@ package com.brinkus.labs.neo4j.eureka.component;
 
 import com.brinkus.labs.neo4j.eureka.exception.EurekaPluginException;
 import com.brinkus.labs.neo4j.eureka.exception.InvalidLifeCycleException;
+import com.brinkus.labs.neo4j.eureka.exception.ResponseCodeNotMatchingException;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.EncodedRegistration;
 import com.brinkus.labs.neo4j.eureka.type.LifecycleStatus;
 import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import com.brinkus.labs.neo4j.eureka.type.config.Timeouts;
 import com.netflix.appinfo.AmazonInfo;
 import com.netflix.appinfo.InstanceInfo;
-import com.netflix.discovery.converters.JsonXStream;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
 import org.neo4j.logging.FormattedLog;
 import org.neo4j.logging.Log;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Handle the instance lifecycle in the discovery service.
  */
@@ -44,6 +55,10 @@ public class LifecycleService {
 
         private AmazonInfo awsInfo;
 
+        private Timeouts timeouts = new Timeouts();
+
+        private RegistrationPayload registrationPayload;
+
         /**
          * Set the registration information.
          *
@@ -83,31 +98,93 @@ public class LifecycleService {
             return this;
         }
 
+        /**
+         * Set the time budgets of the lifecycle operations.
+         *
+         * @param timeouts
+         *         the time budgets.
+         *
+         * @return the builder instance.
+         */
+        public Builder withTimeouts(final Timeouts timeouts) {
+            this.timeouts = timeouts;
+            return this;
+        }
+
+        /**
+         * Set the registration payload shared with the other lifecycle services of the same registration.
+         *
+         * @param registrationPayload
+         *         the shared registration payload.
+         *
+         * @return the builder instance.
+         */
+        public Builder withRegistrationPayload(final RegistrationPayload registrationPayload) {
+            this.registrationPayload = registrationPayload;
+            return this;
+        }
+
         /**
          * Create a new instance of the {@link LifecycleService}.
          *
          * @return the lifecycle service instance.
          */
         public LifecycleService build() {
-            return new LifecycleService(registration, restClient, awsInfo);
+            if (registrationPayload == null) {
+                registrationPayload = new RegistrationPayload.Builder()
+                        .withRegistration(registration)
+                        .withAwsInfo(awsInfo)
+                        .build();
+            }
+            return new LifecycleService(registration, restClient, registrationPayload, timeouts);
         }
     }
 
+    /**
+     * Immutable snapshot of the lifecycle state. The in-flight states (registering, heart-beating, de-registering) are
+     * owned by the thread that started them and carry the state to roll back to and a completion the other threads
+     * can wait for.
+     */
+    private static final class State {
+
+        private final LifecycleStatus status;
+
+        private final InstanceInfo instanceInfo;
+
+        private final State previous;
+
+        private final CompletableFuture<Void> completion;
+
+        private State(final LifecycleStatus status, final InstanceInfo instanceInfo, final State previous) {
+            this.status = status;
+            this.instanceInfo = instanceInfo;
+            this.previous = previous;
+            this.completion = status.isInFlight() ? new CompletableFuture<Void>() : null;
+        }
+
+    }
+
     private static final String APPLICATION_URI = "/eureka/apps/%s";
 
     private static final String INSTANCE_URI = "/eureka/apps/%s/%s";
 
+    private static final String HEARTBEAT_URI = "/eureka/apps/%s/%s?status=%s&lastDirtyTimestamp=%d";
+
+    private static final String STATUS_URI = "/eureka/apps/%s/%s/status?value=%s";
+
     private final Log log = FormattedLog.toOutputStream(System.out);
 
     private final Registration registration;
 
     private final RestClient restClient;
 
-    private final AmazonInfo amazonInfo;
+    private final RegistrationPayload registrationPayload;
+
+    private final Timeouts timeouts;
 
-    private InstanceInfo instanceInfo;
+    private final AtomicLong reregistrations = new AtomicLong();
 
-    private LifecycleStatus status;
+    private final AtomicReference<State> state;
 
     /**
      * Create a new instance of {@link LifecycleService}.
@@ -116,23 +193,29 @@ public class LifecycleService {
      *         the discovery service registration information
      * @param restClient
      *         the rest client to handle HTTP communication
-     * @param amazonInfo
-     *         the Amazon info
+     * @param registrationPayload
+     *         the cached registration payload
+     * @param timeouts
+     *         the time budgets of the lifecycle operations
      */
     LifecycleService(
             final Registration registration,
             final RestClient restClient,
-            final AmazonInfo amazonInfo
+            final RegistrationPayload registrationPayload,
+            final Timeouts timeouts
     ) {
         this.registration = registration;
         this.restClient = restClient;
-        this.amazonInfo = amazonInfo;
-        this.status = LifecycleStatus.UNKNOWN;
+        this.registrationPayload = registrationPayload;
+        this.timeouts = timeouts;
+        this.state = new AtomicReference<>(new State(LifecycleStatus.UNKNOWN, null, null));
     }
 
     /**
      * Register the instance in the discovery service.
      *
+     * @throws InvalidLifeCycleException
+     *         if another lifecycle operation is in progress
      * @throws EurekaPluginException
      *         an error occurred during the registration process
      */
@@ -142,21 +225,32 @@ public class LifecycleService {
                  registration.getHostname(),
                  restClient.getHost());
 
-        // create a new instance info before every registration
-        createInstanceInfo();
-
-        String content;
-        content = JsonXStream.getInstance().toXML(instanceInfo);
-
-        String uri = String.format(APPLICATION_URI, registration.getName());
-        restClient.post(uri, content, RestClient.STATUS_NO_CONTENT);
-
-        updateStatus(LifecycleStatus.REGISTERED);
+        State registering = begin(LifecycleStatus.REGISTERING);
+        boolean registered = false;
+        try {
+            InstanceInfo instanceInfo = sendRegistration();
+            registered = true;
+            complete(registering, LifecycleStatus.REGISTERED, instanceInfo);
+        } finally {
+            if (!registered) {
+                rollback(registering);
+            }
+        }
     }
 
     /**
      * Sending keep alive message to the discovery service.
+     * <p>
+     * The heartbeat carries the status and the last dirty timestamp of the current registration payload, the same way
+     * as the Eureka client does. If the discovery service does not know the instance (it was restarted or evicted the
+     * lease) or the registration has changed since it was sent, the discovery service responds with 404 and only the
+     * cached registration payload is sent again. If the instance id of the payload has changed (the AWS metadata was
+     * resolved after the registration), the new instance id is registered and the old one is de-registered instead.
+     * <p>
+     * A heartbeat started after the de-registration has begun is skipped.
      *
+     * @throws InvalidLifeCycleException
+     *         if the instance is not registered or another lifecycle operation is in progress
      * @throws EurekaPluginException
      *         an error occurred during the keep alive process
      */
@@ -165,19 +259,37 @@ public class LifecycleService {
                   registration.getName(),
                   registration.getHostname(),
                   restClient.getHost());
-        if (instanceInfo == null) {
-            throw new InvalidLifeCycleException("Instance info instance does not exist!");
-        }
 
-        String uri = String.format(INSTANCE_URI, registration.getName(), instanceInfo.getInstanceId());
-        restClient.put(uri);
+        State heartbeating;
+        try {
+            heartbeating = begin(LifecycleStatus.HEARTBEATING);
+        } catch (InvalidLifeCycleException e) {
+            if (state.get().status.isDeregistration()) {
+                log.debug("The de-registration is in progress, skipping the keep alive request");
+                return;
+            }
+            throw e;
+        }
 
-        updateStatus(LifecycleStatus.KEEP_ALIVE);
+        // a failed heartbeat keeps the registration
+        InstanceInfo instanceInfo = heartbeating.instanceInfo;
+        try {
+            instanceInfo = sendHeartbeat(instanceInfo);
+        } finally {
+            complete(heartbeating, LifecycleStatus.REGISTERED, instanceInfo);
+        }
     }
 
     /**
      * Deregister the instance from the discovery service.
+     * <p>
+     * The in-flight registration or heartbeat is awaited first, so it cannot renew (or re-create) the lease after it was
+     * cancelled. Concurrent calls send a single de-registration request and all of them return after it completed. An
+     * instance not known by the discovery service (e.g. its lease expired, or the de-registration was replicated from
+     * a peer) is de-registered already.
      *
+     * @throws InvalidLifeCycleException
+     *         if the instance was never registered or an in-flight operation did not complete in time
      * @throws EurekaPluginException
      *         an error occurred during the de-registration process
      */
@@ -186,42 +298,270 @@ public class LifecycleService {
                  registration.getName(),
                  registration.getHostname(),
                  restClient.getHost());
-        if (instanceInfo == null) {
-            throw new InvalidLifeCycleException("Instance info instance does not exist!");
+
+        // every in-flight operation is bounded by its own deadline
+        Deadline deadline = Deadline.after(timeouts.getRegisterMs() + timeouts.getKeepAliveMs() + timeouts.getDeregisterMs());
+        State deregistering = null;
+        while (deregistering == null) {
+            State current = state.get();
+            if (current.status == LifecycleStatus.DEREGISTERED) {
+                log.debug("The instance is already de-registered from %s", restClient.getHost());
+                return;
+            }
+            if (current.status == LifecycleStatus.UNKNOWN) {
+                throw new InvalidLifeCycleException("Instance info instance does not exist!");
+            }
+            if (current.status.isInFlight()) {
+                await(current, deadline);
+                continue;
+            }
+            State next = new State(LifecycleStatus.DEREGISTERING, current.instanceInfo, current);
+            if (state.compareAndSet(current, next)) {
+                deregistering = next;
+            }
         }
 
+        boolean deregistered = false;
         try {
-            // sleep 1 sec before the de-registration
-            // otherwise it can happen that it will stay in the DS queue due to the keep alive request
-            // TODO investigate further
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            log.error("An error occurred during the de-registration delaying process");
+            String uri = String.format(INSTANCE_URI, registration.getName(), deregistering.instanceInfo.getInstanceId());
+            try {
+                restClient.delete(uri, RestClient.STATUS_OK, Deadline.after(timeouts.getDeregisterMs()));
+            } catch (ResponseCodeNotMatchingException e) {
+                if (e.getStatusCode() != RestClient.STATUS_NOT_FOUND) {
+                    throw e;
+                }
+                log.info("The instance is not known by %s, it is de-registered already", restClient.getHost());
+            }
+            deregistered = true;
+            complete(deregistering, LifecycleStatus.DEREGISTERED, null);
+        } finally {
+            if (!deregistered) {
+                rollback(deregistering);
+            }
         }
-        String uri = String.format(INSTANCE_URI, registration.getName(), instanceInfo.getInstanceId());
-        restClient.delete(uri);
+    }
 
-        updateStatus(LifecycleStatus.DEREGISTERED);
-        instanceInfo = null;
+    /**
+     * Cancel the lifecycle of an instance that is not registered, so no registration can be started afterwards.
+     * <p>
+     * The in-flight operation is awaited first. A registration that completed in the meantime is not cancelled, the
+     * instance has to be de-registered instead.
+     *
+     * @return true if the lifecycle is cancelled (or the instance is already de-registered), false if the instance is
+     * registered.
+     *
+     * @throws InvalidLifeCycleException
+     *         if an in-flight operation did not complete in time
+     */
+    public boolean cancel() throws InvalidLifeCycleException {
+        Deadline deadline = Deadline.after(timeouts.getRegisterMs() + timeouts.getKeepAliveMs() + timeouts.getDeregisterMs());
+        while (true) {
+            State current = state.get();
+            if (current.status.isInFlight()) {
+                await(current, deadline);
+                continue;
+            }
+            if (current.status == LifecycleStatus.REGISTERED) {
+                return false;
+            }
+            if (current.status != LifecycleStatus.UNKNOWN
+                    || state.compareAndSet(current, new State(LifecycleStatus.CANCELLED, null, null))) {
+                return true;
+            }
+        }
     }
 
     /**
-     * Create a new {@link InstanceInfo} object.
+     * Override the status of the registered instance to {@link InstanceStatus#OUT_OF_SERVICE} in the discovery
+     * service, so the clients stop routing new requests to it while the instance keeps serving.
+     * <p>
+     * The in-flight registration or heartbeat is awaited first. The override is removed by the discovery service
+     * together with the instance on the de-registration, and the registrations sent again in the meantime (e.g. with a
+     * new health status) do not lift it.
      *
-     * @return a new {@link InstanceInfo}
+     * @throws InvalidLifeCycleException
+     *         if the instance is not registered or an in-flight operation did not complete in time
+     * @throws EurekaPluginException
+     *         an error occurred during the status update
+     */
+    public void takeOutOfService() throws EurekaPluginException {
+        log.info("Sending %s out of service request from %s to %s",
+                 registration.getName(),
+                 registration.getHostname(),
+                 restClient.getHost());
+
+        State current = awaitRegistered("taken out of service");
+        String uri = String.format(STATUS_URI, registration.getName(), current.instanceInfo.getInstanceId(), InstanceStatus.OUT_OF_SERVICE);
+        restClient.put(uri, RestClient.STATUS_OK, Deadline.after(timeouts.getKeepAliveMs()));
+    }
+
+    /**
+     * Get the current lifecycle status of the instance.
+     *
+     * @return the lifecycle status.
+     */
+    public LifecycleStatus getStatus() {
+        return state.get().status;
+    }
+
+    /**
+     * Get the registered instance information.
+     *
+     * @return the registered {@link InstanceInfo} or null if the instance is not registered.
+     */
+    public InstanceInfo getInstanceInfo() {
+        return state.get().instanceInfo;
+    }
+
+    /**
+     * Get the number of the registrations sent again due to a 404 heartbeat response.
+     *
+     * @return the number of the re-registrations.
+     */
+    public long getReregistrationCount() {
+        return reregistrations.get();
+    }
+
+    /**
+     * Get the REST client of the discovery service.
+     *
+     * @return the REST client.
+     */
+    public RestClient getRestClient() {
+        return restClient;
+    }
+
+    /**
+     * Get the registration payload of the instance.
+     *
+     * @return the registration payload.
+     */
+    public RegistrationPayload getRegistrationPayload() {
+        return registrationPayload;
+    }
+
+    /**
+     * Mark the instance as registered with the {@link InstanceInfo} object of the current registration payload,
+     * without sending it to the discovery service.
+     *
+     * @return the {@link InstanceInfo}
      */
     InstanceInfo createInstanceInfo() {
-        instanceInfo = InstanceInfoFactory.getFactory()
-                .create(registration, amazonInfo, InstanceInfo.InstanceStatus.UP);
+        InstanceInfo instanceInfo = registrationPayload.get().getInstanceInfo();
+        state.set(new State(LifecycleStatus.REGISTERED, instanceInfo, null));
         return instanceInfo;
     }
 
-    private void updateStatus(final LifecycleStatus status) {
-        if (this.status == status) {
-            return;
+    private State awaitRegistered(final String operation) throws InvalidLifeCycleException {
+        Deadline deadline = Deadline.after(timeouts.getRegisterMs() + timeouts.getKeepAliveMs());
+        State current = state.get();
+        while (current.status.isInFlight()) {
+            await(current, deadline);
+            current = state.get();
+        }
+        if (current.status != LifecycleStatus.REGISTERED) {
+            throw new InvalidLifeCycleException(String.format("The instance cannot be %s in %s state!", operation, current.status));
+        }
+        return current;
+    }
+
+    private InstanceInfo sendRegistration() throws EurekaPluginException {
+        // the payload is only encoded again if the registration content has changed
+        EncodedRegistration encoded = registrationPayload.get();
+
+        String uri = String.format(APPLICATION_URI, registration.getName());
+        restClient.post(uri, encoded.getContent(), RestClient.STATUS_NO_CONTENT, Deadline.after(timeouts.getRegisterMs()));
+        return encoded.getInstanceInfo();
+    }
+
+    private InstanceInfo sendHeartbeat(final InstanceInfo registered) throws EurekaPluginException {
+        InstanceInfo current = registrationPayload.get().getInstanceInfo();
+        if (!current.getInstanceId().equals(registered.getInstanceId())) {
+            return moveRegistration(registered);
+        }
+        String uri = String.format(HEARTBEAT_URI,
+                                   registration.getName(),
+                                   current.getInstanceId(),
+                                   current.getStatus(),
+                                   current.getLastDirtyTimestamp());
+        try {
+            restClient.put(uri, RestClient.STATUS_OK, Deadline.after(timeouts.getKeepAliveMs()));
+            return registered;
+        } catch (ResponseCodeNotMatchingException e) {
+            if (e.getStatusCode() != RestClient.STATUS_NOT_FOUND) {
+                throw e;
+            }
+            log.warn("The %s instance is not known by %s, re-sending the registration (%d so far)",
+                     current.getInstanceId(),
+                     restClient.getHost(),
+                     reregistrations.incrementAndGet());
+            return sendRegistration();
+        }
+    }
+
+    private InstanceInfo moveRegistration(final InstanceInfo registered) throws EurekaPluginException {
+        InstanceInfo moved = sendRegistration();
+        log.info("The instance id has changed from %s to %s, de-registering the old instance id from %s",
+                 registered.getInstanceId(),
+                 moved.getInstanceId(),
+                 restClient.getHost());
+        try {
+            String uri = String.format(INSTANCE_URI, registration.getName(), registered.getInstanceId());
+            restClient.delete(uri, RestClient.STATUS_OK, Deadline.after(timeouts.getDeregisterMs()));
+        } catch (EurekaPluginException e) {
+            // the lease of the old instance id expires without heartbeats
+            log.warn(String.format("The old instance id %s could not be de-registered!", registered.getInstanceId()), e);
+        }
+        return moved;
+    }
+
+    /**
+     * Start an in-flight operation, if it is a valid transition from the current state.
+     */
+    private State begin(final LifecycleStatus status) throws InvalidLifeCycleException {
+        while (true) {
+            State current = state.get();
+            if (!current.status.canTransitionTo(status)) {
+                throw new InvalidLifeCycleException(String.format("Invalid lifecycle transition from %s to %s!", current.status, status));
+            }
+            State next = new State(status, current.instanceInfo, current);
+            if (state.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Complete the in-flight operation and wake up the threads waiting for it.
+     */
+    private void complete(final State inFlight, final LifecycleStatus status, final InstanceInfo instanceInfo) {
+        if (!inFlight.status.canTransitionTo(status)) {
+            throw new IllegalStateException(String.format("Invalid lifecycle transition from %s to %s!", inFlight.status, status));
+        }
+        // the in-flight state is owned by the current thread, no other thread can replace it
+        if (!state.compareAndSet(inFlight, new State(status, instanceInfo, null))) {
+            throw new IllegalStateException(String.format("The %s state was replaced concurrently!", inFlight.status));
+        }
+        if (inFlight.previous.status != status) {
+            log.info("Update status from %s to %s", inFlight.previous.status, status);
+        }
+        inFlight.completion.complete(null);
+    }
+
+    private void rollback(final State inFlight) {
+        complete(inFlight, inFlight.previous.status, inFlight.previous.instanceInfo);
+    }
+
+    private void await(final State inFlight, final Deadline deadline) throws InvalidLifeCycleException {
+        log.info("Waiting for the in-flight %s operation to %s", inFlight.status, restClient.getHost());
+        try {
+            inFlight.completion.get(Math.max(deadline.remainingMillis(), 0), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidLifeCycleException(String.format("The wait for the in-flight %s operation was interrupted!", inFlight.status));
+        } catch (ExecutionException | TimeoutException e) {
+            throw new InvalidLifeCycleException(String.format("The in-flight %s operation did not complete in time!", inFlight.status));
         }
-        log.info("Update status from %s to %s", this.status, status);
-        this.status = status;
     }
 
 }
@@ -0,0 +1,366 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.exception.EurekaPluginException;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The lifecycle of a registration in one discovery service, executed step by step by the {@link LifecycleScheduler}.
+ * <p>
+ * The instance is registered first, a failed registration is re-tried with exponential backoff. The keep alive
+ * requests then follow on a fixed-rate grid measured with the monotonic clock: the next heartbeat is due one interval
+ * after the previous one was due, not after it completed, so the request latency does not add up. If a heartbeat
+ * overran the following ones, the missed heartbeats are skipped instead of being sent back-to-back. The registration
+ * is delayed and every heartbeat is shifted from the grid by the deterministic {@link Jitter} of the task.
+ * <p>
+ * A task of several discovery services (primary mode) talks to one of them at a time, in the failover order of the
+ * {@link HashRing}. It moves to the next discovery service when the registration fails, or when the heartbeats failed
+ * the failover threshold times in a row, and registers there right away. The previous discovery service is not
+ * de-registered by the failover: it is unreachable most of the time, and a peer of a replicated cluster would
+ * replicate the de-registration over the new registration. It is de-registered by the {@link ShutdownCoordinator}
+ * together with the current one, and its lease expires otherwise.
+ */
+public class LifecycleTask {
+
+    private static final long RESTART_BASE_DELAY_MS = 1000;
+
+    private static final long RESTART_MAX_DELAY_MS = 60000;
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final List<LifecycleService> lifecycleServices;
+
+    private final LifecycleScheduler scheduler;
+
+    private final long intervalNanos;
+
+    private final Jitter jitter;
+
+    private final RetryPolicy restartPolicy;
+
+    private final int failoverThreshold;
+
+    private final AtomicReference<ScheduledFuture<?>> next = new AtomicReference<>();
+
+    private final AtomicLong heartbeats = new AtomicLong();
+
+    private final AtomicLong missedHeartbeats = new AtomicLong();
+
+    private final AtomicLong failovers = new AtomicLong();
+
+    private volatile LifecycleService lifecycleService;
+
+    private volatile boolean cancelled;
+
+    private volatile long phaseMs = -1;
+
+    private long dueNanos;
+
+    private long slot;
+
+    private int failures;
+
+    private int heartbeatFailures;
+
+    /**
+     * Create a new instance of {@link LifecycleTask}.
+     *
+     * @param lifecycleService
+     *         the lifecycle service of the discovery service
+     * @param scheduler
+     *         the scheduler executing the steps
+     * @param intervalMs
+     *         the interval of the keep alive requests in milliseconds
+     * @param jitter
+     *         the jitter of the registration and the heartbeats
+     */
+    LifecycleTask(
+            final LifecycleService lifecycleService,
+            final LifecycleScheduler scheduler,
+            final long intervalMs,
+            final Jitter jitter
+    ) {
+        this(Collections.singletonList(lifecycleService), scheduler, intervalMs, jitter, 1);
+    }
+
+    /**
+     * Create a new instance of {@link LifecycleTask} failing over between several discovery services.
+     *
+     * @param lifecycleServices
+     *         the lifecycle services of the discovery services in failover order
+     * @param scheduler
+     *         the scheduler executing the steps
+     * @param intervalMs
+     *         the interval of the keep alive requests in milliseconds
+     * @param jitter
+     *         the jitter of the registration and the heartbeats
+     * @param failoverThreshold
+     *         the number of the consecutive failed heartbeats after the next discovery service is used
+     */
+    LifecycleTask(
+            final List<LifecycleService> lifecycleServices,
+            final LifecycleScheduler scheduler,
+            final long intervalMs,
+            final Jitter jitter,
+            final int failoverThreshold
+    ) {
+        this.lifecycleServices = lifecycleServices;
+        this.lifecycleService = lifecycleServices.get(0);
+        this.failoverThreshold = failoverThreshold;
+        this.scheduler = scheduler;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.jitter = jitter;
+        this.restartPolicy = new RetryPolicy.Builder()
+                .withBaseDelayMs(RESTART_BASE_DELAY_MS)
+                .withMaxDelayMs(RESTART_MAX_DELAY_MS)
+                .build();
+    }
+
+    /**
+     * Get the lifecycle service of the task, the current one in primary mode.
+     *
+     * @return the lifecycle service.
+     */
+    public LifecycleService getLifecycleService() {
+        return lifecycleService;
+    }
+
+    /**
+     * Get the lifecycle services of the task in failover order.
+     *
+     * @return the lifecycle services.
+     */
+    public List<LifecycleService> getLifecycleServices() {
+        return lifecycleServices;
+    }
+
+    /**
+     * Get the number of the failovers to the next discovery service.
+     *
+     * @return the number of the failovers.
+     */
+    public long getFailoverCount() {
+        return failovers.get();
+    }
+
+    /**
+     * Cancel the task. The running step is completed, but no new step is started.
+     *
+     * @return true if the task was running.
+     */
+    public boolean cancel() {
+        if (cancelled) {
+            return false;
+        }
+        cancelled = true;
+        ScheduledFuture<?> scheduled = next.get();
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Check that the task was cancelled.
+     *
+     * @return true if it was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Get the number of the keep alive requests sent.
+     *
+     * @return the number of the heartbeats.
+     */
+    public long getHeartbeatCount() {
+        return heartbeats.get();
+    }
+
+    /**
+     * Get the number of the heartbeats skipped because a previous step overran their due time.
+     *
+     * @return the number of the missed heartbeats.
+     */
+    public long getMissedHeartbeatCount() {
+        return missedHeartbeats.get();
+    }
+
+    /**
+     * Get the phase of the heartbeats: the wall-clock time of the registration modulo the interval, which is comparable
+     * across the instances of the fleet.
+     *
+     * @return the phase in milliseconds or -1 if the instance is not registered yet.
+     */
+    public long getPhaseMs() {
+        return phaseMs;
+    }
+
+    /**
+     * Get the interval of the keep alive requests.
+     *
+     * @return the interval in milliseconds.
+     */
+    public long getIntervalMs() {
+        return TimeUnit.NANOSECONDS.toMillis(intervalNanos);
+    }
+
+    /**
+     * Start the task with the (delayed) registration.
+     */
+    void start() {
+        schedule(new Runnable() {
+            @Override
+            public void run() {
+                register();
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(jitter.getInitialDelayMs()));
+    }
+
+    private void register() {
+        if (isStopped()) {
+            return;
+        }
+        try {
+            lifecycleService.register();
+            failures = 0;
+            dueNanos = System.nanoTime() + intervalNanos;
+            phaseMs = System.currentTimeMillis() % getIntervalMs();
+            log.info("The heartbeats to %s are scheduled at phase %d ms of the %d ms interval",
+                     lifecycleService.getRestClient().getHost(), phaseMs, getIntervalMs());
+            scheduleHeartbeat();
+        } catch (EurekaPluginException e) {
+            if (isStopped()) {
+                // the lifecycle was cancelled by the shutdown after the check above
+                return;
+            }
+            // exponential backoff with full jitter, so the instances do not restart in lock-step
+            long delay = restartPolicy.getDelayMs(++failures);
+            log.error(String.format("An error occurred during the registration process. Re-trying in %d ms!", delay), e);
+            failover();
+            schedule(new Runnable() {
+                @Override
+                public void run() {
+                    register();
+                }
+            }, TimeUnit.MILLISECONDS.toNanos(delay));
+        }
+    }
+
+    private void heartbeat() {
+        if (isStopped()) {
+            return;
+        }
+        try {
+            lifecycleService.keepAlive();
+            heartbeats.incrementAndGet();
+            heartbeatFailures = 0;
+        } catch (EurekaPluginException e) {
+            // the lease outlives a few missed heartbeats, so a transient error keeps the registration and
+            // an unknown instance is re-registered by the keep alive process itself
+            log.error("An error occurred during the keep alive process. Keeping the registration!", e);
+            if (++heartbeatFailures >= failoverThreshold && failover()) {
+                // the lease is renewed by the registration in the next discovery service
+                heartbeatFailures = 0;
+                schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        register();
+                    }
+                }, 0);
+                return;
+            }
+        }
+
+        dueNanos += intervalNanos;
+        slot++;
+        long now = System.nanoTime();
+        if (dueNanos - now < 0) {
+            long missed = (now - dueNanos) / intervalNanos + 1;
+            missedHeartbeats.addAndGet(missed);
+            dueNanos += missed * intervalNanos;
+            slot += missed;
+            log.warn("The keep alive process to %s overran its interval, skipping %d heartbeat(s)",
+                     lifecycleService.getRestClient().getHost(), missed);
+        }
+        scheduleHeartbeat();
+    }
+
+    private void scheduleHeartbeat() {
+        schedule(new Runnable() {
+            @Override
+            public void run() {
+                heartbeat();
+            }
+        }, dueNanos + jitter.getHeartbeatOffsetNanos(slot, intervalNanos) - System.nanoTime());
+    }
+
+    private void schedule(final Runnable step, final long delayNanos) {
+        if (cancelled) {
+            return;
+        }
+        try {
+            ScheduledFuture<?> scheduled = scheduler.schedule(step, delayNanos);
+            next.set(scheduled);
+            // the task may have been cancelled while the step was scheduled
+            if (cancelled) {
+                scheduled.cancel(false);
+            }
+        } catch (RejectedExecutionException e) {
+            log.warn("The lifecycle scheduler is stopped, the lifecycle task to %s is cancelled",
+                     lifecycleService.getRestClient().getHost());
+            cancelled = true;
+        }
+    }
+
+    private boolean failover() {
+        if (lifecycleServices.size() < 2) {
+            return false;
+        }
+        LifecycleService previous = lifecycleService;
+        lifecycleService = lifecycleServices.get((lifecycleServices.indexOf(previous) + 1) % lifecycleServices.size());
+        log.warn("Failing over from %s to %s (%d failover(s) so far)",
+                 previous.getRestClient().getHost(),
+                 lifecycleService.getRestClient().getHost(),
+                 failovers.incrementAndGet());
+        return true;
+    }
+
+    private boolean isStopped() {
+        // the instance may be de-registered directly, e.g. by the shutdown hook
+        if (!cancelled && lifecycleService.getStatus().isDeregistration()) {
+            log.info("The instance is de-registered from %s, stopping the lifecycle task",
+                     lifecycleService.getRestClient().getHost());
+            cancelled = true;
+        }
+        return cancelled;
+    }
+
+}
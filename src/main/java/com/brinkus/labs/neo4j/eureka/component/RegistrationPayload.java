@@ -0,0 +1,263 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.EncodedRegistration;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.InstanceInfo;
+import org.apache.commons.lang3.Validate;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the encoded registration payload.
+ * <p>
+ * Creating and serializing the {@link InstanceInfo} is expensive, so the payload is encoded once and reused by every
+ * registration request until the registration content changes (status, metadata, or an explicit {@link #invalidate()}
+ * after a configuration change). One instance is shared by all the {@link LifecycleService} instances registering the
+ * same registration, so re-registering to several discovery services, or after a discovery service restart, only
+ * costs a socket write.
+ * <p>
+ * The AWS metadata may be replaced after the start, once it was resolved in the background. If the instance id
+ * changes with it, the {@link LifecycleService} moves the registration to the new instance id. The DNS hostname is
+ * resolved in the background by the {@link CachedHostnameResolver}, the payload is encoded again when it changes.
+ */
+public class RegistrationPayload {
+
+    /**
+     * Builder to create a new {@link RegistrationPayload} instance.
+     */
+    public static final class Builder {
+
+        private Registration registration;
+
+        private AmazonInfo amazonInfo;
+
+        private CachedHostnameResolver hostnameResolver;
+
+        /**
+         * Set the registration information.
+         *
+         * @param registration
+         *         the registration information.
+         *
+         * @return the builder instance.
+         */
+        public Builder withRegistration(final Registration registration) {
+            this.registration = registration;
+            return this;
+        }
+
+        /**
+         * Set the AWS information instance.
+         *
+         * @param amazonInfo
+         *         the AWS information instance.
+         *
+         * @return the builder instance.
+         */
+        public Builder withAwsInfo(final AmazonInfo amazonInfo) {
+            this.amazonInfo = amazonInfo;
+            return this;
+        }
+
+        /**
+         * Set the resolver of the DNS hostname.
+         *
+         * @param hostnameResolver
+         *         the cached hostname resolver.
+         *
+         * @return the builder instance.
+         */
+        public Builder withHostnameResolver(final CachedHostnameResolver hostnameResolver) {
+            this.hostnameResolver = hostnameResolver;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link RegistrationPayload}.
+         *
+         * @return the registration payload instance.
+         */
+        public RegistrationPayload build() {
+            Validate.notNull(registration);
+            Validate.notNull(amazonInfo);
+            if (hostnameResolver == null) {
+                hostnameResolver = new CachedHostnameResolver.Builder().build();
+            }
+            return new RegistrationPayload(registration, amazonInfo, hostnameResolver);
+        }
+
+    }
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final Registration registration;
+
+    private final InstanceInfoFactory instanceInfoFactory;
+
+    private final AtomicLong encodings = new AtomicLong();
+
+    private AmazonInfo amazonInfo;
+
+    private InstanceInfo.InstanceStatus status = InstanceInfo.InstanceStatus.UP;
+
+    private Map<String, String> metadata = Collections.emptyMap();
+
+    private volatile EncodedRegistration encoded;
+
+    /**
+     * Create a new instance of {@link RegistrationPayload}.
+     *
+     * @param registration
+     *         the discovery service registration information
+     * @param amazonInfo
+     *         the Amazon info
+     * @param hostnameResolver
+     *         the resolver of the DNS hostname
+     */
+    RegistrationPayload(final Registration registration, final AmazonInfo amazonInfo, final CachedHostnameResolver hostnameResolver) {
+        this.registration = registration;
+        this.amazonInfo = amazonInfo;
+        this.instanceInfoFactory = InstanceInfoFactory.getFactory(hostnameResolver);
+        // the DNS hostname is resolved in the background, the next heartbeat carries the new hostname
+        hostnameResolver.addListener(new Runnable() {
+            @Override
+            public void run() {
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * Get the encoded registration, encoding it only if the registration content has changed since the last call.
+     *
+     * @return the encoded registration.
+     */
+    public EncodedRegistration get() {
+        EncodedRegistration current = encoded;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (encoded == null) {
+                encoded = encode();
+            }
+            return encoded;
+        }
+    }
+
+    /**
+     * Set the registered status of the instance.
+     *
+     * @param status
+     *         the instance status.
+     */
+    public synchronized void setStatus(final InstanceInfo.InstanceStatus status) {
+        if (this.status != status) {
+            this.status = status;
+            encoded = null;
+        }
+    }
+
+    /**
+     * Get the registered status of the instance.
+     *
+     * @return the instance status (default UP)
+     */
+    public synchronized InstanceInfo.InstanceStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Set the registered metadata of the instance.
+     *
+     * @param metadata
+     *         the instance metadata.
+     */
+    public synchronized void setMetadata(final Map<String, String> metadata) {
+        if (!this.metadata.equals(metadata)) {
+            this.metadata = Collections.unmodifiableMap(new HashMap<>(metadata));
+            encoded = null;
+        }
+    }
+
+    /**
+     * Replace the AWS information, e.g. with the metadata resolved in the background.
+     *
+     * @param amazonInfo
+     *         the AWS information instance.
+     */
+    public synchronized void setAmazonInfo(final AmazonInfo amazonInfo) {
+        Validate.notNull(amazonInfo);
+        if (!this.amazonInfo.getMetadata().equals(amazonInfo.getMetadata())) {
+            this.amazonInfo = amazonInfo;
+            encoded = null;
+        }
+    }
+
+    /**
+     * Get the AWS information.
+     *
+     * @return the AWS information instance.
+     */
+    public synchronized AmazonInfo getAmazonInfo() {
+        return amazonInfo;
+    }
+
+    /**
+     * Drop the encoded payload, e.g. after the registration settings were changed.
+     */
+    public synchronized void invalidate() {
+        instanceInfoFactory.invalidate();
+        encoded = null;
+    }
+
+    /**
+     * Get the number of the payload encodings.
+     *
+     * @return the number of the times the payload was encoded.
+     */
+    public long getEncodingCount() {
+        return encodings.get();
+    }
+
+    private EncodedRegistration encode() {
+        // the metadata map is immutable, so the snapshot can share it
+        InstanceInfo instanceInfo = instanceInfoFactory.create(registration, amazonInfo, status, metadata);
+        byte[] content;
+        try {
+            content = InstanceInfoEncoder.getEncoder().encode(instanceInfo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("The registration payload could not be encoded!", e);
+        }
+        EncodedRegistration result = new EncodedRegistration(instanceInfo, content);
+        log.info("Encoded the registration payload (%d encoding(s) so far): %s", encodings.incrementAndGet(), result);
+        return result;
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Streaming consumer of a response body received by the {@link RestClient}.
+ * <p>
+ * The consumer reads the content directly from the connection, so a large body does not have to be materialized as a
+ * {@link String}. The consumer does not have to read the content to its end and must not keep a reference to the
+ * stream: the {@link RestClient} discards the remaining content and releases the connection after the consumer has
+ * returned or failed.
+ *
+ * @param <T>
+ *         the type of the consumed result.
+ */
+public interface ResponseConsumer<T> {
+
+    /**
+     * Consume the body of a response with the expected status code.
+     *
+     * @param content
+     *         the response body (empty if the response has no body).
+     * @param contentLength
+     *         the length of the body or a negative value if it is unknown.
+     * @param charset
+     *         the charset of the body (UTF-8 if the response did not declare it).
+     *
+     * @return the consumed result.
+     *
+     * @throws IOException
+     *         if the body could not be read or processed.
+     */
+    T consume(InputStream content, long contentLength, Charset charset) throws IOException;
+
+}
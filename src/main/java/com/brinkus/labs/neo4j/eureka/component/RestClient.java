@@ -18,41 +18,53 @@
 
 package com.brinkus.labs.neo4j.eureka.component;
 
+import com.brinkus.labs.neo4j.eureka.exception.CircuitOpenException;
+import com.brinkus.labs.neo4j.eureka.exception.DeadlineExceededException;
 import com.brinkus.labs.neo4j.eureka.exception.RequestFailedException;
 import com.brinkus.labs.neo4j.eureka.exception.ResponseCodeNotMatchingException;
 import com.brinkus.labs.neo4j.eureka.exception.ResponseProcessFailedException;
 import com.brinkus.labs.neo4j.eureka.exception.RestClientException;
-import org.apache.http.Consts;
-import org.apache.http.HttpException;
-import org.apache.http.HttpHeaders;
-import org.apache.http.HttpHost;
-import org.apache.http.HttpRequest;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpDelete;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.conn.routing.HttpRoute;
-import org.apache.http.conn.routing.HttpRoutePlanner;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.DefaultRoutePlanner;
-import org.apache.http.impl.conn.DefaultSchemePortResolver;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.message.BasicHeader;
-import org.apache.http.protocol.HttpContext;
-import org.apache.http.util.EntityUtils;
+import com.brinkus.labs.neo4j.eureka.transport.ApacheAsyncTransport;
+import com.brinkus.labs.neo4j.eureka.transport.ApacheTransport;
+import com.brinkus.labs.neo4j.eureka.transport.AsyncTransport;
+import com.brinkus.labs.neo4j.eureka.transport.JdkTransport;
+import com.brinkus.labs.neo4j.eureka.transport.Transport;
+import com.brinkus.labs.neo4j.eureka.transport.TransportRequest;
+import com.brinkus.labs.neo4j.eureka.transport.TransportResponse;
+import com.brinkus.labs.neo4j.eureka.type.CircuitState;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.PoolStatistics;
+import com.brinkus.labs.neo4j.eureka.type.TransportType;
+import com.brinkus.labs.neo4j.eureka.type.config.Breaker;
+import com.brinkus.labs.neo4j.eureka.type.config.Pool;
+import com.brinkus.labs.neo4j.eureka.type.config.Retry;
 import org.neo4j.logging.FormattedLog;
 import org.neo4j.logging.Log;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * HTTP REST client.
+ * <p>
+ * The requests are executed by a {@link Transport}, the Apache HTTP client with a connection pool by default. If the
+ * client was built with a shared {@link HttpReactor} (or any other {@link AsyncTransport}), every request is executed
+ * without blocking and the blocking methods simply wait for the result of the asynchronous ones, so their caller thread
+ * is parked until the response arrives.
+ * <p>
+ * The idempotent requests (GET, PUT, DELETE) failed by an unreachable or unhealthy discovery service are retried
+ * within their deadline according to the {@link RetryPolicy}. Every request goes through the discovery service's
+ * {@link CircuitBreaker}.
+ * <p>
+ * The response bodies are read by a {@link ResponseConsumer}. Whatever the status code or the outcome of the consumer
+ * is, the unread content is discarded and the connection is released to the pool before the method returns.
  */
 public class RestClient {
 
@@ -65,6 +77,20 @@ public class RestClient {
 
         private int port;
 
+        private HttpReactor reactor;
+
+        private ConnectionPool connectionPool;
+
+        private Pool pool = new Pool();
+
+        private TransportType transportType = TransportType.APACHE;
+
+        private Transport transport;
+
+        private Retry retry = new Retry();
+
+        private Breaker breaker = new Breaker();
+
         /**
          * Set the discovery service's host.
          *
@@ -91,33 +117,126 @@ public class RestClient {
             return this;
         }
 
+        /**
+         * Set the shared I/O reactor to execute the requests in non-blocking mode.
+         *
+         * @param reactor
+         *         the shared I/O reactor.
+         *
+         * @return the builder instance
+         */
+        public Builder withReactor(final HttpReactor reactor) {
+            this.reactor = reactor;
+            return this;
+        }
+
+        /**
+         * Set the connection pool shared with the other {@link RestClient} instances.
+         *
+         * @param connectionPool
+         *         the shared connection pool.
+         *
+         * @return the builder instance
+         */
+        public Builder withConnectionPool(final ConnectionPool connectionPool) {
+            this.connectionPool = connectionPool;
+            return this;
+        }
+
+        /**
+         * Set the settings of the client's own connection pool, used if no shared connection pool was set.
+         *
+         * @param pool
+         *         the connection pool settings.
+         *
+         * @return the builder instance
+         */
+        public Builder withPool(final Pool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Set the type of the transport used if no reactor and no transport was set.
+         *
+         * @param transportType
+         *         the transport type.
+         *
+         * @return the builder instance
+         */
+        public Builder withTransportType(final TransportType transportType) {
+            this.transportType = transportType;
+            return this;
+        }
+
+        /**
+         * Set a custom transport, which takes precedence over the reactor and the connection pool.
+         *
+         * @param transport
+         *         the transport executing the requests.
+         *
+         * @return the builder instance
+         */
+        public Builder withTransport(final Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Set the retry settings of the idempotent requests.
+         *
+         * @param retry
+         *         the retry settings.
+         *
+         * @return the builder instance
+         */
+        public Builder withRetry(final Retry retry) {
+            this.retry = retry;
+            return this;
+        }
+
+        /**
+         * Set the circuit breaker settings of the discovery service.
+         *
+         * @param breaker
+         *         the circuit breaker settings.
+         *
+         * @return the builder instance
+         */
+        public Builder withCircuitBreaker(final Breaker breaker) {
+            this.breaker = breaker;
+            return this;
+        }
+
         /**
          * Create a new instance of the {@link RestClient}.
          *
          * @return the {@link RestClient} instance.
          */
         public RestClient build() {
-            List<BasicHeader> defaultHeaders = Arrays.asList(new BasicHeader(HttpHeaders.ACCEPT, "application/json"));
-
-            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-            connectionManager.setDefaultMaxPerRoute(10);
-            connectionManager.setMaxTotal(20);
-
-            HttpRoutePlanner routePlanner = new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE) {
-                @Override
-                public HttpRoute determineRoute(final HttpHost httpHost, final HttpRequest request, final HttpContext context) throws HttpException {
-                    HttpHost target = httpHost != null ? httpHost : new HttpHost(host, port, "http");
-                    return super.determineRoute(target, request, context);
-                }
-            };
+            RetryPolicy retryPolicy = new RetryPolicy.Builder().withRetry(retry).build();
+            CircuitBreaker circuitBreaker = new CircuitBreaker.Builder()
+                    .withName(String.format("%s:%d", host, port))
+                    .withBreaker(breaker)
+                    .build();
 
-            HttpClientBuilder builder = HttpClientBuilder
-                    .create()
-                    .setRoutePlanner(routePlanner)
-                    .setDefaultHeaders(defaultHeaders)
-                    .setConnectionManager(connectionManager);
+            return new RestClient(host, port, createTransport(), retryPolicy, circuitBreaker);
+        }
 
-            return new RestClient(host, port, builder.build());
+        private Transport createTransport() {
+            if (transport != null) {
+                return transport;
+            }
+            if (reactor != null) {
+                return new ApacheAsyncTransport(host, port, reactor);
+            }
+            if (transportType == TransportType.JDK) {
+                return new JdkTransport(host, port);
+            }
+            if (connectionPool == null) {
+                connectionPool = new ConnectionPool.Builder().withPool(pool).build();
+            }
+            return new ApacheTransport(host, port, connectionPool);
         }
 
     }
@@ -126,15 +245,31 @@ public class RestClient {
 
     public static final int STATUS_NO_CONTENT = 204;
 
+    public static final int STATUS_NOT_FOUND = 404;
+
     public static final String NO_CONTENT = "";
 
+    private static final String CONTENT_TYPE_JSON = "application/json";
+
     private final Log log = FormattedLog.toOutputStream(System.out);
 
     private final String host;
 
     private final int port;
 
-    private final HttpClient httpClient;
+    private final Transport transport;
+
+    private final RetryPolicy retryPolicy;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final ResponseConsumer<String> stringConsumer = new StringResponseConsumer();
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private final AtomicLong unconsumedResponses = new AtomicLong();
+
+    private final AtomicLong failedReleases = new AtomicLong();
 
     /**
      * Create a new instance of {@link RestClient}.
@@ -143,13 +278,25 @@ public class RestClient {
      *         the discovery service's host.
      * @param port
      *         the discovery service's port number.
-     * @param httpClient
-     *         the HTTP client instance.
+     * @param transport
+     *         the transport executing the requests.
+     * @param retryPolicy
+     *         the retry policy of the idempotent requests.
+     * @param circuitBreaker
+     *         the circuit breaker of the discovery service.
      */
-    RestClient(final String host, final int port, final HttpClient httpClient) {
+    RestClient(
+            final String host,
+            final int port,
+            final Transport transport,
+            final RetryPolicy retryPolicy,
+            final CircuitBreaker circuitBreaker
+    ) {
         this.host = host;
         this.port = port;
-        this.httpClient = httpClient;
+        this.transport = transport;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
     }
 
     /**
@@ -170,6 +317,60 @@ public class RestClient {
         return port;
     }
 
+    /**
+     * Check that the client executes the requests without blocking (e.g. on a shared I/O reactor).
+     *
+     * @return true if the client works in non-blocking mode.
+     */
+    public boolean isAsync() {
+        return transport instanceof AsyncTransport;
+    }
+
+    /**
+     * Get the number of the requests that were not completed before their deadline.
+     *
+     * @return the number of the timed out requests towards the discovery service.
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    /**
+     * Get the number of the responses whose body was not read to its end and was discarded by the client.
+     *
+     * @return the number of the unconsumed responses.
+     */
+    public long getUnconsumedResponseCount() {
+        return unconsumedResponses.get();
+    }
+
+    /**
+     * Get the number of the responses whose connection could not be released to the pool and had to be closed.
+     *
+     * @return the number of the failed connection releases.
+     */
+    public long getFailedReleaseCount() {
+        return failedReleases.get();
+    }
+
+    /**
+     * Get the state of the discovery service's circuit breaker.
+     *
+     * @return the circuit state.
+     */
+    public CircuitState getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Get the usage of the connection pool of the transport.
+     *
+     * @return the connection pool statistics or null if the transport has no pool statistics.
+     */
+    public PoolStatistics getPoolStatistics() {
+        return transport.getPoolStatistics();
+    }
+
     /**
      * Execute a HTTP GET request to the given uri.
      *
@@ -199,8 +400,60 @@ public class RestClient {
      *         if an error occur during the request.
      */
     public String get(final String uri, final int statusCode) throws RestClientException {
-        HttpGet request = new HttpGet(uri);
-        return sendRequests(request, statusCode);
+        return get(uri, statusCode, Deadline.none());
+    }
+
+    /**
+     * Execute a HTTP GET request to the given uri with the expected status code, completed before the deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the response message.
+     *
+     * @throws DeadlineExceededException
+     *         if the request was not completed before the deadline.
+     * @throws RestClientException
+     *         if an error occur during the request.
+     */
+    public String get(final String uri, final int statusCode, final Deadline deadline) throws RestClientException {
+        return get(uri, statusCode, deadline, stringConsumer);
+    }
+
+    /**
+     * Execute a HTTP GET request to the given uri with the expected status code, completed before the deadline, and
+     * stream the response body to the consumer.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     * @param consumer
+     *         the consumer of the response body.
+     * @param <T>
+     *         the type of the consumed result.
+     *
+     * @return the result of the consumer.
+     *
+     * @throws DeadlineExceededException
+     *         if the request was not completed before the deadline.
+     * @throws RestClientException
+     *         if an error occur during the request.
+     */
+    public <T> T get(
+            final String uri,
+            final int statusCode,
+            final Deadline deadline,
+            final ResponseConsumer<T> consumer
+    ) throws RestClientException {
+        TransportRequest request = new TransportRequest(TransportRequest.GET, uri);
+        return sendRequests(request, statusCode, deadline, consumer);
     }
 
     /**
@@ -236,11 +489,57 @@ public class RestClient {
      *         if an error occur during the request.
      */
     public String post(final String uri, final String content, final int statusCode) throws RestClientException {
-        HttpPost request = new HttpPost(uri);
-        request.addHeader(HttpHeaders.CONTENT_TYPE, "application/json");
-        request.setEntity(new StringEntity(content, Consts.UTF_8));
+        return post(uri, content, statusCode, Deadline.none());
+    }
 
-        return sendRequests(request, statusCode);
+    /**
+     * Execute a HTTP POST request to the given uri with the expected status code, completed before the deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param content
+     *         the request's content
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the response message.
+     *
+     * @throws DeadlineExceededException
+     *         if the request was not completed before the deadline.
+     * @throws RestClientException
+     *         if an error occur during the request.
+     */
+    public String post(final String uri, final String content, final int statusCode, final Deadline deadline) throws RestClientException {
+        TransportRequest request = new TransportRequest(TransportRequest.POST, uri, CONTENT_TYPE_JSON, content.getBytes(StandardCharsets.UTF_8));
+
+        return sendRequests(request, statusCode, deadline, stringConsumer);
+    }
+
+    /**
+     * Execute a HTTP POST request with pre-encoded JSON content to the given uri with the expected status code,
+     * completed before the deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param content
+     *         the UTF-8 encoded JSON content of the request, which is not copied and must not be modified
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the response message.
+     *
+     * @throws DeadlineExceededException
+     *         if the request was not completed before the deadline.
+     * @throws RestClientException
+     *         if an error occur during the request.
+     */
+    public String post(final String uri, final byte[] content, final int statusCode, final Deadline deadline) throws RestClientException {
+        TransportRequest request = new TransportRequest(TransportRequest.POST, uri, CONTENT_TYPE_JSON, content);
+        return sendRequests(request, statusCode, deadline, stringConsumer);
     }
 
     /**
@@ -272,8 +571,29 @@ public class RestClient {
      *         if an error occur during the request.
      */
     public String put(final String uri, final int statusCode) throws RestClientException {
-        HttpPut request = new HttpPut(uri);
-        return sendRequests(request, statusCode);
+        return put(uri, statusCode, Deadline.none());
+    }
+
+    /**
+     * Execute a HTTP PUT request to the given uri with the expected status code, completed before the deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the response message.
+     *
+     * @throws DeadlineExceededException
+     *         if the request was not completed before the deadline.
+     * @throws RestClientException
+     *         if an error occur during the request.
+     */
+    public String put(final String uri, final int statusCode, final Deadline deadline) throws RestClientException {
+        TransportRequest request = new TransportRequest(TransportRequest.PUT, uri);
+        return sendRequests(request, statusCode, deadline, stringConsumer);
     }
 
     /**
@@ -305,37 +625,537 @@ public class RestClient {
      *         if an error occur during the request.
      */
     public String delete(final String uri, final int statusCode) throws RestClientException {
-        HttpDelete request = new HttpDelete(uri);
-        return sendRequests(request, statusCode);
+        return delete(uri, statusCode, Deadline.none());
+    }
+
+    /**
+     * Execute a HTTP DELETE request to the given uri with the expected status code, completed before the deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the response message.
+     *
+     * @throws DeadlineExceededException
+     *         if the request was not completed before the deadline.
+     * @throws RestClientException
+     *         if an error occur during the request.
+     */
+    public String delete(final String uri, final int statusCode, final Deadline deadline) throws RestClientException {
+        TransportRequest request = new TransportRequest(TransportRequest.DELETE, uri);
+        return sendRequests(request, statusCode, deadline, stringConsumer);
+    }
+
+    /**
+     * Execute an asynchronous HTTP GET request to the given uri with the expected status code.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     *
+     * @return the future of the response message, completed exceptionally with a {@link RestClientException} if an
+     * error occur during the request.
+     */
+    public CompletableFuture<String> getAsync(final String uri, final int statusCode) {
+        return getAsync(uri, statusCode, Deadline.none());
+    }
+
+    /**
+     * Execute an asynchronous HTTP GET request to the given uri with the expected status code, completed before the
+     * deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the future of the response message, completed exceptionally with a {@link DeadlineExceededException}
+     * if the request was not completed before the deadline, or with a {@link RestClientException} if an error occur
+     * during the request.
+     */
+    public CompletableFuture<String> getAsync(final String uri, final int statusCode, final Deadline deadline) {
+        return getAsync(uri, statusCode, deadline, stringConsumer);
+    }
+
+    /**
+     * Execute an asynchronous HTTP GET request to the given uri with the expected status code, completed before the
+     * deadline, and pass the response body to the consumer.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     * @param consumer
+     *         the consumer of the response body.
+     * @param <T>
+     *         the type of the consumed result.
+     *
+     * @return the future of the consumer's result, completed exceptionally with a {@link DeadlineExceededException}
+     * if the request was not completed before the deadline, or with a {@link RestClientException} if an error occur
+     * during the request.
+     */
+    public <T> CompletableFuture<T> getAsync(
+            final String uri,
+            final int statusCode,
+            final Deadline deadline,
+            final ResponseConsumer<T> consumer
+    ) {
+        TransportRequest request = new TransportRequest(TransportRequest.GET, uri);
+        return sendRequestsAsync(request, statusCode, deadline, consumer);
+    }
+
+    /**
+     * Execute an asynchronous HTTP POST request to the given uri with the expected status code.
+     *
+     * @param uri
+     *         the target uri.
+     * @param content
+     *         the request's content
+     * @param statusCode
+     *         the expected response status code.
+     *
+     * @return the future of the response message, completed exceptionally with a {@link RestClientException} if an
+     * error occur during the request.
+     */
+    public CompletableFuture<String> postAsync(final String uri, final String content, final int statusCode) {
+        return postAsync(uri, content, statusCode, Deadline.none());
+    }
+
+    /**
+     * Execute an asynchronous HTTP POST request to the given uri with the expected status code, completed before the
+     * deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param content
+     *         the request's content
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the future of the response message, completed exceptionally with a {@link DeadlineExceededException}
+     * if the request was not completed before the deadline, or with a {@link RestClientException} if an error occur
+     * during the request.
+     */
+    public CompletableFuture<String> postAsync(final String uri, final String content, final int statusCode, final Deadline deadline) {
+        TransportRequest request = new TransportRequest(TransportRequest.POST, uri, CONTENT_TYPE_JSON, content.getBytes(StandardCharsets.UTF_8));
+
+        return sendRequestsAsync(request, statusCode, deadline, stringConsumer);
+    }
+
+    /**
+     * Execute an asynchronous HTTP PUT request to the given uri with the expected status code.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     *
+     * @return the future of the response message, completed exceptionally with a {@link RestClientException} if an
+     * error occur during the request.
+     */
+    public CompletableFuture<String> putAsync(final String uri, final int statusCode) {
+        return putAsync(uri, statusCode, Deadline.none());
+    }
+
+    /**
+     * Execute an asynchronous HTTP PUT request to the given uri with the expected status code, completed before the
+     * deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the future of the response message, completed exceptionally with a {@link DeadlineExceededException}
+     * if the request was not completed before the deadline, or with a {@link RestClientException} if an error occur
+     * during the request.
+     */
+    public CompletableFuture<String> putAsync(final String uri, final int statusCode, final Deadline deadline) {
+        TransportRequest request = new TransportRequest(TransportRequest.PUT, uri);
+        return sendRequestsAsync(request, statusCode, deadline, stringConsumer);
+    }
+
+    /**
+     * Execute an asynchronous HTTP DELETE request to the given uri with the expected status code.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     *
+     * @return the future of the response message, completed exceptionally with a {@link RestClientException} if an
+     * error occur during the request.
+     */
+    public CompletableFuture<String> deleteAsync(final String uri, final int statusCode) {
+        return deleteAsync(uri, statusCode, Deadline.none());
     }
 
-    private String sendRequests(HttpUriRequest request, int statusCode) throws RestClientException {
-        log.debug("Sending %s request to %s", request.getMethod(), request.getURI());
-        HttpResponse response;
+    /**
+     * Execute an asynchronous HTTP DELETE request to the given uri with the expected status code, completed before the
+     * deadline.
+     *
+     * @param uri
+     *         the target uri.
+     * @param statusCode
+     *         the expected response status code.
+     * @param deadline
+     *         the deadline of the whole request.
+     *
+     * @return the future of the response message, completed exceptionally with a {@link DeadlineExceededException}
+     * if the request was not completed before the deadline, or with a {@link RestClientException} if an error occur
+     * during the request.
+     */
+    public CompletableFuture<String> deleteAsync(final String uri, final int statusCode, final Deadline deadline) {
+        TransportRequest request = new TransportRequest(TransportRequest.DELETE, uri);
+        return sendRequestsAsync(request, statusCode, deadline, stringConsumer);
+    }
+
+    private <T> T sendRequests(
+            TransportRequest request,
+            int statusCode,
+            Deadline deadline,
+            ResponseConsumer<T> consumer
+    ) throws RestClientException {
+        if (isAsync()) {
+            return await(sendRequestsAsync(request, statusCode, deadline, consumer));
+        }
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.allowRequest()) {
+                throw circuitOpen(request);
+            }
+            try {
+                T content = execute(request, statusCode, deadline, consumer);
+                circuitBreaker.onSuccess();
+                return content;
+            } catch (RestClientException e) {
+                recordFailure(e);
+                long delay = retryDelay(request, e, attempt, deadline);
+                if (delay < 0) {
+                    throw e;
+                }
+                sleep(delay);
+                request.reset();
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> sendRequestsAsync(
+            TransportRequest request,
+            int statusCode,
+            Deadline deadline,
+            ResponseConsumer<T> consumer
+    ) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (isAsync()) {
+            attemptAsync(request, statusCode, deadline, consumer, 1, result);
+            return result;
+        }
         try {
-            response = httpClient.execute(request);
-        } catch (IOException e) {
-            String message = "An error occurred during the registration HTTP communication process!";
-            log.error(message, e);
-            throw new RequestFailedException(message, e);
+            result.complete(sendRequests(request, statusCode, deadline, consumer));
+        } catch (RestClientException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private <T> void attemptAsync(
+            final TransportRequest request,
+            final int statusCode,
+            final Deadline deadline,
+            final ResponseConsumer<T> consumer,
+            final int attempt,
+            final CompletableFuture<T> result
+    ) {
+        if (!circuitBreaker.allowRequest()) {
+            result.completeExceptionally(circuitOpen(request));
+            return;
+        }
+        executeAsync(request, statusCode, deadline, consumer).whenComplete(new BiConsumer<T, Throwable>() {
+            @Override
+            public void accept(final T content, final Throwable throwable) {
+                if (throwable == null) {
+                    circuitBreaker.onSuccess();
+                    result.complete(content);
+                    return;
+                }
+                RestClientException e = throwable instanceof RestClientException
+                        ? (RestClientException) throwable
+                        : new RequestFailedException("An error occurred during the HTTP communication process!", throwable);
+                recordFailure(e);
+                long delay = retryDelay(request, e, attempt, deadline);
+                if (delay < 0) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                DeadlineTimer.delay(delay, new Runnable() {
+                    @Override
+                    public void run() {
+                        request.reset();
+                        attemptAsync(request, statusCode, deadline, consumer, attempt + 1, result);
+                    }
+                });
+            }
+        });
+    }
+
+    private <T> T execute(
+            final TransportRequest request,
+            int statusCode,
+            Deadline deadline,
+            ResponseConsumer<T> consumer
+    ) throws RestClientException {
+        log.debug("Sending %s request to %s%s (deadline: %s)", request.getMethod(), host, request.getUri(), deadline);
+        checkDeadline(request, deadline);
+
+        // the pool lease, the connect and the read together must fit into the deadline
+        ScheduledFuture<?> abort = DeadlineTimer.schedule(deadline, new Runnable() {
+            @Override
+            public void run() {
+                request.abort();
+            }
+        });
+        try {
+            TransportResponse response;
+            try {
+                response = transport.execute(request, deadline);
+            } catch (IOException e) {
+                if (isTimeout(request, e, deadline)) {
+                    throw deadlineExceeded(request, e);
+                }
+                String message = "An error occurred during the registration HTTP communication process!";
+                log.error(message, e);
+                throw new RequestFailedException(message, e);
+            }
+
+            try {
+                return processResponse(response, statusCode, consumer);
+            } catch (IOException e) {
+                if (isTimeout(request, e, deadline)) {
+                    throw deadlineExceeded(request, e);
+                }
+                String message = "An error occurred during the response process!";
+                log.error(message, e);
+                throw new ResponseProcessFailedException(message, e);
+            } finally {
+                release(request, response);
+            }
+        } finally {
+            DeadlineTimer.cancel(abort);
+        }
+    }
+
+    private <T> CompletableFuture<T> executeAsync(
+            final TransportRequest request,
+            final int statusCode,
+            final Deadline deadline,
+            final ResponseConsumer<T> consumer
+    ) {
+        log.debug("Sending asynchronous %s request to %s%s (deadline: %s)", request.getMethod(), host, request.getUri(), deadline);
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            checkDeadline(request, deadline);
+        } catch (DeadlineExceededException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        ((AsyncTransport) transport).executeAsync(request, deadline).whenComplete(new BiConsumer<TransportResponse, Throwable>() {
+            @Override
+            public void accept(final TransportResponse response, final Throwable throwable) {
+                if (throwable != null) {
+                    failed(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                    return;
+                }
+                try {
+                    T content;
+                    try {
+                        content = processResponse(response, statusCode, consumer);
+                    } finally {
+                        // released before the result is completed, so the dependent stages see the released response
+                        release(request, response);
+                    }
+                    result.complete(content);
+                } catch (RestClientException e) {
+                    result.completeExceptionally(e);
+                } catch (IOException e) {
+                    String message = "An error occurred during the response process!";
+                    log.error(message, e);
+                    result.completeExceptionally(new ResponseProcessFailedException(message, e));
+                }
+            }
+
+            private void failed(final Throwable e) {
+                if (e instanceof IOException && isTimeout(request, (IOException) e, deadline)) {
+                    timeout(result, request, e);
+                    return;
+                }
+                String message = "An error occurred during the registration HTTP communication process!";
+                log.error(message, e);
+                result.completeExceptionally(new RequestFailedException(message, e));
+            }
+        });
+
+        final ScheduledFuture<?> abort = DeadlineTimer.schedule(deadline, new Runnable() {
+            @Override
+            public void run() {
+                if (timeout(result, request, null)) {
+                    request.abort();
+                }
+            }
+        });
+        if (abort != null) {
+            result.whenComplete(new BiConsumer<T, Throwable>() {
+                @Override
+                public void accept(final T content, final Throwable throwable) {
+                    DeadlineTimer.cancel(abort);
+                }
+            });
         }
-        if (response.getStatusLine().getStatusCode() != statusCode) {
-            String message = String.format("The response status code %s is not matching with the expected %s!", response.getStatusLine().getStatusCode(), host);
+        return result;
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws RestClientException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestFailedException("The HTTP request was interrupted!", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RestClientException) {
+                throw (RestClientException) e.getCause();
+            }
+            throw new RequestFailedException("An error occurred during the HTTP communication process!", e.getCause());
+        }
+    }
+
+    private <T> T processResponse(
+            TransportResponse response,
+            int statusCode,
+            ResponseConsumer<T> consumer
+    ) throws RestClientException, IOException {
+        if (response.getStatusCode() != statusCode) {
+            String message = String.format("The response status code %s from %s is not matching with the expected %s!", response.getStatusCode(), host, statusCode);
             log.warn(message);
-            throw new ResponseCodeNotMatchingException(message);
+            throw new ResponseCodeNotMatchingException(message, response.getStatusCode());
         }
 
+        return consumer.consume(response.getContent(), response.getContentLength(), response.getCharset());
+    }
+
+    /**
+     * Discard the unread content of the response and release its connection, whatever happened to the response.
+     */
+    private void release(TransportRequest request, TransportResponse response) {
         try {
-            if (response.getStatusLine().getStatusCode() == STATUS_OK) {
-                return EntityUtils.toString(response.getEntity());
-            } else {
-                return NO_CONTENT;
+            if (response.release()) {
+                log.debug("Discarded the unread content of the %s response from %s (%d so far)",
+                          request.getMethod(), host, unconsumedResponses.incrementAndGet());
             }
         } catch (IOException e) {
-            String message = "An error occurred during the response process!";
-            log.error(message, e);
-            throw new ResponseProcessFailedException(message, e);
+            log.warn("The connection of the %s response from %s could not be released (%d so far)",
+                     request.getMethod(), host, failedReleases.incrementAndGet());
+        }
+    }
+
+    private void checkDeadline(TransportRequest request, Deadline deadline) throws DeadlineExceededException {
+        if (deadline.isBounded() && deadline.remainingMillis() <= 0) {
+            throw deadlineExceeded(request, null);
+        }
+    }
+
+    private boolean isTimeout(TransportRequest request, IOException e, Deadline deadline) {
+        // the deadline timer may abort the request a fraction of a millisecond before the deadline expires
+        return deadline.isExpired() || request.isAborted() || e instanceof InterruptedIOException;
+    }
+
+    private boolean timeout(CompletableFuture<?> result, TransportRequest request, Throwable cause) {
+        if (result.isDone()) {
+            return false;
+        }
+        // count before completing, the dependent stages run on completion
+        countTimeout();
+        return result.completeExceptionally(new DeadlineExceededException(timeoutMessage(request), cause));
+    }
+
+    private DeadlineExceededException deadlineExceeded(TransportRequest request, Throwable cause) {
+        countTimeout();
+        return new DeadlineExceededException(timeoutMessage(request), cause);
+    }
+
+    private String timeoutMessage(TransportRequest request) {
+        return String.format("The %s request to %s was not completed before its deadline!", request.getMethod(), host);
+    }
+
+    private void countTimeout() {
+        log.warn("Request deadline exceeded towards %s (%d timeout(s) so far)", host, timeouts.incrementAndGet());
+    }
+
+    private void recordFailure(RestClientException e) {
+        if (isTransient(e)) {
+            circuitBreaker.onFailure();
+        } else if (!(e instanceof CircuitOpenException)) {
+            // the discovery service responded, so it is reachable
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * Get the delay before the next attempt.
+     *
+     * @return the delay in milliseconds or -1 if the request must not be retried.
+     */
+    private long retryDelay(TransportRequest request, RestClientException e, int attempt, Deadline deadline) {
+        if (!isIdempotent(request) || !isTransient(e) || attempt >= retryPolicy.getMaxAttempts()) {
+            return -1;
+        }
+        long delay = retryPolicy.getDelayMs(attempt);
+        if (deadline.isBounded() && delay >= deadline.remainingMillis()) {
+            return -1;
+        }
+        log.info("Retrying %s request to %s in %d ms (attempt %d of %d)",
+                 request.getMethod(), host, delay, attempt + 1, retryPolicy.getMaxAttempts());
+        return delay;
+    }
+
+    private void sleep(long delay) throws RestClientException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestFailedException("The HTTP request retry was interrupted!", e);
+        }
+    }
+
+    private CircuitOpenException circuitOpen(TransportRequest request) {
+        return new CircuitOpenException(String.format("The %s request to %s was rejected, the circuit breaker is open!", request.getMethod(), host));
+    }
+
+    private static boolean isIdempotent(TransportRequest request) {
+        String method = request.getMethod();
+        return TransportRequest.GET.equals(method) || TransportRequest.PUT.equals(method) || TransportRequest.DELETE.equals(method);
+    }
+
+    /**
+     * Check that the error was caused by an unreachable or unhealthy discovery service.
+     */
+    private static boolean isTransient(RestClientException e) {
+        if (e instanceof ResponseCodeNotMatchingException) {
+            return ((ResponseCodeNotMatchingException) e).getStatusCode() >= 500;
         }
+        return e instanceof RequestFailedException || e instanceof ResponseProcessFailedException;
     }
 
 }
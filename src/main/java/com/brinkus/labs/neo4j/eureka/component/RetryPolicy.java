@@ -0,0 +1,167 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.config.Retry;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter. The delay before the n-th retry is a uniformly distributed random value
+ * between zero and {@code min(maxDelay, baseDelay * 2^(n-1))}, so the clients failing at the same time do not retry in
+ * lock-step.
+ */
+public class RetryPolicy {
+
+    /**
+     * Builder to create a new {@link RetryPolicy} instance.
+     */
+    public static final class Builder {
+
+        private int maxAttempts = 3;
+
+        private long baseDelayMs = 200;
+
+        private long maxDelayMs = 5000;
+
+        /**
+         * Copy the retry settings.
+         *
+         * @param retry
+         *         the retry settings.
+         *
+         * @return the builder instance.
+         */
+        public Builder withRetry(final Retry retry) {
+            this.maxAttempts = retry.getMaxAttempts();
+            this.baseDelayMs = retry.getBaseDelayMs();
+            this.maxDelayMs = retry.getMaxDelayMs();
+            return this;
+        }
+
+        /**
+         * Set the maximum number of the attempts.
+         *
+         * @param maxAttempts
+         *         the maximum number of the attempts including the first one.
+         *
+         * @return the builder instance.
+         */
+        public Builder withMaxAttempts(final int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Set the base delay of the exponential backoff.
+         *
+         * @param baseDelayMs
+         *         the base delay in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withBaseDelayMs(final long baseDelayMs) {
+            this.baseDelayMs = baseDelayMs;
+            return this;
+        }
+
+        /**
+         * Set the maximum delay between two attempts.
+         *
+         * @param maxDelayMs
+         *         the maximum delay in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withMaxDelayMs(final long maxDelayMs) {
+            this.maxDelayMs = maxDelayMs;
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link RetryPolicy}.
+         *
+         * @return the retry policy instance.
+         */
+        public RetryPolicy build() {
+            Validate.isTrue(maxAttempts > 0, "The maximum number of the attempts must be positive!");
+            Validate.isTrue(baseDelayMs > 0, "The base delay must be positive!");
+            Validate.isTrue(maxDelayMs >= baseDelayMs, "The maximum delay must not be less than the base delay!");
+            return new RetryPolicy(maxAttempts, baseDelayMs, maxDelayMs);
+        }
+    }
+
+    private final int maxAttempts;
+
+    private final long baseDelayMs;
+
+    private final long maxDelayMs;
+
+    /**
+     * Create a new instance of {@link RetryPolicy}.
+     *
+     * @param maxAttempts
+     *         the maximum number of the attempts including the first one
+     * @param baseDelayMs
+     *         the base delay in milliseconds
+     * @param maxDelayMs
+     *         the maximum delay in milliseconds
+     */
+    RetryPolicy(final int maxAttempts, final long baseDelayMs, final long maxDelayMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Get the maximum number of the attempts.
+     *
+     * @return the maximum number of the attempts including the first one.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Get the upper bound of the delay after the given failed attempt.
+     *
+     * @param attempt
+     *         the number of the failed attempt (starting from 1).
+     *
+     * @return the upper bound of the delay in milliseconds.
+     */
+    public long getMaxDelayMs(final int attempt) {
+        int exponent = Math.min(Math.max(attempt, 1) - 1, 30);
+        return Math.min(maxDelayMs, baseDelayMs << exponent);
+    }
+
+    /**
+     * Get a randomized delay after the given failed attempt.
+     *
+     * @param attempt
+     *         the number of the failed attempt (starting from 1).
+     *
+     * @return the delay in milliseconds.
+     */
+    public long getDelayMs(final int attempt) {
+        return ThreadLocalRandom.current().nextLong(getMaxDelayMs(attempt) + 1);
+    }
+
+}
@@ -0,0 +1,426 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.LifecycleStatus;
+import org.apache.commons.lang3.Validate;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Graceful shutdown of every lifecycle scheduled by the {@link LifecycleScheduler}.
+ * <p>
+ * The shutdown stops the lifecycle tasks, then de-registers the instance from every discovery service concurrently,
+ * and gives up after the total time budget. The shutdown time does not grow with the number of the discovery services,
+ * and an unreachable discovery service cannot hang the shutdown of Neo4j.
+ * <p>
+ * The registered coordinators are executed by the server's plugin lifecycle before the database stops (see
+ * {@link #executeRegistered()}), and by a JVM shutdown hook otherwise. Neo4j closes its web server before it stops the
+ * plugins, so the shutdown cannot keep the instance serving, it de-registers right away. The drain is started before
+ * the shutdown instead (see {@link #drainRegistered()}): it takes the instance out of service and waits for the drain
+ * window while Neo4j still serves, so the clients can refresh their cached registry and stop routing requests to the
+ * instance before it goes away. The heartbeats go on during the window, so the lease does not expire before the
+ * de-registration.
+ */
+public class ShutdownCoordinator {
+
+    /**
+     * Builder to create a new {@link ShutdownCoordinator} instance.
+     */
+    public static final class Builder {
+
+        private LifecycleScheduler scheduler;
+
+        private long timeoutMs = 5000;
+
+        private long drainMs = 0;
+
+        private boolean virtualThreads = false;
+
+        private Runnable beforeShutdown;
+
+        private List<Closeable> resources = new ArrayList<>();
+
+        /**
+         * Set the scheduler of the lifecycle tasks.
+         *
+         * @param scheduler
+         *         the lifecycle scheduler.
+         *
+         * @return the builder instance.
+         */
+        public Builder withScheduler(final LifecycleScheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Set the total time budget of the de-registration.
+         *
+         * @param timeoutMs
+         *         the time budget in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withTimeoutMs(final long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+            return this;
+        }
+
+        /**
+         * Set the drain window waited after taking the instance out of service.
+         *
+         * @param drainMs
+         *         the drain window in milliseconds.
+         *
+         * @return the builder instance.
+         */
+        public Builder withDrainMs(final long drainMs) {
+            this.drainMs = drainMs;
+            return this;
+        }
+
+        /**
+         * Set the virtual thread usage of the de-registration requests.
+         *
+         * @param virtualThreads
+         *         the virtual thread usage state.
+         *
+         * @return the builder instance.
+         */
+        public Builder withVirtualThreads(final boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Set the action executed first by the shutdown, before the de-registration.
+         *
+         * @param beforeShutdown
+         *         the action, e.g. stopping the health status propagation.
+         *
+         * @return the builder instance.
+         */
+        public Builder withBeforeShutdown(final Runnable beforeShutdown) {
+            this.beforeShutdown = beforeShutdown;
+            return this;
+        }
+
+        /**
+         * Set the resources closed after the de-registration, e.g. the shared I/O reactor.
+         *
+         * @param resources
+         *         the resources.
+         *
+         * @return the builder instance.
+         */
+        public Builder withResources(final List<? extends Closeable> resources) {
+            this.resources = new ArrayList<>(resources);
+            return this;
+        }
+
+        /**
+         * Create a new instance of the {@link ShutdownCoordinator}.
+         *
+         * @return the shutdown coordinator instance.
+         */
+        public ShutdownCoordinator build() {
+            Validate.notNull(scheduler);
+            Validate.isTrue(timeoutMs > 0, "The shutdown timeout must be positive!");
+            Validate.isTrue(drainMs >= 0, "The drain window must not be negative!");
+            return new ShutdownCoordinator(scheduler, timeoutMs, drainMs, ThreadFactories.create("eureka-shutdown", virtualThreads),
+                                           beforeShutdown, resources);
+        }
+
+    }
+
+    private static final List<ShutdownCoordinator> REGISTERED = new CopyOnWriteArrayList<>();
+
+    private final Log log = FormattedLog.toOutputStream(System.out);
+
+    private final LifecycleScheduler scheduler;
+
+    private final long timeoutMs;
+
+    private final long drainMs;
+
+    private final ThreadFactory threadFactory;
+
+    private final Runnable beforeShutdown;
+
+    private final List<Closeable> resources;
+
+    private final AtomicBoolean executed = new AtomicBoolean();
+
+    /**
+     * Create a new instance of {@link ShutdownCoordinator}.
+     *
+     * @param scheduler
+     *         the scheduler of the lifecycle tasks
+     * @param timeoutMs
+     *         the total time budget of the de-registration in milliseconds
+     * @param drainMs
+     *         the drain window after taking the instance out of service in milliseconds
+     * @param threadFactory
+     *         the factory of the threads sending the de-registration requests
+     * @param beforeShutdown
+     *         the action executed before the de-registration (can be null)
+     * @param resources
+     *         the resources closed after the de-registration
+     */
+    ShutdownCoordinator(
+            final LifecycleScheduler scheduler,
+            final long timeoutMs,
+            final long drainMs,
+            final ThreadFactory threadFactory,
+            final Runnable beforeShutdown,
+            final List<Closeable> resources
+    ) {
+        this.scheduler = scheduler;
+        this.timeoutMs = timeoutMs;
+        this.drainMs = drainMs;
+        this.threadFactory = threadFactory;
+        this.beforeShutdown = beforeShutdown;
+        this.resources = resources;
+    }
+
+    /**
+     * Drain the instance of the registered coordinators, see {@link #drain()}.
+     *
+     * @return true if the instance was taken out of service in at least one discovery service.
+     */
+    public static boolean drainRegistered() {
+        boolean drained = false;
+        for (ShutdownCoordinator coordinator : REGISTERED) {
+            drained |= coordinator.drain();
+        }
+        return drained;
+    }
+
+    /**
+     * Execute the registered coordinators, de-registering the instance before the database stops.
+     */
+    public static void executeRegistered() {
+        for (ShutdownCoordinator coordinator : REGISTERED) {
+            coordinator.execute();
+        }
+    }
+
+    /**
+     * Register the coordinator to be executed by {@link #executeRegistered()}, and the JVM shutdown hook de-registering
+     * the instance if the plugin lifecycle did not stop.
+     */
+    public void register() {
+        REGISTERED.add(this);
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                execute();
+            }
+        }, "eureka-shutdown-coordinator"));
+    }
+
+    /**
+     * Take the instance out of service in every discovery service it is registered to, and wait for the drain window
+     * while the lifecycle tasks go on. It must be called before the shutdown of Neo4j starts, so the instance still
+     * serves the clients that did not refresh their cached registry yet.
+     * <p>
+     * The out of service requests have the time budget, so the drain takes at most the time budget plus the drain
+     * window. The window is not waited if the instance could not be taken out of service anywhere.
+     *
+     * @return true if the instance was taken out of service in at least one discovery service.
+     */
+    public boolean drain() {
+        if (executed.get()) {
+            return false;
+        }
+        return drain(shutdownHooks(scheduler.getTasks()));
+    }
+
+    /**
+     * Stop the lifecycle tasks and de-register the instance from every discovery service. Only the first call has
+     * effect.
+     *
+     * @return true if the instance was de-registered from every discovery service within the time budget.
+     */
+    public boolean execute() {
+        if (!executed.compareAndSet(false, true)) {
+            return false;
+        }
+        REGISTERED.remove(this);
+        List<LifecycleTask> tasks = scheduler.getTasks();
+        log.info("Shutting down the lifecycle of %d discovery service(s) within %d ms.", tasks.size(), timeoutMs);
+
+        if (beforeShutdown != null) {
+            try {
+                beforeShutdown.run();
+            } catch (RuntimeException e) {
+                log.warn("An error occurred before the shutdown, continuing with the de-registration!", e);
+            }
+        }
+
+        // no registration or heartbeat is started from now on, the in-flight ones are awaited by the de-registration
+        for (LifecycleTask task : tasks) {
+            task.cancel();
+        }
+
+        Map<String, ShutdownHook> shutdownHooks = shutdownHooks(tasks);
+        Map<String, CompletableFuture<Boolean>> deregistrations = new LinkedHashMap<>();
+        for (Map.Entry<String, ShutdownHook> shutdownHook : shutdownHooks.entrySet()) {
+            deregistrations.put(shutdownHook.getKey(), deregister(shutdownHook.getValue()));
+        }
+        List<String> failed = await(deregistrations, Deadline.after(timeoutMs));
+        scheduler.shutdown();
+        close();
+
+        if (failed.isEmpty()) {
+            log.info("The instance is de-registered from %d discovery service(s).", deregistrations.size());
+            return true;
+        }
+        log.warn("The instance could not be de-registered from %s within %d ms, its lease will expire.", failed, timeoutMs);
+        return false;
+    }
+
+    private void close() {
+        // the requests still running after the time budget are aborted
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                log.warn("An error occurred while closing %s!", resource);
+            }
+        }
+    }
+
+    private Map<String, ShutdownHook> shutdownHooks(final List<LifecycleTask> tasks) {
+        Map<String, ShutdownHook> shutdownHooks = new LinkedHashMap<>();
+        for (LifecycleTask task : tasks) {
+            LifecycleService current = task.getLifecycleService();
+            for (LifecycleService lifecycleService : task.getLifecycleServices()) {
+                // a lifecycle that is not registered yet is cancelled by its shutdown hook, and the discovery services
+                // left by a failover are de-registered too (best effort), so their stale lease does not wait to expire
+                if (lifecycleService != current && lifecycleService.getStatus() == LifecycleStatus.UNKNOWN) {
+                    continue;
+                }
+                RestClient restClient = lifecycleService.getRestClient();
+                shutdownHooks.put(restClient.getHost() + ":" + restClient.getPort(), new ShutdownHook.Builder()
+                        .withLifecycleService(lifecycleService)
+                        .build());
+            }
+        }
+        return shutdownHooks;
+    }
+
+    private boolean drain(final Map<String, ShutdownHook> shutdownHooks) {
+        Map<String, CompletableFuture<Boolean>> drains = new LinkedHashMap<>();
+        for (Map.Entry<String, ShutdownHook> shutdownHook : shutdownHooks.entrySet()) {
+            if (shutdownHook.getValue().isRegistered()) {
+                drains.put(shutdownHook.getKey(), drain(shutdownHook.getValue()));
+            }
+        }
+        if (drains.isEmpty()) {
+            return false;
+        }
+        List<String> failed = await(drains, Deadline.after(timeoutMs));
+        if (failed.size() == drains.size()) {
+            log.warn("The instance could not be taken out of service in any discovery service.");
+            return false;
+        }
+        if (!failed.isEmpty()) {
+            log.warn("The instance could not be taken out of service in %s within %d ms.", failed, timeoutMs);
+        }
+
+        // the heartbeats go on during the drain, so the lease does not expire before the de-registration
+        log.info("The instance is out of service, draining for %d ms.", drainMs);
+        try {
+            Thread.sleep(drainMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("The drain was interrupted!");
+        }
+        return true;
+    }
+
+    private CompletableFuture<Boolean> drain(final ShutdownHook shutdownHook) {
+        return start(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return shutdownHook.drain();
+            }
+        });
+    }
+
+    private CompletableFuture<Boolean> deregister(final ShutdownHook shutdownHook) {
+        return start(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return shutdownHook.execute();
+            }
+        });
+    }
+
+    private CompletableFuture<Boolean> start(final Callable<Boolean> operation) {
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.complete(operation.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }).start();
+        return result;
+    }
+
+    private List<String> await(final Map<String, CompletableFuture<Boolean>> operations, final Deadline deadline) {
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Boolean>> operation : operations.entrySet()) {
+            try {
+                if (!operation.getValue().get(Math.max(deadline.remainingMillis(), 0), TimeUnit.MILLISECONDS)) {
+                    failed.add(operation.getKey());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.add(operation.getKey());
+            } catch (ExecutionException | TimeoutException e) {
+                failed.add(operation.getKey());
+            }
+        }
+        return failed;
+    }
+
+}
@@ -19,12 +19,14 @@
 package com.brinkus.labs.neo4j.eureka.component;
 
 import com.brinkus.labs.neo4j.eureka.exception.EurekaPluginException;
+import com.brinkus.labs.neo4j.eureka.type.LifecycleStatus;
 import org.apache.commons.lang3.Validate;
 import org.neo4j.logging.FormattedLog;
 import org.neo4j.logging.Log;
 
 /**
- * Shutdown hook that will send a delete request to the discovery service to de-register the current application.
+ * Shutdown step of one discovery service, executed by the {@link ShutdownCoordinator}: it takes the instance out of
+ * service, or sends a delete request to the discovery service to de-register the current application.
  */
 public class ShutdownHook {
 
@@ -81,15 +83,29 @@ public class ShutdownHook {
     }
 
     /**
-     * Register a new shutdown hook;
+     * Check that the instance is registered (or a lifecycle operation is in progress).
+     *
+     * @return true if the instance may have to be taken out of service.
      */
-    public void register() {
-        Runtime.getRuntime().addShutdownHook(new Thread() {
-            @Override
-            public void run() {
-                execute();
-            }
-        });
+    boolean isRegistered() {
+        LifecycleStatus status = lifecycleService.getStatus();
+        return status != LifecycleStatus.UNKNOWN && !status.isDeregistration();
+    }
+
+    /**
+     * Take the instance out of service before the de-registration.
+     *
+     * @return true if the process was success.
+     */
+    boolean drain() {
+        try {
+            lifecycleService.takeOutOfService();
+            return true;
+        } catch (EurekaPluginException e) {
+            // the de-registration is still executed, only the clients are not warned in advance
+            log.warn("An error occurred during the out of service process!", e);
+            return false;
+        }
     }
 
     /**
@@ -99,6 +115,11 @@ public class ShutdownHook {
      */
     boolean execute() {
         try {
+            if (lifecycleService.cancel()) {
+                // the registration was not sent, or it will be rejected from now on
+                log.info("The instance is not registered, no de-registration is needed.");
+                return true;
+            }
             lifecycleService.deregister();
             return true;
         } catch (EurekaPluginException e) {
@@ -0,0 +1,84 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * {@link ResponseConsumer} reading the whole body into a {@link String}.
+ * <p>
+ * The body is read into a per-thread buffer which is reused by the following responses, so only the resulting
+ * {@link String} is allocated for a response. A buffer grown over {@link #MAX_RETAINED_SIZE} by a large body is not
+ * kept for the next response.
+ */
+public final class StringResponseConsumer implements ResponseConsumer<String> {
+
+    /**
+     * The initial size of the per-thread buffer.
+     */
+    static final int INITIAL_SIZE = 8 * 1024;
+
+    /**
+     * The largest buffer kept for the following responses.
+     */
+    static final int MAX_RETAINED_SIZE = 256 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFER = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[INITIAL_SIZE];
+        }
+    };
+
+    @Override
+    public String consume(final InputStream content, final long contentLength, final Charset charset) throws IOException {
+        byte[] buffer = BUFFER.get();
+        if (contentLength > buffer.length && contentLength <= Integer.MAX_VALUE) {
+            buffer = new byte[(int) contentLength];
+        }
+
+        int length = 0;
+        int read;
+        while ((read = content.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                if (length == contentLength) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, grow(length));
+            }
+        }
+
+        if (buffer.length <= MAX_RETAINED_SIZE) {
+            BUFFER.set(buffer);
+        }
+        return new String(buffer, 0, length, charset);
+    }
+
+    private static int grow(final int length) {
+        if (length >= Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("The response body is too large!");
+        }
+        return (int) Math.min((long) length << 1, Integer.MAX_VALUE - 8);
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factories of the threads running the blocking work of the plugin.
+ * <p>
+ * The plugin is compiled for Java 8, so the virtual threads (Java 21+) are created reflectively, and the platform
+ * threads are used if the running JVM does not support them.
+ */
+public final class ThreadFactories {
+
+    private static final Log LOG = FormattedLog.toOutputStream(System.out);
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+    /**
+     * Creates a new instance of {@link ThreadFactories}
+     */
+    private ThreadFactories() {
+        // utility class
+    }
+
+    /**
+     * Check that the running JVM supports the virtual threads.
+     *
+     * @return true if the virtual threads are supported.
+     */
+    public static boolean isVirtualThreadSupported() {
+        // Java 19 and 20 have the method, but it fails without the preview features
+        return virtual("eureka-probe") != null;
+    }
+
+    /**
+     * Create a thread factory.
+     *
+     * @param name
+     *         the name prefix of the threads.
+     * @param virtual
+     *         create virtual threads if the JVM supports them.
+     *
+     * @return the thread factory.
+     */
+    public static ThreadFactory create(final String name, final boolean virtual) {
+        if (!virtual) {
+            return platform(name);
+        }
+        ThreadFactory factory = virtual(name);
+        if (factory != null) {
+            return factory;
+        }
+        LOG.warn("The virtual threads are not supported by the JVM, %s uses platform threads.", name);
+        return platform(name);
+    }
+
+    /**
+     * Create a factory of named daemon platform threads.
+     *
+     * @param name
+     *         the name prefix of the threads.
+     *
+     * @return the thread factory.
+     */
+    public static ThreadFactory platform(final String name) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Create a factory of named virtual threads ({@code Thread.ofVirtual().name(name + "-", 1).factory()}).
+     *
+     * @return the thread factory or null if the virtual threads are not supported.
+     */
+    private static ThreadFactory virtual(final String name) {
+        if (OF_VIRTUAL == null) {
+            return null;
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("The virtual thread factory could not be created!", e);
+            return null;
+        }
+    }
+
+    private static Method findMethod(final Class<?> type, final String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
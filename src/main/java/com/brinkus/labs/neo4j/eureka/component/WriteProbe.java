@@ -0,0 +1,60 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health check of the write transactions.
+ * <p>
+ * The check creates and deletes a node in a transaction that is rolled back, so it fails on a read-only instance or if
+ * the write locks are not granted within the time budget, without changing the data. The node has no label or
+ * property, because their tokens would stay in the store after the rollback. Every check allocates a node id though.
+ */
+public class WriteProbe implements HealthProbe {
+
+    private final GraphDatabaseService service;
+
+    /**
+     * Create a new instance of {@link WriteProbe}.
+     *
+     * @param service
+     *         the checked database
+     */
+    public WriteProbe(final GraphDatabaseService service) {
+        this.service = service;
+    }
+
+    @Override
+    public HealthStatusCode check(final long timeoutMs) {
+        try (Transaction transaction = service.beginTx(timeoutMs, TimeUnit.MILLISECONDS)) {
+            Node node = service.createNode();
+            node.delete();
+            transaction.failure();
+        }
+        return HealthStatusCode.UP;
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.exception;
+
+/**
+ * Thrown if the request was rejected because the discovery service's circuit breaker is open.
+ */
+public class CircuitOpenException extends RestClientException {
+
+    /**
+     * Create a new instance of {@link CircuitOpenException}.
+     *
+     * @param message
+     *         the detail message.
+     */
+    public CircuitOpenException(final String message) {
+        super(message);
+    }
+
+}
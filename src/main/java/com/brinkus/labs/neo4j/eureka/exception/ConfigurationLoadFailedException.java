@@ -23,6 +23,16 @@ package com.brinkus.labs.neo4j.eureka.exception;
  */
 public class ConfigurationLoadFailedException extends EurekaPluginException {
 
+    /**
+     * Create a new instance of {@link ConfigurationLoadFailedException}.
+     *
+     * @param message
+     *         the detail message.
+     */
+    public ConfigurationLoadFailedException(final String message) {
+        super(message);
+    }
+
     /**
      * Create a new instance of {@link ConfigurationLoadFailedException}.
      *
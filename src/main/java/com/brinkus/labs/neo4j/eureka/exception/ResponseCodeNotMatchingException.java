@@ -23,6 +23,8 @@ package com.brinkus.labs.neo4j.eureka.exception;
  */
 public class ResponseCodeNotMatchingException extends RestClientException {
 
+    private final int statusCode;
+
     /**
      * Create a new instance of {@link ResponseCodeNotMatchingException}.
      *
@@ -30,7 +32,29 @@ public class ResponseCodeNotMatchingException extends RestClientException {
      *         the detail message.
      */
     public ResponseCodeNotMatchingException(final String message) {
+        this(message, 0);
+    }
+
+    /**
+     * Create a new instance of {@link ResponseCodeNotMatchingException}.
+     *
+     * @param message
+     *         the detail message.
+     * @param statusCode
+     *         the received response status code.
+     */
+    public ResponseCodeNotMatchingException(final String message, final int statusCode) {
         super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Get the received response status code.
+     *
+     * @return the status code or 0 if it is unknown.
+     */
+    public int getStatusCode() {
+        return statusCode;
     }
 
 }
@@ -0,0 +1,123 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.transport;
+
+import com.brinkus.labs.neo4j.eureka.component.HttpReactor;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.PoolStatistics;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * {@link AsyncTransport} on the non-blocking Apache HTTP client of a shared {@link HttpReactor}.
+ */
+public class ApacheAsyncTransport implements AsyncTransport {
+
+    private final HttpHost target;
+
+    private final HttpReactor reactor;
+
+    /**
+     * Create a new instance of {@link ApacheAsyncTransport}.
+     *
+     * @param host
+     *         the discovery service's host.
+     * @param port
+     *         the discovery service's port number.
+     * @param reactor
+     *         the shared I/O reactor.
+     */
+    public ApacheAsyncTransport(final String host, final int port, final HttpReactor reactor) {
+        this.target = new HttpHost(host, port, "http");
+        this.reactor = reactor;
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(final TransportRequest request, final Deadline deadline) {
+        final CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+        HttpRequestBase httpRequest = ApacheTransport.createRequest(request, deadline);
+
+        FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                try {
+                    result.complete(ApacheTransport.createResponse(response));
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(final Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.completeExceptionally(new InterruptedIOException("The HTTP request was cancelled!"));
+            }
+        };
+
+        final Future<HttpResponse> response;
+        try {
+            response = reactor.getClient().execute(target, httpRequest, callback);
+        } catch (IllegalStateException e) {
+            // the shared reactor was already stopped
+            result.completeExceptionally(new IOException("The I/O reactor is not running!", e));
+            return result;
+        }
+        request.onAbort(new Runnable() {
+            @Override
+            public void run() {
+                response.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public TransportResponse execute(final TransportRequest request, final Deadline deadline) throws IOException {
+        try {
+            return executeAsync(request, deadline).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.abort();
+            throw new InterruptedIOException("The HTTP request was interrupted!");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics() {
+        return null;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.transport;
+
+import com.brinkus.labs.neo4j.eureka.component.ConnectionPool;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.PoolStatistics;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * {@link Transport} on the blocking Apache HTTP client of a {@link ConnectionPool}.
+ */
+public class ApacheTransport implements Transport {
+
+    private static final Closeable NO_CONNECTION = new Closeable() {
+        @Override
+        public void close() {
+            // the content was already read by the non-blocking client
+        }
+    };
+
+    private final HttpHost target;
+
+    private final ConnectionPool connectionPool;
+
+    /**
+     * Create a new instance of {@link ApacheTransport}.
+     *
+     * @param host
+     *         the discovery service's host.
+     * @param port
+     *         the discovery service's port number.
+     * @param connectionPool
+     *         the connection pool of the blocking HTTP client.
+     */
+    public ApacheTransport(final String host, final int port, final ConnectionPool connectionPool) {
+        this.target = new HttpHost(host, port, "http");
+        this.connectionPool = connectionPool;
+    }
+
+    @Override
+    public TransportResponse execute(final TransportRequest request, final Deadline deadline) throws IOException {
+        final HttpRequestBase httpRequest = createRequest(request, deadline);
+        request.onAbort(new Runnable() {
+            @Override
+            public void run() {
+                httpRequest.abort();
+            }
+        });
+        return createResponse(connectionPool.getHttpClient().execute(target, httpRequest));
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics() {
+        return connectionPool.getStatistics();
+    }
+
+    /**
+     * Create the Apache HTTP request with timeouts limited to the remaining time of the deadline.
+     */
+    static HttpRequestBase createRequest(final TransportRequest request, final Deadline deadline) {
+        HttpRequestBase httpRequest;
+        switch (request.getMethod()) {
+            case TransportRequest.GET:
+                httpRequest = new HttpGet(request.getUri());
+                break;
+            case TransportRequest.POST:
+                httpRequest = new HttpPost(request.getUri());
+                break;
+            case TransportRequest.PUT:
+                httpRequest = new HttpPut(request.getUri());
+                break;
+            case TransportRequest.DELETE:
+                httpRequest = new HttpDelete(request.getUri());
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported HTTP method: %s", request.getMethod()));
+        }
+
+        if (request.getContent() != null && httpRequest instanceof HttpEntityEnclosingRequestBase) {
+            httpRequest.addHeader(HttpHeaders.CONTENT_TYPE, request.getContentType());
+            ((HttpEntityEnclosingRequestBase) httpRequest).setEntity(
+                    new ByteArrayEntity(request.getContent(), ContentType.parse(request.getContentType())));
+        }
+
+        if (deadline.isBounded()) {
+            int timeout = (int) Math.min(deadline.remainingMillis(), Integer.MAX_VALUE);
+            httpRequest.setConfig(RequestConfig.custom()
+                                          .setConnectionRequestTimeout(timeout)
+                                          .setConnectTimeout(timeout)
+                                          .setSocketTimeout(timeout)
+                                          .build());
+        }
+        return httpRequest;
+    }
+
+    /**
+     * Create the transport response of the Apache HTTP response.
+     */
+    static TransportResponse createResponse(final HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        Closeable connection = response instanceof CloseableHttpResponse ? (CloseableHttpResponse) response : NO_CONNECTION;
+        if (entity == null) {
+            return new TransportResponse(response.getStatusLine().getStatusCode(), null, 0, null, connection);
+        }
+
+        Header contentType = entity.getContentType();
+        try {
+            return new TransportResponse(response.getStatusLine().getStatusCode(),
+                                         entity.getContent(),
+                                         entity.getContentLength(),
+                                         contentType != null ? contentType.getValue() : null,
+                                         connection);
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+}
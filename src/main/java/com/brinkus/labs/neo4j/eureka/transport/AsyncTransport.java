@@ -0,0 +1,43 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.transport;
+
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link Transport} executing the requests without blocking the caller thread.
+ */
+public interface AsyncTransport extends Transport {
+
+    /**
+     * Execute the request asynchronously.
+     *
+     * @param request
+     *         the request to execute.
+     * @param deadline
+     *         the deadline of the request.
+     *
+     * @return the future of the response which must be released by the caller, completed exceptionally with an
+     * {@link java.io.IOException} if the request failed, timed out or was aborted.
+     */
+    CompletableFuture<TransportResponse> executeAsync(TransportRequest request, Deadline deadline);
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.transport;
+
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.PoolStatistics;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+
+/**
+ * {@link Transport} on the JDK's {@link HttpURLConnection}.
+ * <p>
+ * The transport has no dependency on the Apache HTTP client. The connections are kept alive and reused by the JDK's
+ * own connection cache (see the {@code http.keepAlive} and {@code http.maxConnections} system properties), so the
+ * transport has no pool statistics. The connection goes back to the cache only if the response body (or the error
+ * body of a failed request) was read to its end and closed, it is disconnected only when the request is aborted.
+ */
+public class JdkTransport implements Transport {
+
+    private static final int DISCARD_BUFFER_SIZE = 4096;
+
+    private final String host;
+
+    private final int port;
+
+    /**
+     * Create a new instance of {@link JdkTransport}.
+     *
+     * @param host
+     *         the discovery service's host.
+     * @param port
+     *         the discovery service's port number.
+     */
+    public JdkTransport(final String host, final int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public TransportResponse execute(final TransportRequest request, final Deadline deadline) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http", host, port, request.getUri()).openConnection();
+        request.onAbort(new Runnable() {
+            @Override
+            public void run() {
+                connection.disconnect();
+            }
+        });
+
+        try {
+            connection.setRequestMethod(request.getMethod());
+            connection.setInstanceFollowRedirects(false);
+            connection.setUseCaches(false);
+            connection.setRequestProperty("Accept", "application/json");
+            if (deadline.isBounded()) {
+                long remaining = deadline.remainingMillis();
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException("The deadline of the request has expired!");
+                }
+                int timeout = (int) Math.min(remaining, Integer.MAX_VALUE);
+                connection.setConnectTimeout(timeout);
+                connection.setReadTimeout(timeout);
+            }
+
+            if (request.getContent() != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(request.getContent().length);
+                connection.setRequestProperty("Content-Type", request.getContentType());
+                try (OutputStream stream = connection.getOutputStream()) {
+                    stream.write(request.getContent());
+                }
+            }
+
+            int statusCode = connection.getResponseCode();
+            final InputStream content = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST
+                    ? connection.getErrorStream()
+                    : connection.getInputStream();
+            return new TransportResponse(statusCode,
+                                         content == null ? null : new FilterInputStream(content) {
+                                             @Override
+                                             public void close() throws IOException {
+                                                 discard(in);
+                                             }
+                                         },
+                                         connection.getContentLengthLong(),
+                                         connection.getContentType(),
+                                         new Closeable() {
+                                             @Override
+                                             public void close() throws IOException {
+                                                 // the JDK does not cache the connection of a broken stream
+                                                 if (content != null) {
+                                                     content.close();
+                                                 }
+                                             }
+                                         });
+        } catch (IOException e) {
+            discardQuietly(connection.getErrorStream());
+            throw e;
+        }
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics() {
+        return null;
+    }
+
+    private static void discard(final InputStream stream) throws IOException {
+        try {
+            byte[] buffer = new byte[DISCARD_BUFFER_SIZE];
+            while (stream.read(buffer) != -1) {
+                // the JDK caches the connection only if the body was read to its end
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void discardQuietly(final InputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            discard(stream);
+        } catch (IOException e) {
+            // the connection is not cached, the request has failed anyway
+        }
+    }
+
+}
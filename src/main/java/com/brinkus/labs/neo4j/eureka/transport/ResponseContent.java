@@ -0,0 +1,84 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.transport;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The body of a {@link TransportResponse}.
+ * <p>
+ * The stream cannot be closed by the reader: it is released by {@link TransportResponse#release()}, so the connection
+ * goes back to the pool even if the body was not read to its end.
+ */
+final class ResponseContent extends FilterInputStream {
+
+    private boolean eof;
+
+    /**
+     * Create a new instance of {@link ResponseContent}.
+     *
+     * @param content
+     *         the content of the response entity.
+     */
+    ResponseContent(final InputStream content) {
+        super(content);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = super.read();
+        if (read == -1) {
+            eof = true;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read == -1) {
+            eof = true;
+        }
+        return read;
+    }
+
+    @Override
+    public void close() {
+        // released by the transport response
+    }
+
+    /**
+     * Discard the unread part of the content and close the underlying stream.
+     *
+     * @return true if the consumer did not read the whole content.
+     *
+     * @throws IOException
+     *         if the content could not be discarded.
+     */
+    boolean release() throws IOException {
+        try {
+            return !eof && in.read() != -1;
+        } finally {
+            in.close();
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.transport;
+
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.PoolStatistics;
+
+import java.io.IOException;
+
+/**
+ * HTTP transport executing the requests of a {@link com.brinkus.labs.neo4j.eureka.component.RestClient} towards one
+ * discovery service.
+ * <p>
+ * A transport executes a single attempt of a request. The retries, the circuit breaker, the status code check and
+ * the deadline abort are handled by the client, so the implementations only have to map the request to their HTTP
+ * library.
+ */
+public interface Transport {
+
+    /**
+     * Execute the request and wait for the response.
+     * <p>
+     * The timeouts of the transport must be limited to the remaining time of the deadline, and the transport must stop
+     * the request when it is aborted by {@link TransportRequest#abort()}.
+     *
+     * @param request
+     *         the request to execute.
+     * @param deadline
+     *         the deadline of the request.
+     *
+     * @return the response which must be released by the caller.
+     *
+     * @throws IOException
+     *         if the request failed, timed out or was aborted.
+     */
+    TransportResponse execute(TransportRequest request, Deadline deadline) throws IOException;
+
+    /**
+     * Get the usage of the connection pool of the transport.
+     *
+     * @return the connection pool statistics or null if the transport has no pool statistics.
+     */
+    PoolStatistics getPoolStatistics();
+
+}
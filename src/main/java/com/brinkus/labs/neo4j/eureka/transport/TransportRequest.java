@@ -0,0 +1,164 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.transport;
+
+/**
+ * HTTP request independent from the {@link Transport} implementation.
+ * <p>
+ * The same instance is executed again on a retry, after a {@link #reset()}.
+ */
+public final class TransportRequest {
+
+    public static final String GET = "GET";
+
+    public static final String POST = "POST";
+
+    public static final String PUT = "PUT";
+
+    public static final String DELETE = "DELETE";
+
+    private final String method;
+
+    private final String uri;
+
+    private final String contentType;
+
+    private final byte[] content;
+
+    private boolean aborted;
+
+    private Runnable abortAction;
+
+    /**
+     * Create a new instance of {@link TransportRequest} without content.
+     *
+     * @param method
+     *         the HTTP method.
+     * @param uri
+     *         the target uri.
+     */
+    public TransportRequest(final String method, final String uri) {
+        this(method, uri, null, null);
+    }
+
+    /**
+     * Create a new instance of {@link TransportRequest}.
+     *
+     * @param method
+     *         the HTTP method.
+     * @param uri
+     *         the target uri.
+     * @param contentType
+     *         the content type of the request's content.
+     * @param content
+     *         the request's content (can be null).
+     */
+    public TransportRequest(final String method, final String uri, final String contentType, final byte[] content) {
+        this.method = method;
+        this.uri = uri;
+        this.contentType = contentType;
+        this.content = content;
+    }
+
+    /**
+     * Get the HTTP method.
+     *
+     * @return the HTTP method.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Get the target uri.
+     *
+     * @return the target uri.
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * Get the content type of the request's content.
+     *
+     * @return the content type or null if the request has no content.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Get the request's content.
+     *
+     * @return the content or null if the request has no content.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * Register the action of the transport that stops the execution of the request. The action runs immediately if
+     * the request was already aborted.
+     *
+     * @param abortAction
+     *         the action stopping the request.
+     */
+    public void onAbort(final Runnable abortAction) {
+        boolean abortNow;
+        synchronized (this) {
+            this.abortAction = abortAction;
+            abortNow = aborted;
+        }
+        if (abortNow) {
+            abortAction.run();
+        }
+    }
+
+    /**
+     * Abort the execution of the request.
+     */
+    public void abort() {
+        Runnable action;
+        synchronized (this) {
+            aborted = true;
+            action = abortAction;
+        }
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * Check that the request was aborted.
+     *
+     * @return true if the request was aborted.
+     */
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Reset the request before it is executed again.
+     */
+    public synchronized void reset() {
+        aborted = false;
+        abortAction = null;
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * HTTP response independent from the {@link Transport} implementation.
+ * <p>
+ * Every response must be released by {@link #release()}, whether its content was read or not.
+ */
+public final class TransportResponse {
+
+    private final int statusCode;
+
+    private final ResponseContent content;
+
+    private final long contentLength;
+
+    private final Charset charset;
+
+    private final Closeable connection;
+
+    /**
+     * Create a new instance of {@link TransportResponse}.
+     *
+     * @param statusCode
+     *         the response status code.
+     * @param content
+     *         the response body (can be null if the response has no body).
+     * @param contentLength
+     *         the length of the body or a negative value if it is unknown.
+     * @param contentType
+     *         the value of the Content-Type header (can be null).
+     * @param connection
+     *         closes the connection of the response if its content could not be discarded.
+     */
+    public TransportResponse(
+            final int statusCode,
+            final InputStream content,
+            final long contentLength,
+            final String contentType,
+            final Closeable connection
+    ) {
+        this.statusCode = statusCode;
+        this.content = new ResponseContent(content != null ? content : new ByteArrayInputStream(new byte[0]));
+        this.contentLength = content != null ? contentLength : 0;
+        this.charset = charset(contentType);
+        this.connection = connection;
+    }
+
+    /**
+     * Get the response status code.
+     *
+     * @return the status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Get the response body. The stream cannot be closed, it is released by {@link #release()}.
+     *
+     * @return the response body (empty if the response has no body).
+     */
+    public InputStream getContent() {
+        return content;
+    }
+
+    /**
+     * Get the length of the response body.
+     *
+     * @return the length of the body or a negative value if it is unknown.
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Get the charset of the response body.
+     *
+     * @return the declared charset or UTF-8 if the response did not declare it.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Discard the unread content of the response and release its connection. If the content cannot be discarded, the
+     * connection is closed.
+     *
+     * @return true if the content was not read to its end.
+     *
+     * @throws IOException
+     *         if the content could not be discarded.
+     */
+    public boolean release() throws IOException {
+        try {
+            return content.release();
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private static Charset charset(final String contentType) {
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                String[] pair = parameter.trim().split("=", 2);
+                if (pair.length == 2 && "charset".equalsIgnoreCase(pair[0].trim())) {
+                    try {
+                        return Charset.forName(pair[1].trim().replace("\"", ""));
+                    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        // the default charset of JSON
+        return StandardCharsets.UTF_8;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable point in time until an operation has to be completed. It is based on the monotonic clock, so it is not
+ * affected by the wall-clock adjustments.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(0, false);
+
+    /**
+     * The deadline's {@link System#nanoTime()} value.
+     */
+    private final long deadlineNanos;
+
+    /**
+     * False if the operation may run without time limit.
+     */
+    private final boolean bounded;
+
+    /**
+     * Create a new instance of {@link Deadline}.
+     *
+     * @param deadlineNanos
+     *         the deadline's monotonic clock value
+     * @param bounded
+     *         false if the operation may run without time limit
+     */
+    private Deadline(final long deadlineNanos, final boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * Create a new deadline that expires after the given timeout from now.
+     *
+     * @param timeoutMs
+     *         the timeout in milliseconds
+     *
+     * @return the deadline.
+     */
+    public static Deadline after(final long timeoutMs) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs), true);
+    }
+
+    /**
+     * Get the deadline that never expires.
+     *
+     * @return the unbounded deadline.
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * Flag to indicate that the deadline limits the operation's time.
+     *
+     * @return false if the deadline never expires.
+     */
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * Get the remaining time until the deadline.
+     *
+     * @return the remaining time in milliseconds, 0 if the deadline is expired or {@link Long#MAX_VALUE} if it is
+     * unbounded.
+     */
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        return remainingNanos > 0 ? TimeUnit.NANOSECONDS.toMillis(remainingNanos) : 0;
+    }
+
+    /**
+     * Check that the deadline is expired.
+     *
+     * @return true if no time remains.
+     */
+    public boolean isExpired() {
+        return bounded && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? String.format("%d ms", remainingMillis()) : "none";
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type;
+
+import com.netflix.appinfo.InstanceInfo;
+
+/**
+ * Immutable snapshot of a registration: the registered instance information and its encoded JSON payload.
+ */
+public final class EncodedRegistration {
+
+    /**
+     * The registered instance information.
+     */
+    private final InstanceInfo instanceInfo;
+
+    /**
+     * The UTF-8 encoded JSON payload of the registration request.
+     */
+    private final byte[] content;
+
+    /**
+     * Create a new instance of {@link EncodedRegistration}.
+     *
+     * @param instanceInfo
+     *         the registered instance information
+     * @param content
+     *         the UTF-8 encoded JSON payload, which is not copied and must not be modified afterwards
+     */
+    public EncodedRegistration(final InstanceInfo instanceInfo, final byte[] content) {
+        this.instanceInfo = instanceInfo;
+        this.content = content;
+    }
+
+    /**
+     * Get the registered instance information.
+     *
+     * @return the instance information.
+     */
+    public InstanceInfo getInstanceInfo() {
+        return instanceInfo;
+    }
+
+    /**
+     * Get the encoded JSON payload of the registration request. The array is shared by every registration request, so
+     * it must not be modified.
+     *
+     * @return the UTF-8 encoded JSON payload.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EncodedRegistration{instanceId=%s, status=%s, size=%d}",
+                             instanceInfo.getInstanceId(), instanceInfo.getStatus(), content.length);
+    }
+
+}
@@ -20,18 +20,43 @@ package com.brinkus.labs.neo4j.eureka.type;
 
 /**
  * The instance status in the discovery service.
+ * <p>
+ * The valid transitions are
+ * <pre>
+ * UNKNOWN -&gt; REGISTERING -&gt; REGISTERED -&gt; HEARTBEATING -&gt; REGISTERED
+ *                         REGISTERED -&gt; DEREGISTERING -&gt; DEREGISTERED
+ *                         REGISTERED -&gt; REGISTERING
+ * UNKNOWN -&gt; CANCELLED
+ * </pre>
+ * and a failed in-flight operation returns to the state it was started from. DEREGISTERED and CANCELLED are terminal,
+ * so a registration racing the shutdown cannot register the instance again.
  */
 public enum LifecycleStatus {
 
+    /**
+     * The instance state is unknown.
+     */
+    UNKNOWN,
+
+    /**
+     * The registration request is in progress.
+     */
+    REGISTERING,
+
     /**
      * The instance is registered in the discovery service.
      */
     REGISTERED,
 
     /**
-     * The instance is in the keep-alive state.
+     * The keep alive request is in progress.
+     */
+    HEARTBEATING,
+
+    /**
+     * The de-registration request is in progress.
      */
-    KEEP_ALIVE,
+    DEREGISTERING,
 
     /**
      * The instance is de-registered from the discovery service.
@@ -39,8 +64,51 @@ public enum LifecycleStatus {
     DEREGISTERED,
 
     /**
-     * The instance state is unknown.
+     * The lifecycle was cancelled before the instance was registered.
+     */
+    CANCELLED;
+
+    /**
+     * Check that a request is in progress in this state.
+     *
+     * @return true if this is an in-flight state.
+     */
+    public boolean isInFlight() {
+        return this == REGISTERING || this == HEARTBEATING || this == DEREGISTERING;
+    }
+
+    /**
+     * Check that the de-registration has started (or the lifecycle was cancelled) in this state.
+     *
+     * @return true if the instance is de-registering, de-registered or cancelled.
+     */
+    public boolean isDeregistration() {
+        return this == DEREGISTERING || this == DEREGISTERED || this == CANCELLED;
+    }
+
+    /**
+     * Check that the transition from this state to the given one is valid.
+     *
+     * @param status
+     *         the next state.
+     *
+     * @return true if the transition is valid.
      */
-    UNKNOWN
+    public boolean canTransitionTo(final LifecycleStatus status) {
+        switch (this) {
+            case UNKNOWN:
+                return status == REGISTERING || status == CANCELLED;
+            case REGISTERING:
+                return status == REGISTERED || status == UNKNOWN;
+            case REGISTERED:
+                return status == REGISTERING || status == HEARTBEATING || status == DEREGISTERING;
+            case HEARTBEATING:
+                return status == REGISTERED;
+            case DEREGISTERING:
+                return status == DEREGISTERED || status == REGISTERED;
+            default:
+                return false;
+        }
+    }
 
 }
@@ -0,0 +1,160 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type;
+
+/**
+ * Immutable snapshot of the HTTP connection pool usage.
+ */
+public final class PoolStatistics {
+
+    /**
+     * The number of the connections leased by the requests.
+     */
+    private final int leased;
+
+    /**
+     * The number of the idle connections available for the requests.
+     */
+    private final int available;
+
+    /**
+     * The number of the requests waiting for a connection.
+     */
+    private final int pending;
+
+    /**
+     * The maximum number of the connections.
+     */
+    private final int max;
+
+    /**
+     * The number of the executed requests.
+     */
+    private final long requests;
+
+    /**
+     * The number of the opened connections.
+     */
+    private final long connections;
+
+    /**
+     * Create a new instance of {@link PoolStatistics}.
+     *
+     * @param leased
+     *         the number of the leased connections
+     * @param available
+     *         the number of the available connections
+     * @param pending
+     *         the number of the pending requests
+     * @param max
+     *         the maximum number of the connections
+     * @param requests
+     *         the number of the executed requests
+     * @param connections
+     *         the number of the opened connections
+     */
+    public PoolStatistics(
+            final int leased,
+            final int available,
+            final int pending,
+            final int max,
+            final long requests,
+            final long connections
+    ) {
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+        this.requests = requests;
+        this.connections = connections;
+    }
+
+    /**
+     * Get the number of the leased connections.
+     *
+     * @return the number of the leased connections.
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Get the number of the available connections.
+     *
+     * @return the number of the available connections.
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Get the number of the requests waiting for a connection.
+     *
+     * @return the number of the pending requests.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Get the maximum number of the connections.
+     *
+     * @return the maximum number of the connections.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Get the number of the executed requests.
+     *
+     * @return the number of the executed requests.
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Get the number of the opened connections.
+     *
+     * @return the number of the opened connections.
+     */
+    public long getConnections() {
+        return connections;
+    }
+
+    /**
+     * Get the ratio of the requests served by an already opened connection.
+     *
+     * @return the reuse ratio between 0 and 1.
+     */
+    public double getReuseRatio() {
+        if (requests == 0) {
+            return 0;
+        }
+        return Math.max(0, 1 - (double) connections / requests);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("leased: %d, available: %d, pending: %d, max: %d, requests: %d, connections: %d, reuse ratio: %.2f",
+                             leased, available, pending, max, requests, connections, getReuseRatio());
+    }
+
+}
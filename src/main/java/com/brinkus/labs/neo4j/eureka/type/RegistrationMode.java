@@ -0,0 +1,38 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type;
+
+/**
+ * The way the instance is registered in the discovery services.
+ */
+public enum RegistrationMode {
+
+    /**
+     * Register and send heartbeats to every discovery service independently.
+     */
+    ALL,
+
+    /**
+     * Register and send heartbeats to a single primary discovery service, chosen by consistent hashing on the instance
+     * id, and fail over to the next one on the hash ring. The discovery services replicate the registration to their
+     * peers.
+     */
+    PRIMARY
+
+}
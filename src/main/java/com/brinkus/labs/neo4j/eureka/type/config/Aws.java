@@ -0,0 +1,146 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+/**
+ * The settings of the AWS instance metadata resolution.
+ */
+public class Aws {
+
+    /**
+     * Resolve the AWS instance metadata and register with the Amazon data center information.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The time budget of the metadata resolution in the background.
+     */
+    private int timeoutMs = 10000;
+
+    /**
+     * The file caching the last resolved metadata for the next start.
+     */
+    private String cacheFile = "data/neo4j-eureka-aws.properties";
+
+    /**
+     * The time to live of the DNS hostname resolved in the background.
+     */
+    private int dnsHostnameTtlMs = 300000;
+
+    /**
+     * The time to live of a failed DNS hostname lookup.
+     */
+    private int dnsHostnameNegativeTtlMs = 30000;
+
+    /**
+     * Flag to indicate that the AWS instance metadata is resolved.
+     *
+     * @return the flag value (default true)
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the AWS instance metadata resolution.
+     *
+     * @param enabled
+     *         the resolution state.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the time budget of the metadata resolution.
+     *
+     * @return the time budget in milliseconds (default 10000)
+     */
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Set the time budget of the metadata resolution.
+     *
+     * @param timeoutMs
+     *         the time budget in milliseconds.
+     */
+    public void setTimeoutMs(final int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Get the path of the metadata cache file.
+     *
+     * @return the path of the cache file (default data/neo4j-eureka-aws.properties)
+     */
+    public String getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * Set the path of the metadata cache file.
+     *
+     * @param cacheFile
+     *         the path of the cache file, empty to disable the cache.
+     */
+    public void setCacheFile(final String cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Get the time to live of the resolved DNS hostname.
+     *
+     * @return the time to live in milliseconds (default 300000)
+     */
+    public int getDnsHostnameTtlMs() {
+        return dnsHostnameTtlMs;
+    }
+
+    /**
+     * Set the time to live of the resolved DNS hostname.
+     *
+     * @param dnsHostnameTtlMs
+     *         the time to live in milliseconds.
+     */
+    public void setDnsHostnameTtlMs(final int dnsHostnameTtlMs) {
+        this.dnsHostnameTtlMs = dnsHostnameTtlMs;
+    }
+
+    /**
+     * Get the time to live of a failed DNS hostname lookup.
+     *
+     * @return the time to live in milliseconds (default 30000)
+     */
+    public int getDnsHostnameNegativeTtlMs() {
+        return dnsHostnameNegativeTtlMs;
+    }
+
+    /**
+     * Set the time to live of a failed DNS hostname lookup.
+     *
+     * @param dnsHostnameNegativeTtlMs
+     *         the time to live in milliseconds.
+     */
+    public void setDnsHostnameNegativeTtlMs(final int dnsHostnameNegativeTtlMs) {
+        this.dnsHostnameNegativeTtlMs = dnsHostnameNegativeTtlMs;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+/**
+ * The circuit breaker settings of a discovery service.
+ */
+public class Breaker {
+
+    /**
+     * The number of the consecutive failures that opens the circuit.
+     */
+    private int failureThreshold = 5;
+
+    /**
+     * The time in milliseconds the circuit stays open before a probe request is allowed.
+     */
+    private int openMs = 30000;
+
+    /**
+     * Get the number of the consecutive failures that opens the circuit.
+     *
+     * @return the failure threshold (default 5)
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Set the number of the consecutive failures that opens the circuit.
+     *
+     * @param failureThreshold
+     *         the failure threshold, 0 disables the circuit breaker.
+     */
+    public void setFailureThreshold(final int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * Get the time the circuit stays open before a probe request is allowed.
+     *
+     * @return the open time in milliseconds (default 30000)
+     */
+    public int getOpenMs() {
+        return openMs;
+    }
+
+    /**
+     * Set the time the circuit stays open before a probe request is allowed.
+     *
+     * @param openMs
+     *         the open time in milliseconds.
+     */
+    public void setOpenMs(final int openMs) {
+        this.openMs = openMs;
+    }
+
+}
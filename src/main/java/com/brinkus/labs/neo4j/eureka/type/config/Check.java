@@ -0,0 +1,221 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+import com.brinkus.labs.neo4j.eureka.type.HealthCheckType;
+
+/**
+ * The settings of a health check probe.
+ */
+public class Check {
+
+    /**
+     * The name of the check in the health check response.
+     */
+    private String name;
+
+    /**
+     * The type of the probe.
+     */
+    private HealthCheckType type = HealthCheckType.AVAILABILITY;
+
+    /**
+     * The query of a Cypher probe.
+     */
+    private String query = "RETURN 1";
+
+    /**
+     * The directory checked by a disk space probe.
+     */
+    private String path = "data";
+
+    /**
+     * The minimum usable disk space of a disk space probe.
+     */
+    private long minFreeMb = 1024;
+
+    /**
+     * The time budget of the probe, the check fails if it takes longer.
+     */
+    private int timeoutMs = 1000;
+
+    /**
+     * The latency objective of the probe, the check is degraded if it takes longer.
+     */
+    private int sloMs = 0;
+
+    /**
+     * A failed critical check takes the instance down, a failed non-critical check only degrades it.
+     */
+    private boolean critical = true;
+
+    /**
+     * Get the name of the check.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set the name of the check.
+     *
+     * @param name
+     *         the name.
+     */
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the type of the probe.
+     *
+     * @return the type (default AVAILABILITY)
+     */
+    public HealthCheckType getType() {
+        return type;
+    }
+
+    /**
+     * Set the type of the probe.
+     *
+     * @param type
+     *         the type.
+     */
+    public void setType(final HealthCheckType type) {
+        this.type = type;
+    }
+
+    /**
+     * Get the query of a Cypher probe.
+     *
+     * @return the query (default RETURN 1)
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Set the query of a Cypher probe.
+     *
+     * @param query
+     *         the query.
+     */
+    public void setQuery(final String query) {
+        this.query = query;
+    }
+
+    /**
+     * Get the directory checked by a disk space probe.
+     *
+     * @return the directory (default data)
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Set the directory checked by a disk space probe.
+     *
+     * @param path
+     *         the directory.
+     */
+    public void setPath(final String path) {
+        this.path = path;
+    }
+
+    /**
+     * Get the minimum usable disk space of a disk space probe.
+     *
+     * @return the disk space in megabytes (default 1024)
+     */
+    public long getMinFreeMb() {
+        return minFreeMb;
+    }
+
+    /**
+     * Set the minimum usable disk space of a disk space probe.
+     *
+     * @param minFreeMb
+     *         the disk space in megabytes.
+     */
+    public void setMinFreeMb(final long minFreeMb) {
+        this.minFreeMb = minFreeMb;
+    }
+
+    /**
+     * Get the time budget of the probe.
+     *
+     * @return the time budget in milliseconds (default 1000)
+     */
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Set the time budget of the probe.
+     *
+     * @param timeoutMs
+     *         the time budget in milliseconds.
+     */
+    public void setTimeoutMs(final int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Get the latency objective of the probe.
+     *
+     * @return the latency objective in milliseconds (default 0, no objective)
+     */
+    public int getSloMs() {
+        return sloMs;
+    }
+
+    /**
+     * Set the latency objective of the probe.
+     *
+     * @param sloMs
+     *         the latency objective in milliseconds.
+     */
+    public void setSloMs(final int sloMs) {
+        this.sloMs = sloMs;
+    }
+
+    /**
+     * Flag to indicate that a failure of the check takes the instance down.
+     *
+     * @return the flag value (default true)
+     */
+    public boolean isCritical() {
+        return critical;
+    }
+
+    /**
+     * Set the criticality of the check.
+     *
+     * @param critical
+     *         the criticality.
+     */
+    public void setCritical(final boolean critical) {
+        this.critical = critical;
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+import com.brinkus.labs.neo4j.eureka.type.TransportType;
+
+/**
+ * The HTTP client settings used to communicate with the discovery services.
+ */
+public class Client {
+
+    /**
+     * Use the non-blocking HTTP client shared by all the discovery services.
+     */
+    private boolean async = false;
+
+    /**
+     * The number of the I/O dispatcher threads of the non-blocking HTTP client.
+     */
+    private int ioThreadCount = 1;
+
+    /**
+     * The transport of the blocking HTTP clients.
+     */
+    private TransportType transport = TransportType.APACHE;
+
+    /**
+     * The HTTP connection pool settings.
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * The retry settings of the idempotent requests.
+     */
+    private Retry retry = new Retry();
+
+    /**
+     * The circuit breaker settings of the discovery services.
+     */
+    private Breaker circuitBreaker = new Breaker();
+
+    /**
+     * Flag to indicate that the non-blocking HTTP client is used.
+     *
+     * @return the flag value (default false)
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Set the non-blocking HTTP client usage.
+     *
+     * @param async
+     *         the non-blocking HTTP client usage state.
+     */
+    public void setAsync(final boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Get the number of the I/O dispatcher threads.
+     *
+     * @return the number of the I/O dispatcher threads (default 1)
+     */
+    public int getIoThreadCount() {
+        return ioThreadCount;
+    }
+
+    /**
+     * Set the number of the I/O dispatcher threads.
+     *
+     * @param ioThreadCount
+     *         the number of the I/O dispatcher threads.
+     */
+    public void setIoThreadCount(final int ioThreadCount) {
+        this.ioThreadCount = ioThreadCount;
+    }
+
+    /**
+     * Get the transport of the blocking HTTP clients.
+     *
+     * @return the transport type (default APACHE)
+     */
+    public TransportType getTransport() {
+        return transport;
+    }
+
+    /**
+     * Set the transport of the blocking HTTP clients.
+     *
+     * @param transport
+     *         the transport type.
+     */
+    public void setTransport(final TransportType transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Get the HTTP connection pool settings.
+     *
+     * @return the connection pool settings.
+     */
+    public Pool getPool() {
+        return pool;
+    }
+
+    /**
+     * Set the HTTP connection pool settings.
+     *
+     * @param pool
+     *         the connection pool settings.
+     */
+    public void setPool(final Pool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Get the retry settings of the idempotent requests.
+     *
+     * @return the retry settings.
+     */
+    public Retry getRetry() {
+        return retry;
+    }
+
+    /**
+     * Set the retry settings of the idempotent requests.
+     *
+     * @param retry
+     *         the retry settings.
+     */
+    public void setRetry(final Retry retry) {
+        this.retry = retry;
+    }
+
+    /**
+     * Get the circuit breaker settings of the discovery services.
+     *
+     * @return the circuit breaker settings.
+     */
+    public Breaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Set the circuit breaker settings of the discovery services.
+     *
+     * @param circuitBreaker
+     *         the circuit breaker settings.
+     */
+    public void setCircuitBreaker(final Breaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+}
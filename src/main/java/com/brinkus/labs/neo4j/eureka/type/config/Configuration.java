@@ -35,6 +35,31 @@ public class Configuration {
      */
     private Registration registration;
 
+    /**
+     * The HTTP client settings.
+     */
+    private Client client = new Client();
+
+    /**
+     * The lifecycle scheduler settings.
+     */
+    private Scheduler scheduler = new Scheduler();
+
+    /**
+     * The graceful shutdown settings.
+     */
+    private Shutdown shutdown = new Shutdown();
+
+    /**
+     * The AWS instance metadata settings.
+     */
+    private Aws aws = new Aws();
+
+    /**
+     * The health check endpoint settings.
+     */
+    private Health health = new Health();
+
     /**
      * Get the list of the discovery services.
      *
@@ -72,4 +97,100 @@ public class Configuration {
     public void setRegistration(final Registration registration) {
         this.registration = registration;
     }
+
+    /**
+     * Get the HTTP client settings.
+     *
+     * @return the HTTP client settings
+     */
+    public Client getClient() {
+        return client;
+    }
+
+    /**
+     * Set the HTTP client settings.
+     *
+     * @param client
+     *         the HTTP client settings
+     */
+    public void setClient(final Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Get the lifecycle scheduler settings.
+     *
+     * @return the lifecycle scheduler settings
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Set the lifecycle scheduler settings.
+     *
+     * @param scheduler
+     *         the lifecycle scheduler settings
+     */
+    public void setScheduler(final Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Get the graceful shutdown settings.
+     *
+     * @return the graceful shutdown settings
+     */
+    public Shutdown getShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Set the graceful shutdown settings.
+     *
+     * @param shutdown
+     *         the graceful shutdown settings
+     */
+    public void setShutdown(final Shutdown shutdown) {
+        this.shutdown = shutdown;
+    }
+
+    /**
+     * Get the AWS instance metadata settings.
+     *
+     * @return the AWS instance metadata settings
+     */
+    public Aws getAws() {
+        return aws;
+    }
+
+    /**
+     * Set the AWS instance metadata settings.
+     *
+     * @param aws
+     *         the AWS instance metadata settings
+     */
+    public void setAws(final Aws aws) {
+        this.aws = aws;
+    }
+
+    /**
+     * Get the health check endpoint settings.
+     *
+     * @return the health check endpoint settings
+     */
+    public Health getHealth() {
+        return health;
+    }
+
+    /**
+     * Set the health check endpoint settings.
+     *
+     * @param health
+     *         the health check endpoint settings
+     */
+    public void setHealth(final Health health) {
+        this.health = health;
+    }
+
 }
@@ -0,0 +1,150 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The settings of the health check endpoint.
+ */
+public class Health {
+
+    /**
+     * The interval of the health checks executed in the background.
+     */
+    private int refreshIntervalMs = 5000;
+
+    /**
+     * The maximum age of the published health check result.
+     */
+    private int maxStaleMs = 15000;
+
+    /**
+     * The time budget of the database availability check used without configured checks.
+     */
+    private int checkTimeoutMs = 1000;
+
+    /**
+     * The health check probes executed in parallel.
+     */
+    private List<Check> checks = new ArrayList<>();
+
+    /**
+     * The propagation of the health status to the discovery services.
+     */
+    private Propagation propagation = new Propagation();
+
+    /**
+     * Get the interval of the background health checks.
+     *
+     * @return the interval in milliseconds (default 5000)
+     */
+    public int getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    /**
+     * Set the interval of the background health checks.
+     *
+     * @param refreshIntervalMs
+     *         the interval in milliseconds.
+     */
+    public void setRefreshIntervalMs(final int refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * Get the maximum age of the published health check result.
+     *
+     * @return the maximum age in milliseconds (default 15000)
+     */
+    public int getMaxStaleMs() {
+        return maxStaleMs;
+    }
+
+    /**
+     * Set the maximum age of the published health check result.
+     *
+     * @param maxStaleMs
+     *         the maximum age in milliseconds.
+     */
+    public void setMaxStaleMs(final int maxStaleMs) {
+        this.maxStaleMs = maxStaleMs;
+    }
+
+    /**
+     * Get the time budget of the database availability check.
+     *
+     * @return the time budget in milliseconds (default 1000)
+     */
+    public int getCheckTimeoutMs() {
+        return checkTimeoutMs;
+    }
+
+    /**
+     * Set the time budget of the database availability check.
+     *
+     * @param checkTimeoutMs
+     *         the time budget in milliseconds.
+     */
+    public void setCheckTimeoutMs(final int checkTimeoutMs) {
+        this.checkTimeoutMs = checkTimeoutMs;
+    }
+
+    /**
+     * Get the health check probes.
+     *
+     * @return the checks (default empty, the availability of the database is checked)
+     */
+    public List<Check> getChecks() {
+        return checks;
+    }
+
+    /**
+     * Set the health check probes.
+     *
+     * @param checks
+     *         the checks.
+     */
+    public void setChecks(final List<Check> checks) {
+        this.checks = checks;
+    }
+
+    /**
+     * Get the propagation of the health status to the discovery services.
+     *
+     * @return the propagation settings
+     */
+    public Propagation getPropagation() {
+        return propagation;
+    }
+
+    /**
+     * Set the propagation of the health status to the discovery services.
+     *
+     * @param propagation
+     *         the propagation settings.
+     */
+    public void setPropagation(final Propagation propagation) {
+        this.propagation = propagation;
+    }
+
+}
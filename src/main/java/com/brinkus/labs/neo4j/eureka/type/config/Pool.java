@@ -0,0 +1,170 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+/**
+ * The HTTP connection pool settings.
+ */
+public class Pool {
+
+    /**
+     * Use one connection pool shared by all the discovery services.
+     */
+    private boolean shared = true;
+
+    /**
+     * The maximum number of the connections in the pool.
+     */
+    private int maxTotal = 20;
+
+    /**
+     * The maximum number of the connections per discovery service.
+     */
+    private int maxPerRoute = 2;
+
+    /**
+     * The inactivity period in milliseconds after the pooled connections are re-validated before they are leased.
+     */
+    private int validateAfterInactivityMs = 2000;
+
+    /**
+     * The idle time in seconds after the pooled connections are evicted.
+     */
+    private int maxIdleTimeSec = 60;
+
+    /**
+     * The maximum keep-alive duration in seconds of the pooled connections.
+     */
+    private int keepAliveSec = 60;
+
+    /**
+     * Flag to indicate that the connection pool is shared by all the discovery services.
+     *
+     * @return the flag value (default true)
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Set the connection pool sharing.
+     *
+     * @param shared
+     *         the connection pool sharing state.
+     */
+    public void setShared(final boolean shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * Get the maximum number of the connections in the pool.
+     *
+     * @return the maximum number of the connections (default 20)
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Set the maximum number of the connections in the pool.
+     *
+     * @param maxTotal
+     *         the maximum number of the connections.
+     */
+    public void setMaxTotal(final int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Get the maximum number of the connections per discovery service.
+     *
+     * @return the maximum number of the connections per discovery service (default 2)
+     */
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Set the maximum number of the connections per discovery service.
+     *
+     * @param maxPerRoute
+     *         the maximum number of the connections per discovery service.
+     */
+    public void setMaxPerRoute(final int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    /**
+     * Get the inactivity period after the pooled connections are re-validated.
+     *
+     * @return the inactivity period in milliseconds (default 2000)
+     */
+    public int getValidateAfterInactivityMs() {
+        return validateAfterInactivityMs;
+    }
+
+    /**
+     * Set the inactivity period after the pooled connections are re-validated.
+     *
+     * @param validateAfterInactivityMs
+     *         the inactivity period in milliseconds.
+     */
+    public void setValidateAfterInactivityMs(final int validateAfterInactivityMs) {
+        this.validateAfterInactivityMs = validateAfterInactivityMs;
+    }
+
+    /**
+     * Get the idle time after the pooled connections are evicted.
+     *
+     * @return the idle time in seconds (default 60)
+     */
+    public int getMaxIdleTimeSec() {
+        return maxIdleTimeSec;
+    }
+
+    /**
+     * Set the idle time after the pooled connections are evicted.
+     *
+     * @param maxIdleTimeSec
+     *         the idle time in seconds.
+     */
+    public void setMaxIdleTimeSec(final int maxIdleTimeSec) {
+        this.maxIdleTimeSec = maxIdleTimeSec;
+    }
+
+    /**
+     * Get the maximum keep-alive duration of the pooled connections.
+     *
+     * @return the keep-alive duration in seconds (default 60)
+     */
+    public int getKeepAliveSec() {
+        return keepAliveSec;
+    }
+
+    /**
+     * Set the maximum keep-alive duration of the pooled connections.
+     *
+     * @param keepAliveSec
+     *         the keep-alive duration in seconds.
+     */
+    public void setKeepAliveSec(final int keepAliveSec) {
+        this.keepAliveSec = keepAliveSec;
+    }
+
+}
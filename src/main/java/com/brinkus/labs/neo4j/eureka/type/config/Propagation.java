@@ -0,0 +1,149 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+
+/**
+ * The settings of the health status propagation to the discovery services.
+ */
+public class Propagation {
+
+    /**
+     * Propagate the health status to the discovery services.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The number of the consecutive failed health checks taking the instance down.
+     */
+    private int downThreshold = 2;
+
+    /**
+     * The number of the consecutive successful health checks taking the instance up again.
+     */
+    private int upThreshold = 3;
+
+    /**
+     * The minimum time between two status changes.
+     */
+    private int minChangeIntervalMs = 10000;
+
+    /**
+     * The registered status of a degraded instance.
+     */
+    private InstanceStatus degradedStatus = InstanceStatus.UP;
+
+    /**
+     * Flag to indicate that the health status is propagated to the discovery services.
+     *
+     * @return the flag value (default false)
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set the health status propagation.
+     *
+     * @param enabled
+     *         the propagation state.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the number of the consecutive failed health checks taking the instance down.
+     *
+     * @return the number of the checks (default 2)
+     */
+    public int getDownThreshold() {
+        return downThreshold;
+    }
+
+    /**
+     * Set the number of the consecutive failed health checks taking the instance down.
+     *
+     * @param downThreshold
+     *         the number of the checks.
+     */
+    public void setDownThreshold(final int downThreshold) {
+        this.downThreshold = downThreshold;
+    }
+
+    /**
+     * Get the number of the consecutive successful health checks taking the instance up again.
+     *
+     * @return the number of the checks (default 3)
+     */
+    public int getUpThreshold() {
+        return upThreshold;
+    }
+
+    /**
+     * Set the number of the consecutive successful health checks taking the instance up again.
+     *
+     * @param upThreshold
+     *         the number of the checks.
+     */
+    public void setUpThreshold(final int upThreshold) {
+        this.upThreshold = upThreshold;
+    }
+
+    /**
+     * Get the minimum time between two status changes.
+     *
+     * @return the time in milliseconds (default 10000)
+     */
+    public int getMinChangeIntervalMs() {
+        return minChangeIntervalMs;
+    }
+
+    /**
+     * Set the minimum time between two status changes.
+     *
+     * @param minChangeIntervalMs
+     *         the time in milliseconds.
+     */
+    public void setMinChangeIntervalMs(final int minChangeIntervalMs) {
+        this.minChangeIntervalMs = minChangeIntervalMs;
+    }
+
+    /**
+     * Get the registered status of a degraded instance.
+     *
+     * @return the instance status (default UP)
+     */
+    public InstanceStatus getDegradedStatus() {
+        return degradedStatus;
+    }
+
+    /**
+     * Set the registered status of a degraded instance.
+     *
+     * @param degradedStatus
+     *         the instance status.
+     */
+    public void setDegradedStatus(final InstanceStatus degradedStatus) {
+        this.degradedStatus = degradedStatus;
+    }
+
+}
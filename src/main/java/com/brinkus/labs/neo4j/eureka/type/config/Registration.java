@@ -73,6 +73,16 @@ public class Registration {
      */
     private String homePageUrl;
 
+    /**
+     * The interval of the lease renewals (heartbeats) in seconds.
+     */
+    private int renewalIntervalSecs = 30;
+
+    /**
+     * The lease duration in seconds, after the discovery service evicts the instance without renewal.
+     */
+    private int durationSecs = 90;
+
     /**
      * Get the fully qualified hostname.
      *
@@ -262,4 +272,42 @@ public class Registration {
     public void setHomePageUrl(final String homePageUrl) {
         this.homePageUrl = homePageUrl;
     }
+
+    /**
+     * Get the interval of the lease renewals.
+     *
+     * @return the interval in seconds (default 30)
+     */
+    public int getRenewalIntervalSecs() {
+        return renewalIntervalSecs;
+    }
+
+    /**
+     * Set the interval of the lease renewals.
+     *
+     * @param renewalIntervalSecs
+     *         the interval in seconds.
+     */
+    public void setRenewalIntervalSecs(final int renewalIntervalSecs) {
+        this.renewalIntervalSecs = renewalIntervalSecs;
+    }
+
+    /**
+     * Get the lease duration.
+     *
+     * @return the duration in seconds (default 90)
+     */
+    public int getDurationSecs() {
+        return durationSecs;
+    }
+
+    /**
+     * Set the lease duration.
+     *
+     * @param durationSecs
+     *         the duration in seconds.
+     */
+    public void setDurationSecs(final int durationSecs) {
+        this.durationSecs = durationSecs;
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+/**
+ * The retry settings of the idempotent requests (heartbeat, de-registration).
+ */
+public class Retry {
+
+    /**
+     * The maximum number of the attempts including the first one.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * The base delay of the exponential backoff in milliseconds.
+     */
+    private int baseDelayMs = 200;
+
+    /**
+     * The maximum delay between two attempts in milliseconds.
+     */
+    private int maxDelayMs = 5000;
+
+    /**
+     * Get the maximum number of the attempts.
+     *
+     * @return the maximum number of the attempts (default 3)
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Set the maximum number of the attempts.
+     *
+     * @param maxAttempts
+     *         the maximum number of the attempts, 1 disables the retries.
+     */
+    public void setMaxAttempts(final int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Get the base delay of the exponential backoff.
+     *
+     * @return the base delay in milliseconds (default 200)
+     */
+    public int getBaseDelayMs() {
+        return baseDelayMs;
+    }
+
+    /**
+     * Set the base delay of the exponential backoff.
+     *
+     * @param baseDelayMs
+     *         the base delay in milliseconds.
+     */
+    public void setBaseDelayMs(final int baseDelayMs) {
+        this.baseDelayMs = baseDelayMs;
+    }
+
+    /**
+     * Get the maximum delay between two attempts.
+     *
+     * @return the maximum delay in milliseconds (default 5000)
+     */
+    public int getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    /**
+     * Set the maximum delay between two attempts.
+     *
+     * @param maxDelayMs
+     *         the maximum delay in milliseconds.
+     */
+    public void setMaxDelayMs(final int maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+import com.brinkus.labs.neo4j.eureka.type.RegistrationMode;
+
+/**
+ * The settings of the scheduler running the lifecycle (registration, keep alive, de-registration) of every discovery
+ * service.
+ */
+public class Scheduler {
+
+    /**
+     * The number of the scheduler threads shared by all the discovery services.
+     */
+    private int threadCount = 2;
+
+    /**
+     * Run the blocking lifecycle requests on virtual threads if the JVM supports them (Java 21+).
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * The maximum delay of the registration, derived from the instance id.
+     */
+    private int initialJitterMs = 5000;
+
+    /**
+     * The maximum shift of the heartbeats from the fixed-rate schedule, derived from the instance id.
+     */
+    private int heartbeatJitterPercent = 10;
+
+    /**
+     * The discovery services the instance is registered in.
+     */
+    private RegistrationMode mode = RegistrationMode.ALL;
+
+    /**
+     * The number of the consecutive failed heartbeats after the primary discovery service is replaced.
+     */
+    private int failoverThreshold = 2;
+
+    /**
+     * Get the number of the scheduler threads.
+     *
+     * @return the number of the scheduler threads (default 2)
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Set the number of the scheduler threads.
+     *
+     * @param threadCount
+     *         the number of the scheduler threads.
+     */
+    public void setThreadCount(final int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Flag to indicate that the virtual threads are used if the JVM supports them.
+     *
+     * @return the flag value (default false)
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Set the virtual thread usage.
+     *
+     * @param virtualThreads
+     *         the virtual thread usage state.
+     */
+    public void setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Get the maximum delay of the registration.
+     *
+     * @return the maximum delay in milliseconds (default 5000)
+     */
+    public int getInitialJitterMs() {
+        return initialJitterMs;
+    }
+
+    /**
+     * Set the maximum delay of the registration.
+     *
+     * @param initialJitterMs
+     *         the maximum delay in milliseconds.
+     */
+    public void setInitialJitterMs(final int initialJitterMs) {
+        this.initialJitterMs = initialJitterMs;
+    }
+
+    /**
+     * Get the maximum shift of the heartbeats.
+     *
+     * @return the maximum shift in the percentage of the keep alive interval (default 10)
+     */
+    public int getHeartbeatJitterPercent() {
+        return heartbeatJitterPercent;
+    }
+
+    /**
+     * Set the maximum shift of the heartbeats.
+     *
+     * @param heartbeatJitterPercent
+     *         the maximum shift in the percentage of the keep alive interval.
+     */
+    public void setHeartbeatJitterPercent(final int heartbeatJitterPercent) {
+        this.heartbeatJitterPercent = heartbeatJitterPercent;
+    }
+
+    /**
+     * Get the registration mode.
+     *
+     * @return the registration mode (default ALL)
+     */
+    public RegistrationMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Set the registration mode.
+     *
+     * @param mode
+     *         the registration mode.
+     */
+    public void setMode(final RegistrationMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Get the number of the consecutive failed heartbeats after the primary discovery service is replaced.
+     *
+     * @return the failover threshold (default 2)
+     */
+    public int getFailoverThreshold() {
+        return failoverThreshold;
+    }
+
+    /**
+     * Set the number of the consecutive failed heartbeats after the primary discovery service is replaced.
+     *
+     * @param failoverThreshold
+     *         the failover threshold.
+     */
+    public void setFailoverThreshold(final int failoverThreshold) {
+        this.failoverThreshold = failoverThreshold;
+    }
+
+}
@@ -33,6 +33,11 @@ public class Service {
      */
     private int port;
 
+    /**
+     * The time budgets of the lifecycle operations.
+     */
+    private Timeouts timeouts = new Timeouts();
+
     /**
      * Get the service's fully qualified hostname or ip address.
      *
@@ -70,4 +75,23 @@ public class Service {
     public void setPort(final int port) {
         this.port = port;
     }
+
+    /**
+     * Get the time budgets of the lifecycle operations.
+     *
+     * @return the time budgets.
+     */
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Set the time budgets of the lifecycle operations.
+     *
+     * @param timeouts
+     *         the time budgets.
+     */
+    public void setTimeouts(final Timeouts timeouts) {
+        this.timeouts = timeouts;
+    }
 }
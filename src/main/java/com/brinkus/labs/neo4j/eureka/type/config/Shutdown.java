@@ -0,0 +1,75 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+/**
+ * The graceful shutdown settings.
+ */
+public class Shutdown {
+
+    /**
+     * The total time budget of the de-registration from every discovery service.
+     */
+    private int timeoutMs = 5000;
+
+    /**
+     * The time between taking the instance out of service and the de-registration, when the server's plugin lifecycle
+     * stops.
+     */
+    private int drainMs = 0;
+
+    /**
+     * Get the total time budget of the de-registration.
+     *
+     * @return the time budget in milliseconds (default 5000)
+     */
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Set the total time budget of the de-registration.
+     *
+     * @param timeoutMs
+     *         the time budget in milliseconds.
+     */
+    public void setTimeoutMs(final int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Get the drain window waited by the drain endpoint after taking the instance out of service.
+     *
+     * @return the drain window in milliseconds (default 0)
+     */
+    public int getDrainMs() {
+        return drainMs;
+    }
+
+    /**
+     * Set the drain window waited by the drain endpoint after taking the instance out of service.
+     *
+     * @param drainMs
+     *         the drain window in milliseconds.
+     */
+    public void setDrainMs(final int drainMs) {
+        this.drainMs = drainMs;
+    }
+
+}
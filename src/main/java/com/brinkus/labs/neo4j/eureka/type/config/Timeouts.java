@@ -0,0 +1,99 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.type.config;
+
+/**
+ * The time budgets of the lifecycle operations sent to a discovery service. Every budget covers the whole request:
+ * the connection lease from the pool, the connect and the response read.
+ */
+public class Timeouts {
+
+    /**
+     * The time budget of the registration in milliseconds.
+     */
+    private int registerMs = 5000;
+
+    /**
+     * The time budget of the keep alive request in milliseconds.
+     */
+    private int keepAliveMs = 5000;
+
+    /**
+     * The time budget of the de-registration in milliseconds.
+     */
+    private int deregisterMs = 3000;
+
+    /**
+     * Get the time budget of the registration.
+     *
+     * @return the time budget in milliseconds (default 5000)
+     */
+    public int getRegisterMs() {
+        return registerMs;
+    }
+
+    /**
+     * Set the time budget of the registration.
+     *
+     * @param registerMs
+     *         the time budget in milliseconds.
+     */
+    public void setRegisterMs(final int registerMs) {
+        this.registerMs = registerMs;
+    }
+
+    /**
+     * Get the time budget of the keep alive request.
+     *
+     * @return the time budget in milliseconds (default 5000)
+     */
+    public int getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    /**
+     * Set the time budget of the keep alive request.
+     *
+     * @param keepAliveMs
+     *         the time budget in milliseconds.
+     */
+    public void setKeepAliveMs(final int keepAliveMs) {
+        this.keepAliveMs = keepAliveMs;
+    }
+
+    /**
+     * Get the time budget of the de-registration.
+     *
+     * @return the time budget in milliseconds (default 3000)
+     */
+    public int getDeregisterMs() {
+        return deregisterMs;
+    }
+
+    /**
+     * Set the time budget of the de-registration.
+     *
+     * @param deregisterMs
+     *         the time budget in milliseconds.
+     */
+    public void setDeregisterMs(final int deregisterMs) {
+        this.deregisterMs = deregisterMs;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.type.health;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The result of a single health check probe.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class CheckResult {
+
+    /**
+     * The name of the check.
+     */
+    private final String name;
+
+    /**
+     * The status code of the check.
+     */
+    private final HealthStatusCode code;
+
+    /**
+     * The duration of the check.
+     */
+    private final long durationMs;
+
+    /**
+     * The reason of a degraded or failed check.
+     */
+    private final String description;
+
+    /**
+     * Create a new instance of {@link CheckResult}.
+     *
+     * @param name
+     *         the name of the check
+     * @param code
+     *         the status code of the check
+     * @param durationMs
+     *         the duration of the check in milliseconds
+     * @param description
+     *         the reason of a degraded or failed check or null
+     */
+    public CheckResult(final String name, final HealthStatusCode code, final long durationMs, final String description) {
+        this.name = name;
+        this.code = code;
+        this.durationMs = durationMs;
+        this.description = description;
+    }
+
+    /**
+     * Get the name of the check.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the status code of the check.
+     *
+     * @return the status code
+     */
+    public HealthStatusCode getCode() {
+        return code;
+    }
+
+    /**
+     * Get the duration of the check.
+     *
+     * @return the duration in milliseconds
+     */
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    /**
+     * Get the reason of a degraded or failed check.
+     *
+     * @return the description or null
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + code;
+    }
+
+}
@@ -20,6 +20,9 @@ package com.brinkus.labs.neo4j.eureka.type.health;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Health check information.
  */
@@ -36,6 +39,11 @@ public final class HealthCheck {
      */
     private final String description;
 
+    /**
+     * The results of the individual checks.
+     */
+    private final List<CheckResult> checks;
+
     /**
      * Create a new instance of {@link HealthCheck}.
      *
@@ -45,8 +53,23 @@ public final class HealthCheck {
      *         the detailed description of the status
      */
     public HealthCheck(HealthStatusCode code, String description) {
+        this(code, description, Collections.<CheckResult>emptyList());
+    }
+
+    /**
+     * Create a new instance of {@link HealthCheck}.
+     *
+     * @param code
+     *         The status code of the server
+     * @param description
+     *         the detailed description of the status
+     * @param checks
+     *         the results of the individual checks
+     */
+    public HealthCheck(HealthStatusCode code, String description, List<CheckResult> checks) {
         this.code = code;
         this.description = description;
+        this.checks = Collections.unmodifiableList(checks);
     }
 
     /**
@@ -67,6 +90,15 @@ public final class HealthCheck {
         return this.description;
     }
 
+    /**
+     * Get the results of the individual checks.
+     *
+     * @return the check results
+     */
+    public List<CheckResult> getChecks() {
+        return this.checks;
+    }
+
     @Override
     public String toString() {
         return this.code.toString();
@@ -0,0 +1,96 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.type.health;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable result of a health check published by the background checks, with its pre-encoded JSON response.
+ */
+public final class HealthSnapshot {
+
+    /**
+     * The result of the health check.
+     */
+    private final HealthCheck healthCheck;
+
+    /**
+     * The UTF-8 encoded JSON of the health check.
+     */
+    private final byte[] content;
+
+    /**
+     * The {@link System#nanoTime()} of the health check.
+     */
+    private final long checkedNanos;
+
+    /**
+     * Create a new instance of {@link HealthSnapshot}.
+     *
+     * @param healthCheck
+     *         the result of the health check
+     * @param content
+     *         the UTF-8 encoded JSON of the health check, which is not copied and must not be modified afterwards
+     * @param checkedNanos
+     *         the {@link System#nanoTime()} of the health check
+     */
+    public HealthSnapshot(final HealthCheck healthCheck, final byte[] content, final long checkedNanos) {
+        this.healthCheck = healthCheck;
+        this.content = content;
+        this.checkedNanos = checkedNanos;
+    }
+
+    /**
+     * Get the result of the health check.
+     *
+     * @return the health check
+     */
+    public HealthCheck getHealthCheck() {
+        return healthCheck;
+    }
+
+    /**
+     * Get the encoded JSON of the health check. The array is shared by every response, so it must not be modified.
+     *
+     * @return the UTF-8 encoded JSON
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * Get the {@link System#nanoTime()} of the health check.
+     *
+     * @return the time of the check in nanoseconds
+     */
+    public long getCheckedNanos() {
+        return checkedNanos;
+    }
+
+    /**
+     * Get the time elapsed since the health check.
+     *
+     * @return the age in milliseconds
+     */
+    public long getAgeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - checkedNanos);
+    }
+
+}
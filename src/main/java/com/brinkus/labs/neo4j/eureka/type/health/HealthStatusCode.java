@@ -19,7 +19,7 @@
 package com.brinkus.labs.neo4j.eureka.type.health;
 
 /**
- * The health status code.
+ * The health status code, declared in the order of severity.
  */
 public enum HealthStatusCode {
 
@@ -28,6 +28,11 @@ public enum HealthStatusCode {
      */
     UP("UP"),
 
+    /**
+     * The server is up, but it is slow or a non-critical check failed.
+     */
+    DEGRADED("DEGRADED"),
+
     /**
      * The server is down.
      */
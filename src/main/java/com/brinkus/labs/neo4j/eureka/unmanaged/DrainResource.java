@@ -0,0 +1,52 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.unmanaged;
+
+import com.brinkus.labs.neo4j.eureka.component.ShutdownCoordinator;
+
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.Response;
+
+/**
+ * Unmanaged REST endpoint to drain the instance before stopping Neo4j.
+ * <p>
+ * Neo4j closes its web server before it stops the plugins, so the instance cannot be drained by the shutdown. The
+ * endpoint is called before the shutdown instead (e.g. by the pre-stop hook of the service manager): it takes the
+ * instance out of service and returns after the drain window, while Neo4j still serves the clients that did not
+ * refresh their cached registry yet.
+ */
+@Path("/drain")
+public class DrainResource {
+
+    /**
+     * REST endpoint to drain the instance.
+     *
+     * @return the REST endpoint's response, 204 if the instance is out of service in at least one discovery service,
+     * 503 otherwise.
+     */
+    @POST
+    public Response drain() {
+        if (ShutdownCoordinator.drainRegistered()) {
+            return Response.noContent().build();
+        }
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.unmanaged;
+
+import com.brinkus.labs.neo4j.eureka.component.ShutdownCoordinator;
+import org.apache.commons.configuration.Configuration;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.server.plugins.Injectable;
+import org.neo4j.server.plugins.PluginLifecycle;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Lifecycle of the unmanaged extension, starting the health checks together with the server, so the status is
+ * propagated to the discovery services before the first request of the health check endpoint.
+ * <p>
+ * The server stops the lifecycle before the database, so the instance is de-registered before the database stops. The
+ * web server is already closed by then, so the instance is drained before the shutdown by the {@link DrainResource}.
+ */
+public class HealthCheckLifecycle implements PluginLifecycle {
+
+    private GraphDatabaseService service;
+
+    @Override
+    public Collection<Injectable<?>> start(final GraphDatabaseService service, final Configuration config) {
+        this.service = service;
+        HealthEngines.getEngine(service);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void stop() {
+        ShutdownCoordinator.executeRegistered();
+        if (service != null) {
+            HealthEngines.shutdown(service);
+        }
+    }
+
+}
@@ -18,65 +18,69 @@
 
 package com.brinkus.labs.neo4j.eureka.unmanaged;
 
+import com.brinkus.labs.neo4j.eureka.component.HealthEngine;
 import com.brinkus.labs.neo4j.eureka.type.health.HealthCheck;
-import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthSnapshot;
 import org.neo4j.graphdb.GraphDatabaseService;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 /**
- * Unmanaged REST endpoint to execute query and set health status of the instance.
+ * Unmanaged REST endpoint to get the health status of the instance.
+ * <p>
+ * The resource is created for every request, so the health checks run in a {@link HealthEngine} shared by the
+ * requests of the same database, and the endpoint only returns its last result with the age of the result. The
+ * responses are encoded by the engine, so a request does not serialize anything.
  */
 @Path("/health")
 public class HealthCheckResource {
 
-    private static final int TIMEOUT = 1000;
+    /**
+     * The response header of the age of the health check result in milliseconds.
+     */
+    static final String AGE_HEADER = "X-Health-Age-Ms";
 
-    private final GraphDatabaseService service;
+    /**
+     * The response header of the maximum age of the health check result in milliseconds.
+     */
+    static final String MAX_STALE_HEADER = "X-Health-Max-Stale-Ms";
+
+    /**
+     * The health status must be checked again on every request, so it must not be cached by the intermediaries.
+     */
+    private static final String NO_CACHE = "no-cache, no-store";
 
-    private final ObjectMapper mapper;
+    private final GraphDatabaseService service;
 
     public HealthCheckResource(@Context GraphDatabaseService service) {
         this.service = service;
-        this.mapper = new ObjectMapper();
     }
 
     /**
      * REST endpoint to get the health status.
      *
      * @return the REST endpoint's response containing the {@link HealthCheck} entity.
-     *
-     * @throws JsonProcessingException
-     *         if an error occurred during the entity serialization.
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response health() throws JsonProcessingException {
-        HealthCheck healthCheck = healthCheck();
-        byte[] entity = mapper.writeValueAsBytes(healthCheck);
+    public Response health() {
+        HealthEngine engine = HealthEngines.getEngine(service);
+        HealthSnapshot snapshot = engine.getSnapshot();
+        byte[] entity = snapshot.getContent();
         return Response.status(Response.Status.OK)
                 .type(MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.CONTENT_LENGTH, entity.length)
+                .header(HttpHeaders.CACHE_CONTROL, NO_CACHE)
+                .header(AGE_HEADER, snapshot.getAgeMs())
+                .header(MAX_STALE_HEADER, engine.getMaxStaleMs())
                 .entity(entity)
                 .build();
     }
 
-    private HealthCheck healthCheck() {
-        try {
-            if (service.isAvailable(TIMEOUT)) {
-                return new HealthCheck(HealthStatusCode.UP, "Neo4j health check was success.");
-            } else {
-                return new HealthCheck(HealthStatusCode.DOWN, "Neo4j health check result was invalid!");
-            }
-        } catch (Exception e) {
-            return new HealthCheck(HealthStatusCode.OUT_OF_SERVICE, "Neo4j health check failed!");
-        }
-    }
-
 }
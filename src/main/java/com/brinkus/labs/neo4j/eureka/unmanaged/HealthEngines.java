@@ -0,0 +1,176 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.unmanaged;
+
+import com.brinkus.labs.neo4j.eureka.EurekaPluginConfiguration;
+import com.brinkus.labs.neo4j.eureka.component.ConfigurationLoader;
+import com.brinkus.labs.neo4j.eureka.component.HealthEngine;
+import com.brinkus.labs.neo4j.eureka.exception.EurekaPluginException;
+import com.brinkus.labs.neo4j.eureka.type.config.Configuration;
+import com.brinkus.labs.neo4j.eureka.type.config.Health;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthCheck;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.event.ErrorState;
+import org.neo4j.graphdb.event.KernelEventHandler;
+import org.neo4j.logging.FormattedLog;
+import org.neo4j.logging.Log;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The {@link HealthEngine} instances of the databases, shared by the health check endpoint and the plugin.
+ * <p>
+ * The endpoint and the plugin are created by different parts of the server, so the engines and their listeners meet
+ * here: an engine is started once per database, and every engine notifies the listeners added by the plugin.
+ */
+public final class HealthEngines {
+
+    private static final Log LOG = FormattedLog.toOutputStream(System.out);
+
+    private static final ConcurrentMap<GraphDatabaseService, HealthEngine> ENGINES = new ConcurrentHashMap<>();
+
+    private static final List<Consumer<HealthCheck>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new instance of {@link HealthEngines}
+     */
+    private HealthEngines() {
+        // utility class
+    }
+
+    /**
+     * Get the health engine of the database, starting it on the first call. The first call waits for the first check.
+     *
+     * @param service
+     *         the database.
+     *
+     * @return the health engine.
+     */
+    public static HealthEngine getEngine(final GraphDatabaseService service) {
+        HealthEngine engine = ENGINES.get(service);
+        if (engine != null) {
+            return engine;
+        }
+        synchronized (HealthEngines.class) {
+            engine = ENGINES.get(service);
+            if (engine == null) {
+                engine = startEngine(service);
+                ENGINES.put(service, engine);
+            }
+            return engine;
+        }
+    }
+
+    /**
+     * Add a listener receiving the result of every health check of every database.
+     *
+     * @param listener
+     *         the listener.
+     */
+    public static void addListener(final Consumer<HealthCheck> listener) {
+        synchronized (HealthEngines.class) {
+            LISTENERS.add(listener);
+            for (HealthEngine engine : ENGINES.values()) {
+                engine.addListener(listener);
+            }
+        }
+    }
+
+    /**
+     * Remove a listener added by {@link #addListener(Consumer)}.
+     *
+     * @param listener
+     *         the listener.
+     */
+    public static void removeListener(final Consumer<HealthCheck> listener) {
+        synchronized (HealthEngines.class) {
+            LISTENERS.remove(listener);
+            for (HealthEngine engine : ENGINES.values()) {
+                engine.removeListener(listener);
+            }
+        }
+    }
+
+    /**
+     * Stop the health engine of the database.
+     *
+     * @param service
+     *         the database.
+     */
+    public static void shutdown(final GraphDatabaseService service) {
+        HealthEngine engine = ENGINES.remove(service);
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    private static HealthEngine startEngine(final GraphDatabaseService service) {
+        Configuration configuration = loadConfiguration();
+        Health health = configuration.getHealth();
+        HealthEngine engine = new HealthEngine.Builder()
+                .withService(service)
+                .withRefreshIntervalMs(health.getRefreshIntervalMs())
+                .withMaxStaleMs(health.getMaxStaleMs())
+                .withCheckTimeoutMs(health.getCheckTimeoutMs())
+                .withChecks(health.getChecks())
+                .withVirtualThreads(configuration.getScheduler().isVirtualThreads())
+                .build();
+        for (Consumer<HealthCheck> listener : LISTENERS) {
+            engine.addListener(listener);
+        }
+        service.registerKernelEventHandler(new KernelEventHandler() {
+            @Override
+            public void beforeShutdown() {
+                shutdown(service);
+            }
+
+            @Override
+            public void kernelPanic(final ErrorState error) {
+                // the next check reports the failure
+            }
+
+            @Override
+            public Object getResource() {
+                return null;
+            }
+
+            @Override
+            public ExecutionOrder orderComparedTo(final KernelEventHandler other) {
+                return ExecutionOrder.DOESNT_MATTER;
+            }
+        });
+        return engine.start();
+    }
+
+    private static Configuration loadConfiguration() {
+        String path = new EurekaPluginConfiguration.Builder().build().getConfigurationFilePath();
+        try {
+            return new ConfigurationLoader().loadConfiguration(path);
+        } catch (EurekaPluginException e) {
+            LOG.warn("The health check settings could not be read, using the default settings.", e);
+            return new Configuration();
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka;
+
+import com.brinkus.labs.neo4j.eureka.component.LifecycleService;
+import com.brinkus.labs.neo4j.eureka.component.RestClient;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import com.brinkus.labs.neo4j.eureka.type.config.RegistrationPort;
+import com.netflix.appinfo.AmazonInfo;
+
+/**
+ * The registration fixtures of the tests and the benchmarks.
+ */
+public final class TestRegistrations {
+
+    private TestRegistrations() {
+    }
+
+    /**
+     * Create the registration of the "test" application with the required fields only, registered as
+     * test:test:8888.
+     *
+     * @return the registration.
+     */
+    public static Registration minimal() {
+        RegistrationPort port = new RegistrationPort();
+        port.setPort(8888);
+        port.setEnabled(true);
+
+        Registration registration = new Registration();
+        registration.setName("test");
+        registration.setHostname("test.host.com");
+        registration.setPort(port);
+        registration.setSecurePort(new RegistrationPort());
+        return registration;
+    }
+
+    /**
+     * Create the registration of the "neo4j" application with every optional field set.
+     *
+     * @return the registration.
+     */
+    public static Registration complete() {
+        RegistrationPort port = new RegistrationPort();
+        port.setPort(7474);
+        port.setEnabled(true);
+
+        Registration registration = new Registration();
+        registration.setName("neo4j");
+        registration.setHostname("neo4j.example.com");
+        registration.setIpAddress("10.0.0.1");
+        registration.setPort(port);
+        registration.setSecurePort(new RegistrationPort());
+        registration.setHomePageUrl("http://neo4j.example.com:7474/");
+        registration.setStatusPageUrl("http://neo4j.example.com:7474/status");
+        registration.setHealthCheckUrl("http://neo4j.example.com:7474/health");
+        registration.setVipAddress("neo4j");
+        return registration;
+    }
+
+    /**
+     * Create the lifecycle service of the {@link #minimal()} registration.
+     *
+     * @param restClient
+     *         the client of the discovery service.
+     *
+     * @return the lifecycle service.
+     */
+    public static LifecycleService lifecycleService(final RestClient restClient) {
+        return lifecycleService(restClient, minimal());
+    }
+
+    /**
+     * Create the lifecycle service of a registration.
+     *
+     * @param restClient
+     *         the client of the discovery service.
+     * @param registration
+     *         the registration.
+     *
+     * @return the lifecycle service.
+     */
+    public static LifecycleService lifecycleService(final RestClient restClient, final Registration registration) {
+        return new LifecycleService.Builder()
+                .withRegistration(registration)
+                .withRestClient(restClient)
+                .withAwsInfo(new AmazonInfo())
+                .build();
+    }
+
+}
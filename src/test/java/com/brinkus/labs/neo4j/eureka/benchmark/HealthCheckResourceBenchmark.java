@@ -0,0 +1,98 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.benchmark;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthCheck;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import com.brinkus.labs.neo4j.eureka.unmanaged.HealthCheckResource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput and allocation of the health check endpoint's handler.
+ * <p>
+ * Run the {@link #main(String[])} method from the test classpath; the GC profiler reports the bytes allocated per
+ * operation ({@code gc.alloc.rate.norm}). The serialized case is the handler before the responses were pre-encoded:
+ * a new mapper per resource instance and a new serialized health check per request (without the availability check,
+ * which is not measured here). The pre-encoded case is the current handler with a resource instance per request, as
+ * JAX-RS creates it, so only the response and its headers are allocated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HealthCheckResourceBenchmark {
+
+    private GraphDatabaseService service;
+
+    @Setup
+    public void setup() {
+        service = mock(GraphDatabaseService.class);
+        when(service.isAvailable(1000)).thenReturn(true);
+        new HealthCheckResource(service).health();
+    }
+
+    @Benchmark
+    public Response serialized() throws JsonProcessingException {
+        ObjectMapper mapper = new ObjectMapper();
+        HealthCheck healthCheck = new HealthCheck(HealthStatusCode.UP, "Neo4j health check was success.");
+        byte[] entity = mapper.writeValueAsBytes(healthCheck);
+        return Response.status(Response.Status.OK)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .entity(entity)
+                .build();
+    }
+
+    @Benchmark
+    public Response preEncoded() {
+        return new HealthCheckResource(service).health();
+    }
+
+    public static void main(final String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                           .include(HealthCheckResourceBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.benchmark;
+
+import com.brinkus.labs.neo4j.eureka.TestRegistrations;
+import com.brinkus.labs.neo4j.eureka.component.InstanceInfoFactory;
+import com.brinkus.labs.neo4j.eureka.component.RegistrationPayload;
+import com.brinkus.labs.neo4j.eureka.type.EncodedRegistration;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.InstanceInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of the instance information creation and of a re-registration.
+ * <p>
+ * Run the {@link #main(String[])} method from the test classpath; the GC profiler reports the bytes allocated per
+ * operation ({@code gc.alloc.rate.norm}). A new factory per call derives the whole instance information, the shared
+ * factory only builds the snapshot of the dynamic fields, and a re-registration of an unchanged payload does not
+ * allocate at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstanceInfoFactoryBenchmark {
+
+    private final Map<String, String> metadata = Collections.emptyMap();
+
+    private Registration registration;
+
+    private AmazonInfo amazonInfo;
+
+    private InstanceInfoFactory factory;
+
+    private RegistrationPayload registrationPayload;
+
+    @Setup
+    public void setup() {
+        registration = TestRegistrations.complete();
+
+        amazonInfo = new AmazonInfo();
+        factory = InstanceInfoFactory.getFactory();
+        registrationPayload = new RegistrationPayload.Builder()
+                .withRegistration(registration)
+                .withAwsInfo(amazonInfo)
+                .build();
+    }
+
+    @Benchmark
+    public InstanceInfo newFactory() {
+        return InstanceInfoFactory.getFactory().create(registration, amazonInfo, InstanceInfo.InstanceStatus.UP, metadata);
+    }
+
+    @Benchmark
+    public InstanceInfo sharedFactory() {
+        return factory.create(registration, amazonInfo, InstanceInfo.InstanceStatus.UP, metadata);
+    }
+
+    @Benchmark
+    public EncodedRegistration reregistration() {
+        return registrationPayload.get();
+    }
+
+    public static void main(final String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                           .include(InstanceInfoFactoryBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.netflix.appinfo.AmazonInfo;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+
+public class AmazonInfoResolverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path cacheFile;
+
+    @Before
+    public void before() {
+        cacheFile = folder.getRoot().toPath().resolve("aws.properties");
+    }
+
+    @Test
+    public void resolvedMetadataIsCached() throws Exception {
+        AmazonInfoResolver resolver = new AmazonInfoResolver(createLoader(createAmazonInfo(), 0), 1000, cacheFile);
+        assertThat(resolver.getCached(), is(nullValue()));
+
+        AmazonInfo resolved = resolver.resolve().get();
+        assertThat(resolved.get(AmazonInfo.MetaDataKey.instanceId), is("i-0f84ec0b4c02e7878"));
+
+        AmazonInfo cached = new AmazonInfoResolver(createLoader(new AmazonInfo(), 0), 1000, cacheFile).getCached();
+        assertThat(cached.get(AmazonInfo.MetaDataKey.instanceId), is("i-0f84ec0b4c02e7878"));
+        assertThat(cached.get(AmazonInfo.MetaDataKey.localIpv4), is("10.0.0.1"));
+    }
+
+    @Test
+    public void emptyMetadataIsNotCached() throws Exception {
+        AmazonInfoResolver resolver = new AmazonInfoResolver(createLoader(new AmazonInfo(), 0), 1000, cacheFile);
+
+        assertThat(resolver.resolve().get().getMetadata().isEmpty(), is(true));
+        assertThat(Files.exists(cacheFile), is(false));
+        assertThat(resolver.getCached(), is(nullValue()));
+    }
+
+    @Test
+    public void resolutionIsBounded() throws Exception {
+        AmazonInfoResolver resolver = new AmazonInfoResolver(createLoader(createAmazonInfo(), 2000), 100, cacheFile);
+
+        long startTime = System.currentTimeMillis();
+        try {
+            resolver.resolve().get();
+            fail("The resolution must time out!");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        }
+        assertThat(System.currentTimeMillis() - startTime, lessThan(1000L));
+    }
+
+    @Test
+    public void cacheDisabled() throws Exception {
+        AmazonInfoResolver resolver = new AmazonInfoResolver(createLoader(createAmazonInfo(), 0), 1000, null);
+
+        resolver.resolve().get();
+        assertThat(resolver.getCached(), is(nullValue()));
+    }
+
+    private static AmazonInfo createAmazonInfo() {
+        return AmazonInfo.Builder.newBuilder()
+                .addMetadata(AmazonInfo.MetaDataKey.instanceId, "i-0f84ec0b4c02e7878")
+                .addMetadata(AmazonInfo.MetaDataKey.localHostname, "ip-10-0-0-1")
+                .addMetadata(AmazonInfo.MetaDataKey.localIpv4, "10.0.0.1")
+                .build();
+    }
+
+    private static Callable<AmazonInfo> createLoader(final AmazonInfo amazonInfo, final long delayMs) {
+        return new Callable<AmazonInfo>() {
+            @Override
+            public AmazonInfo call() throws Exception {
+                Thread.sleep(delayMs);
+                return amazonInfo;
+            }
+        };
+    }
+
+}
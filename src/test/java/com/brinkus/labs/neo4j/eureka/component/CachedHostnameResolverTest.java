@@ -0,0 +1,151 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class CachedHostnameResolverTest {
+
+    private static final String IP_ADDRESS = "10.0.0.1";
+
+    private CachedHostnameResolver resolver;
+
+    @After
+    public void after() {
+        resolver.shutdown();
+    }
+
+    @Test
+    public void lookupIsNotOnTheCallerThread() throws Exception {
+        StubResolver stub = new StubResolver(500, "ip-10-0-0-1.internal");
+        final AtomicInteger changes = new AtomicInteger();
+        resolver = new CachedHostnameResolver.Builder()
+                .withResolver(stub)
+                .build();
+        resolver.addListener(new Runnable() {
+            @Override
+            public void run() {
+                changes.incrementAndGet();
+            }
+        });
+
+        long startTime = System.currentTimeMillis();
+        assertThat(resolver.resolve(IP_ADDRESS), is(nullValue()));
+        assertThat(System.currentTimeMillis() - startTime, lessThan(100L));
+
+        waitForLookups(1);
+        assertThat(resolver.resolve(IP_ADDRESS), is("ip-10-0-0-1.internal"));
+        assertThat(changes.get(), is(1));
+    }
+
+    @Test
+    public void cachedWithinTtl() throws Exception {
+        resolver = new CachedHostnameResolver.Builder()
+                .withResolver(new StubResolver(0, "ip-10-0-0-1.internal"))
+                .build();
+
+        resolver.resolve(IP_ADDRESS);
+        waitForLookups(1);
+        for (int i = 0; i < 100; i++) {
+            assertThat(resolver.resolve(IP_ADDRESS), is("ip-10-0-0-1.internal"));
+        }
+        assertThat(resolver.getLookupCount(), is(1L));
+    }
+
+    @Test
+    public void failedLookupIsCachedForNegativeTtl() throws Exception {
+        resolver = new CachedHostnameResolver.Builder()
+                .withResolver(new StubResolver(0, (String) null))
+                .withNegativeTtlMs(200)
+                .build();
+
+        resolver.resolve(IP_ADDRESS);
+        waitForLookups(1);
+        assertThat(resolver.resolve(IP_ADDRESS), is(nullValue()));
+        assertThat(resolver.getLookupCount(), is(1L));
+
+        // refreshed in the background after the negative time to live
+        Thread.sleep(500);
+        assertThat(resolver.getLookupCount(), greaterThanOrEqualTo(2L));
+    }
+
+    @Test
+    public void failedRefreshKeepsHostname() throws Exception {
+        resolver = new CachedHostnameResolver.Builder()
+                .withResolver(new StubResolver(0, "ip-10-0-0-1.internal", null))
+                .withTtlMs(100)
+                .build();
+
+        resolver.resolve(IP_ADDRESS);
+        waitForLookups(2);
+        assertThat(resolver.resolve(IP_ADDRESS), is("ip-10-0-0-1.internal"));
+    }
+
+    private void waitForLookups(final long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (resolver.getLookupCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // the listeners are notified after the lookup is counted
+        Thread.sleep(50);
+    }
+
+    /**
+     * Resolver stub returning the given hostnames one after the other, then the last one.
+     */
+    private static final class StubResolver implements HostnameResolver {
+
+        private final long delayMs;
+
+        private final ConcurrentLinkedQueue<String> hostnames = new ConcurrentLinkedQueue<>();
+
+        private final String last;
+
+        private StubResolver(final long delayMs, final String... hostnames) {
+            this.delayMs = delayMs;
+            for (int i = 0; i < hostnames.length - 1; i++) {
+                this.hostnames.add(hostnames[i]);
+            }
+            this.last = hostnames[hostnames.length - 1];
+        }
+
+        @Override
+        public String resolve(final String ipAddress) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String hostname = hostnames.poll();
+            return hostname == null && hostnames.isEmpty() ? last : hostname;
+        }
+
+    }
+
+}
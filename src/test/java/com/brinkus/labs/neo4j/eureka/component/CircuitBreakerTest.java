@@ -0,0 +1,103 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.CircuitState;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CircuitBreakerTest {
+
+    private CircuitBreaker circuitBreaker;
+
+    @Before
+    public void before() {
+        circuitBreaker = new CircuitBreaker("test", 3, TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.getState(), is(CircuitState.CLOSED));
+        assertThat(circuitBreaker.allowRequest(), is(true));
+
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.getState(), is(CircuitState.OPEN));
+        assertThat(circuitBreaker.allowRequest(), is(false));
+    }
+
+    @Test
+    public void successResetsFailures() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.getState(), is(CircuitState.CLOSED));
+    }
+
+    @Test
+    public void singleProbeInHalfOpenState() throws Exception {
+        open();
+        Thread.sleep(250);
+
+        assertThat(circuitBreaker.allowRequest(), is(true));
+        assertThat(circuitBreaker.getState(), is(CircuitState.HALF_OPEN));
+        assertThat(circuitBreaker.allowRequest(), is(false));
+
+        circuitBreaker.onSuccess();
+        assertThat(circuitBreaker.getState(), is(CircuitState.CLOSED));
+        assertThat(circuitBreaker.allowRequest(), is(true));
+    }
+
+    @Test
+    public void failedProbeOpensAgain() throws Exception {
+        open();
+        Thread.sleep(250);
+
+        assertThat(circuitBreaker.allowRequest(), is(true));
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.getState(), is(CircuitState.OPEN));
+        assertThat(circuitBreaker.allowRequest(), is(false));
+    }
+
+    @Test
+    public void disabled() {
+        circuitBreaker = new CircuitBreaker("test", 0, 0);
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertThat(circuitBreaker.getState(), is(CircuitState.CLOSED));
+        assertThat(circuitBreaker.allowRequest(), is(true));
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertThat(circuitBreaker.getState(), is(CircuitState.OPEN));
+    }
+
+}
@@ -19,9 +19,15 @@
 package com.brinkus.labs.neo4j.eureka.component;
 
 import com.brinkus.labs.neo4j.eureka.exception.ConfigurationLoadFailedException;
+import com.brinkus.labs.neo4j.eureka.type.HealthCheckType;
+import com.brinkus.labs.neo4j.eureka.type.RegistrationMode;
+import com.brinkus.labs.neo4j.eureka.type.TransportType;
+import com.brinkus.labs.neo4j.eureka.type.config.Check;
+import com.brinkus.labs.neo4j.eureka.type.config.Client;
 import com.brinkus.labs.neo4j.eureka.type.config.Configuration;
 import com.brinkus.labs.neo4j.eureka.type.config.Registration;
 import com.brinkus.labs.neo4j.eureka.type.config.Service;
+import com.netflix.appinfo.InstanceInfo;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -57,6 +63,12 @@ public class ConfigurationLoaderTest {
         }
     }
 
+    @Test(expected = ConfigurationLoadFailedException.class)
+    public void loadConfigurationWithShortLease() throws Throwable {
+        URL url = Thread.currentThread().getContextClassLoader().getResource("neo4j-eureka-invalid-lease.yaml");
+        loader.loadConfiguration(url.getPath());
+    }
+
     @Test
     public void loadConfiguration() throws Throwable {
         URL url = Thread.currentThread().getContextClassLoader().getResource("neo4j-eureka-services.yaml");
@@ -68,6 +80,12 @@ public class ConfigurationLoaderTest {
         assertThat(services.get(0).getPort(), is(8761));
         assertThat(services.get(1).getHost(), is("discovery2.dev.brinkus.com"));
         assertThat(services.get(1).getPort(), is(8762));
+        assertThat(services.get(0).getTimeouts().getRegisterMs(), is(5000));
+        assertThat(services.get(0).getTimeouts().getKeepAliveMs(), is(5000));
+        assertThat(services.get(0).getTimeouts().getDeregisterMs(), is(3000));
+        assertThat(services.get(1).getTimeouts().getRegisterMs(), is(10000));
+        assertThat(services.get(1).getTimeouts().getKeepAliveMs(), is(2000));
+        assertThat(services.get(1).getTimeouts().getDeregisterMs(), is(1000));
 
         Registration registration = configuration.getRegistration();
         assertThat(registration, notNullValue());
@@ -83,5 +101,62 @@ public class ConfigurationLoaderTest {
         assertThat(registration.getStatusPageUrl(), is("http://neo4j.dev.brinkus.com:7474/browser"));
         assertThat(registration.getHealthCheckUrl(), is("http://neo4j.dev.brinkus.com:7474/eureka/health"));
         assertThat(registration.getHomePageUrl(), is("http://neo4j.dev.brinkus.com:7474/"));
+        assertThat(registration.getRenewalIntervalSecs(), is(5));
+        assertThat(registration.getDurationSecs(), is(15));
+
+        Client client = configuration.getClient();
+        assertThat(client, notNullValue());
+        assertThat(client.isAsync(), is(false));
+        assertThat(client.getIoThreadCount(), is(1));
+        assertThat(client.getTransport(), is(TransportType.APACHE));
+        assertThat(client.getPool().isShared(), is(true));
+        assertThat(client.getPool().getMaxTotal(), is(20));
+        assertThat(client.getPool().getMaxPerRoute(), is(2));
+        assertThat(client.getRetry().getMaxAttempts(), is(3));
+        assertThat(client.getRetry().getBaseDelayMs(), is(200));
+        assertThat(client.getRetry().getMaxDelayMs(), is(5000));
+        assertThat(client.getCircuitBreaker().getFailureThreshold(), is(5));
+        assertThat(client.getCircuitBreaker().getOpenMs(), is(30000));
+
+        assertThat(configuration.getScheduler().getThreadCount(), is(2));
+        assertThat(configuration.getScheduler().isVirtualThreads(), is(false));
+        assertThat(configuration.getScheduler().getInitialJitterMs(), is(5000));
+        assertThat(configuration.getScheduler().getHeartbeatJitterPercent(), is(10));
+        assertThat(configuration.getScheduler().getMode(), is(RegistrationMode.ALL));
+        assertThat(configuration.getScheduler().getFailoverThreshold(), is(2));
+
+        assertThat(configuration.getShutdown().getTimeoutMs(), is(5000));
+        assertThat(configuration.getShutdown().getDrainMs(), is(0));
+
+        assertThat(configuration.getAws().isEnabled(), is(true));
+        assertThat(configuration.getAws().getTimeoutMs(), is(10000));
+        assertThat(configuration.getAws().getCacheFile(), is("data/neo4j-eureka-aws.properties"));
+        assertThat(configuration.getAws().getDnsHostnameTtlMs(), is(300000));
+        assertThat(configuration.getAws().getDnsHostnameNegativeTtlMs(), is(30000));
+
+        assertThat(configuration.getHealth().getRefreshIntervalMs(), is(5000));
+        assertThat(configuration.getHealth().getMaxStaleMs(), is(15000));
+        assertThat(configuration.getHealth().getCheckTimeoutMs(), is(1000));
+        assertThat(configuration.getHealth().getPropagation().isEnabled(), is(false));
+        assertThat(configuration.getHealth().getPropagation().getDownThreshold(), is(2));
+        assertThat(configuration.getHealth().getPropagation().getUpThreshold(), is(3));
+        assertThat(configuration.getHealth().getPropagation().getMinChangeIntervalMs(), is(10000));
+        assertThat(configuration.getHealth().getPropagation().getDegradedStatus(), is(InstanceInfo.InstanceStatus.UP));
+
+        List<Check> checks = configuration.getHealth().getChecks();
+        assertThat(checks.size(), is(2));
+        assertThat(checks.get(0).getName(), is("read"));
+        assertThat(checks.get(0).getType(), is(HealthCheckType.CYPHER));
+        assertThat(checks.get(0).getQuery(), is("MATCH (n) RETURN count(n)"));
+        assertThat(checks.get(0).getTimeoutMs(), is(2000));
+        assertThat(checks.get(0).getSloMs(), is(200));
+        assertThat(checks.get(0).isCritical(), is(true));
+        assertThat(checks.get(1).getName(), is("disk"));
+        assertThat(checks.get(1).getType(), is(HealthCheckType.DISK_SPACE));
+        assertThat(checks.get(1).getPath(), is("data/databases"));
+        assertThat(checks.get(1).getMinFreeMb(), is(512L));
+        assertThat(checks.get(1).getTimeoutMs(), is(1000));
+        assertThat(checks.get(1).getSloMs(), is(0));
+        assertThat(checks.get(1).isCritical(), is(false));
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class HashRingTest {
+
+    @Test
+    public void successorsInFailoverOrder() {
+        HashRing<String> ring = createRing("discovery1:8761", "discovery2:8761", "discovery3:8761");
+
+        List<String> successors = ring.getSuccessors("neo4j:neo4j:7474");
+        assertThat(successors, containsInAnyOrder("discovery1:8761", "discovery2:8761", "discovery3:8761"));
+        assertThat(successors.get(0), is(ring.getPrimary("neo4j:neo4j:7474")));
+        assertThat(createRing("discovery1:8761", "discovery2:8761", "discovery3:8761").getSuccessors("neo4j:neo4j:7474"), is(successors));
+    }
+
+    @Test
+    public void spreadOverTheNodes() {
+        HashRing<String> ring = createRing("discovery1:8761", "discovery2:8761", "discovery3:8761");
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String primary = ring.getPrimary(String.format("neo4j:neo4j-%d:7474", i));
+            counts.put(primary, counts.containsKey(primary) ? counts.get(primary) + 1 : 1);
+        }
+        assertThat(counts.size(), is(3));
+        for (int count : counts.values()) {
+            assertThat(count, greaterThan(700));
+        }
+    }
+
+    @Test
+    public void removedNodeOnlyMovesItsKeys() {
+        HashRing<String> ring = createRing("discovery1:8761", "discovery2:8761", "discovery3:8761");
+        HashRing<String> reduced = createRing("discovery1:8761", "discovery2:8761");
+        for (int i = 0; i < 1000; i++) {
+            String key = String.format("neo4j:neo4j-%d:7474", i);
+            List<String> successors = ring.getSuccessors(key);
+            String expected = successors.get(0).equals("discovery3:8761") ? successors.get(1) : successors.get(0);
+            assertThat(reduced.getPrimary(key), is(expected));
+        }
+    }
+
+    private static HashRing<String> createRing(final String... servers) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String server : Arrays.asList(servers)) {
+            nodes.put(server, server);
+        }
+        return new HashRing<>(nodes, 100);
+    }
+
+}
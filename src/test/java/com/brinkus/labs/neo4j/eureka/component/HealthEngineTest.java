@@ -0,0 +1,341 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.HealthCheckType;
+import com.brinkus.labs.neo4j.eureka.type.config.Check;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthCheck;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthSnapshot;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.neo4j.graphdb.GraphDatabaseService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HealthEngineTest {
+
+    private GraphDatabaseService service;
+
+    private HealthEngine engine;
+
+    @Before
+    public void before() {
+        service = mock(GraphDatabaseService.class);
+    }
+
+    @After
+    public void after() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void firstCheckOnStart() throws Exception {
+        when(service.isAvailable(1000)).thenReturn(true);
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .build()
+                .start();
+
+        assertThat(engine.getCheckCount(), is(1L));
+        assertThat(engine.getSnapshot().getHealthCheck().getCode(), is(HealthStatusCode.UP));
+    }
+
+    @Test
+    public void readWithoutCheck() throws Exception {
+        when(service.isAvailable(1000)).thenReturn(false);
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .build()
+                .start();
+
+        HealthSnapshot snapshot = engine.getSnapshot();
+        for (int i = 0; i < 100; i++) {
+            assertThat(engine.getSnapshot(), is(sameInstance(snapshot)));
+        }
+        assertThat(snapshot.getHealthCheck().getCode(), is(HealthStatusCode.DOWN));
+        verify(service, times(1)).isAvailable(anyLong());
+    }
+
+    @Test
+    public void refreshInBackground() throws Exception {
+        when(service.isAvailable(200)).thenReturn(true, true, false);
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .withRefreshIntervalMs(20)
+                .withMaxStaleMs(1000)
+                .withCheckTimeoutMs(200)
+                .build()
+                .start();
+
+        waitForChecks(3);
+        assertThat(engine.getSnapshot().getHealthCheck().getCode(), is(HealthStatusCode.DOWN));
+    }
+
+    @Test
+    public void failedCheck() throws Exception {
+        when(service.isAvailable(1000)).thenThrow(RuntimeException.class);
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .build()
+                .start();
+
+        assertThat(engine.getSnapshot().getHealthCheck().getCode(), is(HealthStatusCode.OUT_OF_SERVICE));
+    }
+
+    @Test
+    public void staleResult() throws Exception {
+        when(service.isAvailable(1000)).thenReturn(true);
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .withRefreshIntervalMs(50)
+                .withMaxStaleMs(60)
+                .withCheckTimeoutMs(10)
+                .build()
+                .start();
+        // the checks stop, as if the check was stuck
+        engine.shutdown();
+        Thread.sleep(100);
+
+        HealthSnapshot snapshot = engine.getSnapshot();
+        assertThat(snapshot.getHealthCheck().getCode(), is(HealthStatusCode.DOWN));
+        assertThat(snapshot.getHealthCheck().getDescription(), is("Neo4j health check result is stale!"));
+        assertThat(snapshot.getAgeMs(), is(greaterThan(50L)));
+    }
+
+    @Test
+    public void parallelChecks() throws Exception {
+        Map<Check, HealthProbe> probes = new LinkedHashMap<>();
+        probes.put(check("first", 1000, 0, true), sleeping(200, HealthStatusCode.UP));
+        probes.put(check("second", 1000, 0, true), sleeping(200, HealthStatusCode.UP));
+        engine = new HealthEngine(probes, 5000, 15000, ThreadFactories.platform("eureka-health-probe"));
+
+        long startTime = System.currentTimeMillis();
+        engine.start();
+        assertThat(System.currentTimeMillis() - startTime, is(lessThan(400L)));
+
+        HealthCheck healthCheck = engine.getSnapshot().getHealthCheck();
+        assertThat(healthCheck.getCode(), is(HealthStatusCode.UP));
+        assertThat(healthCheck.getChecks().size(), is(2));
+        assertThat(healthCheck.getChecks().get(0).getName(), is("first"));
+        assertThat(healthCheck.getChecks().get(0).getDurationMs(), is(greaterThanOrEqualTo(200L)));
+        assertThat(healthCheck.getChecks().get(1).getName(), is("second"));
+    }
+
+    @Test
+    public void slowCheckDegraded() throws Exception {
+        Map<Check, HealthProbe> probes = new LinkedHashMap<>();
+        probes.put(check("fast", 1000, 100, true), sleeping(0, HealthStatusCode.UP));
+        probes.put(check("slow", 1000, 20, true), sleeping(50, HealthStatusCode.UP));
+        engine = new HealthEngine(probes, 5000, 15000, ThreadFactories.platform("eureka-health-probe")).start();
+
+        HealthCheck healthCheck = engine.getSnapshot().getHealthCheck();
+        assertThat(healthCheck.getCode(), is(HealthStatusCode.DEGRADED));
+        assertThat(healthCheck.getDescription(), is("Neo4j health check was degraded!"));
+        assertThat(healthCheck.getChecks().get(0).getCode(), is(HealthStatusCode.UP));
+        assertThat(healthCheck.getChecks().get(1).getCode(), is(HealthStatusCode.DEGRADED));
+        assertThat(healthCheck.getChecks().get(1).getDescription(), is("The check took longer than 20 ms."));
+    }
+
+    @Test
+    public void timedOutCheckDown() throws Exception {
+        Map<Check, HealthProbe> probes = new LinkedHashMap<>();
+        probes.put(check("stuck", 50, 0, true), sleeping(500, HealthStatusCode.UP));
+        engine = new HealthEngine(probes, 5000, 15000, ThreadFactories.platform("eureka-health-probe"));
+
+        long startTime = System.currentTimeMillis();
+        engine.start();
+        assertThat(System.currentTimeMillis() - startTime, is(lessThan(400L)));
+
+        HealthCheck healthCheck = engine.getSnapshot().getHealthCheck();
+        assertThat(healthCheck.getCode(), is(HealthStatusCode.DOWN));
+        assertThat(healthCheck.getChecks().get(0).getDurationMs(), is(50L));
+        assertThat(healthCheck.getChecks().get(0).getDescription(), is("The check did not complete in 50 ms."));
+    }
+
+    @Test
+    public void failedNonCriticalCheckDegraded() throws Exception {
+        Map<Check, HealthProbe> probes = new LinkedHashMap<>();
+        probes.put(check("availability", 1000, 0, true), sleeping(0, HealthStatusCode.UP));
+        probes.put(check("disk", 1000, 0, false), new HealthProbe() {
+            @Override
+            public HealthStatusCode check(final long timeoutMs) {
+                throw new IllegalStateException("No space left");
+            }
+        });
+        engine = new HealthEngine(probes, 5000, 15000, ThreadFactories.platform("eureka-health-probe")).start();
+
+        HealthCheck healthCheck = engine.getSnapshot().getHealthCheck();
+        assertThat(healthCheck.getCode(), is(HealthStatusCode.DEGRADED));
+        assertThat(healthCheck.getChecks().get(1).getCode(), is(HealthStatusCode.DEGRADED));
+        assertThat(healthCheck.getChecks().get(1).getDescription(), is("No space left"));
+    }
+
+    @Test
+    public void worstCheckWins() throws Exception {
+        Map<Check, HealthProbe> probes = new LinkedHashMap<>();
+        probes.put(check("read", 1000, 0, true), sleeping(0, HealthStatusCode.DOWN));
+        probes.put(check("availability", 1000, 0, true), sleeping(0, HealthStatusCode.OUT_OF_SERVICE));
+        probes.put(check("slow", 1000, 1, true), sleeping(20, HealthStatusCode.UP));
+        engine = new HealthEngine(probes, 5000, 15000, ThreadFactories.platform("eureka-health-probe")).start();
+
+        HealthSnapshot snapshot = engine.getSnapshot();
+        assertThat(snapshot.getHealthCheck().getCode(), is(HealthStatusCode.OUT_OF_SERVICE));
+        assertThat(new String(snapshot.getContent(), StandardCharsets.UTF_8),
+                   containsString("{\"name\":\"read\",\"code\":\"DOWN\",\"durationMs\":"));
+    }
+
+    @Test
+    public void listenersReceiveEveryResult() throws Exception {
+        when(service.isAvailable(200)).thenReturn(true, false);
+        final List<HealthStatusCode> codes = new CopyOnWriteArrayList<>();
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .withRefreshIntervalMs(20)
+                .withMaxStaleMs(1000)
+                .withCheckTimeoutMs(200)
+                .build();
+        engine.addListener(new Consumer<HealthCheck>() {
+            @Override
+            public void accept(final HealthCheck healthCheck) {
+                codes.add(healthCheck.getCode());
+            }
+        });
+        engine.start();
+
+        // the listeners of a check are notified before the next check
+        waitForChecks(4);
+        assertThat(codes.get(0), is(HealthStatusCode.UP));
+        assertThat(codes.get(1), is(HealthStatusCode.DOWN));
+        assertThat(codes.get(2), is(HealthStatusCode.DOWN));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxStaleLessThanCheckTimeout() {
+        Check check = check("read", 20000, 0, true);
+        check.setType(HealthCheckType.CYPHER);
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .withChecks(Collections.singletonList(check))
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateCheckName() {
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .withChecks(Arrays.asList(check("read", 1000, 0, true), check("read", 1000, 0, true)))
+                .build();
+    }
+
+    @Test
+    public void virtualThreadProbes() throws Exception {
+        Assume.assumeTrue(ThreadFactories.isVirtualThreadSupported());
+
+        final AtomicBoolean virtual = new AtomicBoolean();
+        when(service.isAvailable(1000)).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(final InvocationOnMock invocation) {
+                virtual.set(isVirtual(Thread.currentThread()));
+                return true;
+            }
+        });
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .withVirtualThreads(true)
+                .build()
+                .start();
+
+        assertThat(engine.getSnapshot().getHealthCheck().getCode(), is(HealthStatusCode.UP));
+        assertThat(virtual.get(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxStaleLessThanInterval() {
+        engine = new HealthEngine.Builder()
+                .withService(service)
+                .withRefreshIntervalMs(5000)
+                .withMaxStaleMs(1000)
+                .build();
+    }
+
+    private static Check check(final String name, final int timeoutMs, final int sloMs, final boolean critical) {
+        Check check = new Check();
+        check.setName(name);
+        check.setTimeoutMs(timeoutMs);
+        check.setSloMs(sloMs);
+        check.setCritical(critical);
+        return check;
+    }
+
+    private static HealthProbe sleeping(final long sleepMs, final HealthStatusCode code) {
+        return new HealthProbe() {
+            @Override
+            public HealthStatusCode check(final long timeoutMs) throws Exception {
+                Thread.sleep(sleepMs);
+                return code;
+            }
+        };
+    }
+
+    private static boolean isVirtual(final Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private void waitForChecks(final long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (engine.getCheckCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(engine.getCheckCount(), is(greaterThanOrEqualTo(count)));
+    }
+
+}
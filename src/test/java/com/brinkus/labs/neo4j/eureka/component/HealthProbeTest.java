@@ -0,0 +1,117 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransientFailureException;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HealthProbeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GraphDatabaseService service;
+
+    private Transaction transaction;
+
+    @Before
+    public void before() {
+        service = mock(GraphDatabaseService.class);
+        transaction = mock(Transaction.class);
+        when(service.beginTx(1000, TimeUnit.MILLISECONDS)).thenReturn(transaction);
+    }
+
+    @Test
+    public void availability() throws Exception {
+        when(service.isAvailable(500)).thenReturn(true, false).thenThrow(RuntimeException.class);
+        AvailabilityProbe probe = new AvailabilityProbe(service);
+
+        assertThat(probe.check(500), is(HealthStatusCode.UP));
+        assertThat(probe.check(500), is(HealthStatusCode.DOWN));
+        assertThat(probe.check(500), is(HealthStatusCode.OUT_OF_SERVICE));
+    }
+
+    @Test
+    public void cypherQueryRolledBack() throws Exception {
+        Result result = mock(Result.class);
+        when(result.hasNext()).thenReturn(true, true, false);
+        when(result.next()).thenReturn(Collections.<String, Object>singletonMap("n", 1));
+        when(service.execute("MATCH (n) RETURN n LIMIT 1")).thenReturn(result);
+
+        HealthStatusCode code = new CypherProbe(service, "MATCH (n) RETURN n LIMIT 1").check(1000);
+
+        assertThat(code, is(HealthStatusCode.UP));
+        verify(result, times(2)).next();
+        verify(result).close();
+        verify(transaction).failure();
+        verify(transaction, never()).success();
+        verify(transaction).close();
+    }
+
+    @Test(expected = TransientFailureException.class)
+    public void cypherQueryFailed() throws Exception {
+        when(service.execute("RETURN 1")).thenThrow(mock(TransientFailureException.class));
+
+        new CypherProbe(service, "RETURN 1").check(1000);
+    }
+
+    @Test
+    public void writeRolledBack() throws Exception {
+        Node node = mock(Node.class);
+        when(service.createNode()).thenReturn(node);
+
+        HealthStatusCode code = new WriteProbe(service).check(1000);
+
+        assertThat(code, is(HealthStatusCode.UP));
+        verify(node).delete();
+        verify(transaction).failure();
+        verify(transaction, never()).success();
+        verify(transaction).close();
+    }
+
+    @Test
+    public void diskSpace() throws Exception {
+        String path = folder.getRoot().getAbsolutePath();
+
+        assertThat(new DiskSpaceProbe(path, 0).check(1000), is(HealthStatusCode.UP));
+        assertThat(new DiskSpaceProbe(path, Long.MAX_VALUE).check(1000), is(HealthStatusCode.DOWN));
+        assertThat(new DiskSpaceProbe(path + "/missing", 1).check(1000), is(HealthStatusCode.DOWN));
+    }
+
+}
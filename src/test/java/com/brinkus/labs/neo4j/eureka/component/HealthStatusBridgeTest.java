@@ -0,0 +1,152 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.health.HealthCheck;
+import com.brinkus.labs.neo4j.eureka.type.health.HealthStatusCode;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HealthStatusBridgeTest {
+
+    private RegistrationPayload registrationPayload;
+
+    private HealthStatusBridge bridge;
+
+    @Before
+    public void before() {
+        registrationPayload = mock(RegistrationPayload.class);
+        when(registrationPayload.getStatus()).thenReturn(InstanceStatus.UP);
+    }
+
+    @After
+    public void after() {
+        bridge.shutdown();
+    }
+
+    @Test
+    public void downAfterThreshold() throws Exception {
+        bridge = bridge(2, 3, 0, InstanceStatus.UP);
+
+        bridge.accept(check(HealthStatusCode.DOWN));
+        assertThat(bridge.getStatus(), is(InstanceStatus.UP));
+        bridge.accept(check(HealthStatusCode.OUT_OF_SERVICE));
+
+        assertThat(bridge.getStatus(), is(InstanceStatus.DOWN));
+        assertThat(bridge.getChangeCount(), is(1L));
+        verify(registrationPayload).setStatus(InstanceStatus.DOWN);
+    }
+
+    @Test
+    public void upAfterLongerThreshold() throws Exception {
+        bridge = bridge(1, 3, 0, InstanceStatus.UP);
+
+        bridge.accept(check(HealthStatusCode.DOWN));
+        bridge.accept(check(HealthStatusCode.UP));
+        bridge.accept(check(HealthStatusCode.UP));
+        assertThat(bridge.getStatus(), is(InstanceStatus.DOWN));
+        bridge.accept(check(HealthStatusCode.UP));
+
+        assertThat(bridge.getStatus(), is(InstanceStatus.UP));
+        assertThat(bridge.getChangeCount(), is(2L));
+        verify(registrationPayload).setStatus(InstanceStatus.UP);
+    }
+
+    @Test
+    public void flappingIsIgnored() throws Exception {
+        bridge = bridge(2, 3, 0, InstanceStatus.UP);
+
+        for (int i = 0; i < 10; i++) {
+            bridge.accept(check(HealthStatusCode.DOWN));
+            bridge.accept(check(HealthStatusCode.UP));
+        }
+
+        assertThat(bridge.getStatus(), is(InstanceStatus.UP));
+        assertThat(bridge.getChangeCount(), is(0L));
+        verify(registrationPayload, never()).setStatus(any(InstanceStatus.class));
+    }
+
+    @Test
+    public void changesAreDebounced() throws Exception {
+        bridge = bridge(1, 1, 200, InstanceStatus.UP);
+
+        bridge.accept(check(HealthStatusCode.DOWN));
+        bridge.accept(check(HealthStatusCode.UP));
+        assertThat(bridge.getStatus(), is(InstanceStatus.DOWN));
+
+        Thread.sleep(250);
+        bridge.accept(check(HealthStatusCode.UP));
+        assertThat(bridge.getStatus(), is(InstanceStatus.UP));
+        assertThat(bridge.getChangeCount(), is(2L));
+    }
+
+    @Test
+    public void degradedStatus() throws Exception {
+        bridge = bridge(1, 1, 0, InstanceStatus.UP);
+        bridge.accept(check(HealthStatusCode.DEGRADED));
+        assertThat(bridge.getStatus(), is(InstanceStatus.UP));
+        bridge.shutdown();
+
+        bridge = bridge(1, 1, 0, InstanceStatus.DOWN);
+        bridge.accept(check(HealthStatusCode.DEGRADED));
+        assertThat(bridge.getStatus(), is(InstanceStatus.DOWN));
+    }
+
+    @Test
+    public void noStatusAfterShutdown() throws Exception {
+        bridge = bridge(1, 1, 0, InstanceStatus.UP);
+        bridge.shutdown();
+
+        bridge.accept(check(HealthStatusCode.DOWN));
+
+        assertThat(bridge.getStatus(), is(InstanceStatus.UP));
+        verify(registrationPayload, never()).setStatus(any(InstanceStatus.class));
+    }
+
+    private HealthStatusBridge bridge(
+            final int downThreshold,
+            final int upThreshold,
+            final long minChangeIntervalMs,
+            final InstanceStatus degradedStatus
+    ) {
+        return new HealthStatusBridge.Builder()
+                .withRegistrationPayload(registrationPayload)
+                .withDownThreshold(downThreshold)
+                .withUpThreshold(upThreshold)
+                .withMinChangeIntervalMs(minChangeIntervalMs)
+                .withDegradedStatus(degradedStatus)
+                .build();
+    }
+
+    private static HealthCheck check(final HealthStatusCode code) {
+        return new HealthCheck(code, code.toString());
+    }
+
+}
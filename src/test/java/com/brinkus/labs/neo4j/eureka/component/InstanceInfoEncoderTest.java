@@ -0,0 +1,121 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.TestRegistrations;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.converters.JsonXStream;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class InstanceInfoEncoderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private Registration registration;
+
+    @Before
+    public void before() {
+        registration = TestRegistrations.complete();
+    }
+
+    @Test
+    public void ownDataCenter() throws Exception {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("role", "leader");
+        metadata.put("quoted \"key\"", "value\nwith newline");
+
+        assertWireCompatible(InstanceInfoFactory.getFactory()
+                                     .create(registration, new AmazonInfo(), InstanceInfo.InstanceStatus.UP, metadata));
+    }
+
+    @Test
+    public void amazonDataCenter() throws Exception {
+        AmazonInfo amazonInfo = AmazonInfo.Builder.newBuilder()
+                .addMetadata(AmazonInfo.MetaDataKey.instanceId, "i-0f84ec0b4c02e7878")
+                .addMetadata(AmazonInfo.MetaDataKey.localHostname, "ip-10-0-0-1")
+                .addMetadata(AmazonInfo.MetaDataKey.localIpv4, "10.0.0.1")
+                .addMetadata(AmazonInfo.MetaDataKey.availabilityZone, "eu-west-1a")
+                .build();
+
+        assertWireCompatible(InstanceInfoFactory.getFactory()
+                                     .create(registration, amazonInfo, InstanceInfo.InstanceStatus.OUT_OF_SERVICE));
+    }
+
+    @Test
+    public void missingOptionalFields() throws Exception {
+        registration.setHostname(null);
+        registration.setIpAddress(null);
+        registration.setHomePageUrl(null);
+        registration.setStatusPageUrl(null);
+        registration.setHealthCheckUrl(null);
+        registration.setVipAddress(null);
+
+        assertWireCompatible(InstanceInfoFactory.getFactory()
+                                     .create(registration, new AmazonInfo(), InstanceInfo.InstanceStatus.DOWN));
+    }
+
+    @Test
+    public void decodedByXStream() throws Exception {
+        InstanceInfo instanceInfo = InstanceInfoFactory.getFactory()
+                .create(registration, new AmazonInfo(), InstanceInfo.InstanceStatus.UP, Collections.singletonMap("role", "leader"));
+        String content = new String(InstanceInfoEncoder.getEncoder().encode(instanceInfo), StandardCharsets.UTF_8);
+
+        InstanceInfo decoded = (InstanceInfo) JsonXStream.getInstance().fromXML(content);
+        assertThat(decoded.getInstanceId(), is(instanceInfo.getInstanceId()));
+        assertThat(decoded.getAppName(), is(instanceInfo.getAppName()));
+        assertThat(decoded.getHostName(), is(instanceInfo.getHostName()));
+        assertThat(decoded.getIPAddr(), is(instanceInfo.getIPAddr()));
+        assertThat(decoded.getStatus(), is(instanceInfo.getStatus()));
+        assertThat(decoded.getPort(), is(instanceInfo.getPort()));
+        assertThat(decoded.isPortEnabled(InstanceInfo.PortType.SECURE), is(false));
+        assertThat(decoded.getDataCenterInfo().getName(), is(instanceInfo.getDataCenterInfo().getName()));
+        assertThat(decoded.getLeaseInfo().getDurationInSecs(), is(instanceInfo.getLeaseInfo().getDurationInSecs()));
+        assertThat(decoded.getMetadata(), is(instanceInfo.getMetadata()));
+        assertThat(decoded.getHealthCheckUrl(), is(instanceInfo.getHealthCheckUrl()));
+        assertThat(decoded.getVIPAddress(), is(instanceInfo.getVIPAddress()));
+        assertThat(decoded.getLastDirtyTimestamp(), is(instanceInfo.getLastDirtyTimestamp()));
+    }
+
+    private void assertWireCompatible(final InstanceInfo instanceInfo) throws Exception {
+        JsonNode expected = mapper.readTree(JsonXStream.getInstance().toXML(instanceInfo));
+        JsonNode actual = mapper.readTree(InstanceInfoEncoder.getEncoder().encode(instanceInfo));
+
+        // XStream marks an empty metadata map with its implementation class, which the readers ignore
+        ObjectNode metadata = (ObjectNode) expected.path("instance").path("metadata");
+        if ("java.util.Collections$EmptyMap".equals(metadata.path("@class").asText())) {
+            metadata.remove("@class");
+        }
+        assertThat(actual, is(expected));
+    }
+
+}
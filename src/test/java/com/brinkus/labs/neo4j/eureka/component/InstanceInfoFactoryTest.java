@@ -29,6 +29,7 @@ import java.net.URL;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class InstanceInfoFactoryTest {
@@ -94,6 +95,62 @@ public class InstanceInfoFactoryTest {
         verifyCommonProperties(info);
     }
 
+    @Test
+    public void createWithDnsHostname() {
+        configuration.getRegistration().setAwsDnsHostname(true);
+        InstanceInfo info = InstanceInfoFactory.getFactory(new HostnameResolver() {
+            @Override
+            public String resolve(final String ipAddress) {
+                return ipAddress.equals("192.168.123.12") ? "neo4j-1.dev.brinkus.com" : null;
+            }
+        }).create(configuration.getRegistration(), getAmazonInfo(), InstanceInfo.InstanceStatus.UP);
+
+        assertThat(info.getHostName(), is("neo4j-1.dev.brinkus.com"));
+        assertThat(info.getIPAddr(), is("192.168.123.12"));
+    }
+
+    @Test
+    public void reuseStaticPart() {
+        InstanceInfoFactory factory = InstanceInfoFactory.getFactory();
+        AmazonInfo amazonInfo = getAmazonInfo();
+        InstanceInfo first = factory.create(configuration.getRegistration(), amazonInfo, InstanceInfo.InstanceStatus.UP);
+        InstanceInfo second = factory.create(configuration.getRegistration(), amazonInfo, InstanceInfo.InstanceStatus.DOWN);
+
+        assertThat(second.getId(), is(first.getId()));
+        assertThat(second.getStatus(), is(InstanceInfo.InstanceStatus.DOWN));
+        assertThat(second.getLeaseInfo(), sameInstance(first.getLeaseInfo()));
+        assertThat(second.getDataCenterInfo(), sameInstance(first.getDataCenterInfo()));
+    }
+
+    @Test
+    public void invalidateStaticPart() {
+        InstanceInfoFactory factory = InstanceInfoFactory.getFactory();
+        InstanceInfo first = factory.create(configuration.getRegistration(), new AmazonInfo(), InstanceInfo.InstanceStatus.UP);
+
+        configuration.getRegistration().setHostname("other.host.com");
+        assertThat(factory.create(configuration.getRegistration(), new AmazonInfo(), InstanceInfo.InstanceStatus.UP).getHostName(), is("other.host.com"));
+
+        AmazonInfo amazonInfo = new AmazonInfo();
+        InstanceInfo cached = factory.create(configuration.getRegistration(), amazonInfo, InstanceInfo.InstanceStatus.UP);
+        configuration.getRegistration().setHostname("third.host.com");
+        assertThat(factory.create(configuration.getRegistration(), amazonInfo, InstanceInfo.InstanceStatus.UP).getHostName(), is(cached.getHostName()));
+
+        factory.invalidate();
+        assertThat(factory.create(configuration.getRegistration(), amazonInfo, InstanceInfo.InstanceStatus.UP).getHostName(), is("third.host.com"));
+        assertThat(first.getHostName(), is("localhost"));
+    }
+
+    @Test
+    public void createWithConfiguredLease() {
+        configuration.getRegistration().setRenewalIntervalSecs(5);
+        configuration.getRegistration().setDurationSecs(15);
+        InstanceInfo info = InstanceInfoFactory.getFactory()
+                .create(configuration.getRegistration(), new AmazonInfo(), InstanceInfo.InstanceStatus.UP);
+
+        assertThat(info.getLeaseInfo().getRenewalIntervalInSecs(), is(5));
+        assertThat(info.getLeaseInfo().getDurationInSecs(), is(15));
+    }
+
     private void verifyCommonProperties(final InstanceInfo info) {
         assertThat(info.getAppName(), is("NEO4J"));
         assertThat(info.getOverriddenStatus(), is(InstanceInfo.InstanceStatus.UNKNOWN));
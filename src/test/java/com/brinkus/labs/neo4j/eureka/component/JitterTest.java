@@ -0,0 +1,99 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class JitterTest {
+
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    @Test
+    public void deterministic() {
+        Jitter first = new Jitter("neo4j:neo4j:7474@discovery1:8761", 5000, 10);
+        Jitter second = new Jitter("neo4j:neo4j:7474@discovery1:8761", 5000, 10);
+        Jitter other = new Jitter("neo4j:neo4j:7474@discovery2:8761", 5000, 10);
+
+        assertThat(second.getInitialDelayMs(), is(first.getInitialDelayMs()));
+        assertThat(second.getHeartbeatOffsetNanos(7, INTERVAL_NANOS), is(first.getHeartbeatOffsetNanos(7, INTERVAL_NANOS)));
+        assertThat(other.getInitialDelayMs(), not(first.getInitialDelayMs()));
+    }
+
+    @Test
+    public void bounded() {
+        long maxOffset = INTERVAL_NANOS / 10;
+        for (int i = 0; i < 1000; i++) {
+            Jitter jitter = new Jitter("instance-" + i, 5000, 10);
+            assertThat(jitter.getInitialDelayMs(), greaterThanOrEqualTo(0L));
+            assertThat(jitter.getInitialDelayMs(), lessThan(5000L));
+            assertThat(jitter.getHeartbeatOffsetNanos(i, INTERVAL_NANOS), greaterThanOrEqualTo(-maxOffset));
+            assertThat(jitter.getHeartbeatOffsetNanos(i, INTERVAL_NANOS), lessThanOrEqualTo(maxOffset));
+        }
+    }
+
+    @Test
+    public void spreadOverTheFleet() {
+        // 1000 similar instance ids must fill every tenth of the initial jitter window
+        int[] buckets = new int[10];
+        for (int i = 0; i < 1000; i++) {
+            Jitter jitter = new Jitter(String.format("neo4j:neo4j-%d:7474@discovery1:8761", i), 5000, 10);
+            buckets[(int) (jitter.getInitialDelayMs() / 500)]++;
+        }
+        for (int bucket : buckets) {
+            assertThat(bucket, greaterThan(50));
+        }
+    }
+
+    @Test
+    public void varyingHeartbeatOffsets() {
+        Jitter jitter = new Jitter("neo4j:neo4j:7474@discovery1:8761", 5000, 10);
+        Set<Long> offsets = new HashSet<>();
+        long sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            long offset = jitter.getHeartbeatOffsetNanos(i, INTERVAL_NANOS);
+            offsets.add(offset);
+            sum += offset;
+        }
+
+        assertThat(offsets.size(), greaterThan(990));
+        // the shifts are centered on the fixed-rate grid
+        assertThat(Math.abs(sum / 1000), lessThan(INTERVAL_NANOS / 100));
+    }
+
+    @Test
+    public void disabled() {
+        Jitter jitter = new Jitter("neo4j:neo4j:7474@discovery1:8761", 0, 0);
+
+        assertThat(jitter.getInitialDelayMs(), is(0L));
+        assertThat(jitter.getHeartbeatOffsetNanos(3, INTERVAL_NANOS), is(0L));
+    }
+
+}
@@ -0,0 +1,371 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.TestRegistrations;
+import com.brinkus.labs.neo4j.eureka.exception.RequestFailedException;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.LifecycleStatus;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LifecycleSchedulerTest {
+
+    private static final long INTERVAL_MS = 100;
+
+    private RestClient restClient;
+
+    private LifecycleService lifecycleService;
+
+    private LifecycleScheduler scheduler;
+
+    @Before
+    public void before() {
+        restClient = mock(RestClient.class);
+        lifecycleService = createLifecycleService(restClient);
+        scheduler = new LifecycleScheduler.Builder()
+                .withThreadCount(2)
+                .withInitialJitterMs(0)
+                .withHeartbeatJitterPercent(0)
+                .build();
+    }
+
+    @After
+    public void after() {
+        scheduler.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buildWithoutThreads() {
+        new LifecycleScheduler.Builder().withThreadCount(0).build();
+    }
+
+    @Test
+    public void registerThenHeartbeat() throws Exception {
+        LifecycleTask task = scheduler.schedule(lifecycleService, INTERVAL_MS);
+        Thread.sleep(5 * INTERVAL_MS + INTERVAL_MS / 2);
+        task.cancel();
+
+        verify(restClient, times(1)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        assertThat(task.getHeartbeatCount(), greaterThanOrEqualTo(4L));
+        assertThat(task.getHeartbeatCount(), lessThanOrEqualTo(5L));
+        assertThat(lifecycleService.getStatus(), is(LifecycleStatus.REGISTERED));
+    }
+
+    @Test
+    public void leaseRenewalInterval() throws Exception {
+        LifecycleService shortLease = createLifecycleService(restClient, 5);
+        LifecycleTask task = scheduler.schedule(shortLease);
+        task.cancel();
+
+        // the heartbeats follow the lease sent in the registration
+        assertThat(task.getIntervalMs(), is(5000L));
+    }
+
+    @Test
+    public void fixedRateHeartbeat() throws Exception {
+        // the request latency must not stretch the interval
+        when(restClient.put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(INTERVAL_MS / 2);
+                return RestClient.NO_CONTENT;
+            }
+        });
+
+        LifecycleTask task = scheduler.schedule(lifecycleService, INTERVAL_MS);
+        Thread.sleep(10 * INTERVAL_MS + INTERVAL_MS / 4);
+        task.cancel();
+
+        assertThat(task.getHeartbeatCount(), greaterThanOrEqualTo(9L));
+        assertThat(task.getMissedHeartbeatCount(), is(0L));
+    }
+
+    @Test
+    public void overrunHeartbeatsSkipped() throws Exception {
+        when(restClient.put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(INTERVAL_MS * 5 / 2);
+                return RestClient.NO_CONTENT;
+            }
+        });
+
+        LifecycleTask task = scheduler.schedule(lifecycleService, INTERVAL_MS);
+        Thread.sleep(10 * INTERVAL_MS);
+        task.cancel();
+
+        assertThat(task.getHeartbeatCount(), lessThanOrEqualTo(4L));
+        assertThat(task.getMissedHeartbeatCount(), greaterThan(0L));
+    }
+
+    @Test
+    public void transientHeartbeatFailure() throws Exception {
+        when(restClient.put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                .thenThrow(new RequestFailedException("Connection refused", null))
+                .thenReturn(RestClient.NO_CONTENT);
+
+        LifecycleTask task = scheduler.schedule(lifecycleService, INTERVAL_MS);
+        Thread.sleep(3 * INTERVAL_MS + INTERVAL_MS / 2);
+        task.cancel();
+
+        // the failed heartbeat keeps the registration
+        verify(restClient, times(1)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        verify(restClient, times(0)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(task.getHeartbeatCount(), greaterThanOrEqualTo(1L));
+    }
+
+    @Test
+    public void registrationRetry() throws Exception {
+        when(restClient.post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class)))
+                .thenThrow(new RequestFailedException("Connection refused", null))
+                .thenReturn(RestClient.NO_CONTENT);
+
+        LifecycleTask task = scheduler.schedule(lifecycleService, INTERVAL_MS);
+        // the first restart delay is at most 1 sec
+        Thread.sleep(1500);
+        task.cancel();
+
+        verify(restClient, times(2)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        assertThat(lifecycleService.getStatus(), is(LifecycleStatus.REGISTERED));
+    }
+
+    @Test
+    public void cancelAndDeregister() throws Exception {
+        LifecycleTask task = scheduler.schedule(lifecycleService, INTERVAL_MS);
+        Thread.sleep(INTERVAL_MS + INTERVAL_MS / 2);
+        task.cancel();
+        lifecycleService.deregister();
+        long heartbeats = task.getHeartbeatCount();
+        Thread.sleep(2 * INTERVAL_MS);
+
+        assertThat(task.isCancelled(), is(true));
+        assertThat(task.getHeartbeatCount(), is(heartbeats));
+        assertThat(lifecycleService.getStatus(), is(LifecycleStatus.DEREGISTERED));
+        verify(restClient, times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void stoppedByDirectDeregistration() throws Exception {
+        LifecycleTask task = scheduler.schedule(lifecycleService, INTERVAL_MS);
+        Thread.sleep(INTERVAL_MS / 2);
+        lifecycleService.deregister();
+        Thread.sleep(2 * INTERVAL_MS);
+
+        assertThat(task.isCancelled(), is(true));
+        assertThat(task.getHeartbeatCount(), is(0L));
+    }
+
+    @Test
+    public void sharedThreads() throws Exception {
+        RestClient[] restClients = new RestClient[10];
+        for (int i = 0; i < restClients.length; i++) {
+            restClients[i] = mock(RestClient.class);
+            scheduler.schedule(createLifecycleService(restClients[i]), INTERVAL_MS);
+        }
+        Thread.sleep(INTERVAL_MS * 3 / 2);
+
+        assertThat(scheduler.getThreadCount(), is(2));
+        assertThat(scheduler.getTasks().size(), is(10));
+        for (RestClient client : restClients) {
+            verify(client, times(1)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+            verify(client, atLeast(1)).put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        }
+    }
+
+    @Test
+    public void primaryModeHeartbeatsOnlyToPrimary() throws Exception {
+        List<LifecycleService> lifecycleServices = createPrimaryModeServices();
+        LifecycleTask task = scheduler.schedulePrimary(lifecycleServices, INTERVAL_MS);
+        Thread.sleep(INTERVAL_MS * 3 / 2);
+
+        RestClient primary = task.getLifecycleServices().get(0).getRestClient();
+        assertThat(task.getLifecycleService().getRestClient(), is(primary));
+        verify(primary, times(1)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        verify(primary, atLeast(1)).put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        for (LifecycleService service : task.getLifecycleServices().subList(1, lifecycleServices.size())) {
+            verify(service.getRestClient(), times(0)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+            verify(service.getRestClient(), times(0)).put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        }
+    }
+
+    @Test
+    public void primaryModeFailsOver() throws Exception {
+        LifecycleTask task = scheduler.schedulePrimary(createPrimaryModeServices(), 10 * INTERVAL_MS);
+        task.cancel();
+        List<LifecycleService> failoverOrder = task.getLifecycleServices();
+        RestClient primary = failoverOrder.get(0).getRestClient();
+        when(primary.put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                .thenThrow(new RequestFailedException("Connection refused", null));
+
+        LifecycleTask failingTask = scheduler.schedulePrimary(failoverOrder, INTERVAL_MS);
+        Thread.sleep(INTERVAL_MS * 5);
+
+        assertThat(failingTask.getFailoverCount(), is(1L));
+        assertThat(failingTask.getLifecycleService(), is(failoverOrder.get(1)));
+        verify(primary, times(2)).put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        verify(failoverOrder.get(1).getRestClient(), times(1)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        verify(failoverOrder.get(2).getRestClient(), times(0)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+    }
+
+    @Test
+    public void jitteredSchedule() throws Exception {
+        LifecycleScheduler jitteredScheduler = new LifecycleScheduler.Builder()
+                .withInitialJitterMs(5 * INTERVAL_MS)
+                .withHeartbeatJitterPercent(20)
+                .build();
+        try {
+            RestClient[] restClients = new RestClient[8];
+            for (int i = 0; i < restClients.length; i++) {
+                restClients[i] = mock(RestClient.class);
+                when(restClients[i].getHost()).thenReturn("discovery" + i);
+                jitteredScheduler.schedule(createLifecycleService(restClients[i]), 10 * INTERVAL_MS);
+            }
+            Thread.sleep(6 * INTERVAL_MS);
+
+            for (LifecycleTask task : jitteredScheduler.getTasks()) {
+                assertThat(task.getPhaseMs(), greaterThanOrEqualTo(0L));
+            }
+            assertThat(jitteredScheduler.getPhaseSpreadMs(), greaterThan(INTERVAL_MS));
+            assertThat(jitteredScheduler.getPhaseSpreadMs(), lessThanOrEqualTo(10 * INTERVAL_MS));
+        } finally {
+            jitteredScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void virtualThreadMode() throws Exception {
+        LifecycleScheduler virtualScheduler = new LifecycleScheduler.Builder()
+                .withVirtualThreads(true)
+                .withInitialJitterMs(0)
+                .withHeartbeatJitterPercent(0)
+                .build();
+        try {
+            LifecycleTask task = virtualScheduler.schedule(lifecycleService, INTERVAL_MS);
+            Thread.sleep(2 * INTERVAL_MS + INTERVAL_MS / 2);
+            task.cancel();
+            lifecycleService.deregister();
+
+            assertThat(virtualScheduler.isVirtual(), is(ThreadFactories.isVirtualThreadSupported()));
+            assertThat(task.getHeartbeatCount(), greaterThanOrEqualTo(1L));
+            assertThat(lifecycleService.getStatus(), is(LifecycleStatus.DEREGISTERED));
+        } finally {
+            virtualScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void virtualThreadSteps() throws Exception {
+        Assume.assumeTrue(ThreadFactories.isVirtualThreadSupported());
+
+        final Queue<Boolean> virtualSteps = new ConcurrentLinkedQueue<>();
+        Answer<String> recordThread = new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) {
+                virtualSteps.add(isVirtual(Thread.currentThread()));
+                return RestClient.NO_CONTENT;
+            }
+        };
+        when(restClient.post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class))).thenAnswer(recordThread);
+        when(restClient.put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class))).thenAnswer(recordThread);
+        when(restClient.delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class))).thenAnswer(recordThread);
+
+        LifecycleScheduler virtualScheduler = new LifecycleScheduler.Builder()
+                .withVirtualThreads(true)
+                .withInitialJitterMs(0)
+                .withHeartbeatJitterPercent(0)
+                .build();
+        try {
+            LifecycleTask task = virtualScheduler.schedule(lifecycleService, INTERVAL_MS);
+            Thread.sleep(3 * INTERVAL_MS + INTERVAL_MS / 2);
+            new ShutdownCoordinator.Builder()
+                    .withScheduler(virtualScheduler)
+                    .withVirtualThreads(true)
+                    .build()
+                    .execute();
+
+            assertThat(virtualScheduler.isVirtual(), is(true));
+            assertThat(task.getHeartbeatCount(), greaterThanOrEqualTo(2L));
+            assertThat(lifecycleService.getStatus(), is(LifecycleStatus.DEREGISTERED));
+            verify(restClient, times(1)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+            verify(restClient, times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+            // the registration, at least two heartbeats and the de-registration
+            assertThat(virtualSteps.size(), greaterThanOrEqualTo(4));
+            assertThat(virtualSteps, everyItem(is(true)));
+        } finally {
+            virtualScheduler.shutdown();
+        }
+    }
+
+    private static List<LifecycleService> createPrimaryModeServices() {
+        List<LifecycleService> lifecycleServices = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RestClient client = mock(RestClient.class);
+            when(client.getHost()).thenReturn("discovery" + i);
+            when(client.getPort()).thenReturn(8761);
+            lifecycleServices.add(createLifecycleService(client));
+        }
+        return lifecycleServices;
+    }
+
+    private static LifecycleService createLifecycleService(final RestClient restClient) {
+        return createLifecycleService(restClient, 30);
+    }
+
+    private static LifecycleService createLifecycleService(final RestClient restClient, final int renewalIntervalSecs) {
+        Registration registration = TestRegistrations.minimal();
+        registration.setRenewalIntervalSecs(renewalIntervalSecs);
+        registration.setDurationSecs(3 * renewalIntervalSecs);
+        return TestRegistrations.lifecycleService(restClient, registration);
+    }
+
+    private static boolean isVirtual(final Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+}
@@ -22,6 +22,7 @@ import com.brinkus.labs.neo4j.eureka.EurekaPluginConfiguration;
 import com.brinkus.labs.neo4j.eureka.ServiceDiscoveryRunner;
 import com.brinkus.labs.neo4j.eureka.type.config.Configuration;
 import com.brinkus.labs.neo4j.eureka.type.config.Service;
+import com.netflix.appinfo.AmazonInfo;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -58,7 +59,9 @@ public class LifecycleServiceIT {
 
     @Before
     public void before() throws Exception {
-        EurekaPluginConfiguration pluginConfiguration = new EurekaPluginConfiguration.Builder().build();
+        EurekaPluginConfiguration pluginConfiguration = new EurekaPluginConfiguration.Builder()
+                .withAmazonInfo(new AmazonInfo())
+                .build();
 
         ConfigurationLoader configurationLoader = new ConfigurationLoader();
         Configuration configuration = configurationLoader.loadConfiguration(pluginConfiguration.getConfigurationFilePath());
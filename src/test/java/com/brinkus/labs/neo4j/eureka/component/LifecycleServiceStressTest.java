@@ -0,0 +1,235 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.TestRegistrations;
+import com.brinkus.labs.neo4j.eureka.exception.InvalidLifeCycleException;
+import com.brinkus.labs.neo4j.eureka.transport.Transport;
+import com.brinkus.labs.neo4j.eureka.transport.TransportRequest;
+import com.brinkus.labs.neo4j.eureka.transport.TransportResponse;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.LifecycleStatus;
+import com.brinkus.labs.neo4j.eureka.type.PoolStatistics;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import com.netflix.appinfo.AmazonInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Races the heartbeats and the registration of an instance against concurrent shutdown hooks.
+ */
+public class LifecycleServiceStressTest {
+
+    private static final int ITERATIONS = 200;
+
+    private static final int HEARTBEAT_THREADS = 2;
+
+    private static final int SHUTDOWN_THREADS = 4;
+
+    private RegistrationPayload registrationPayload;
+
+    private Registration registration;
+
+    @Before
+    public void before() {
+        registration = TestRegistrations.minimal();
+
+        registrationPayload = new RegistrationPayload.Builder()
+                .withRegistration(registration)
+                .withAwsInfo(new AmazonInfo())
+                .build();
+    }
+
+    @Test
+    public void noLostDeregistration() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final Queue<String> requests = new ConcurrentLinkedQueue<>();
+            final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            final LifecycleService lifecycleService = new LifecycleService.Builder()
+                    .withRegistration(registration)
+                    .withRestClient(createClient(requests))
+                    .withRegistrationPayload(registrationPayload)
+                    .build();
+            lifecycleService.register();
+
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int j = 0; j < HEARTBEAT_THREADS; j++) {
+                threads.add(new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        await(start);
+                        while (!lifecycleService.getStatus().isDeregistration()) {
+                            try {
+                                lifecycleService.keepAlive();
+                            } catch (InvalidLifeCycleException e) {
+                                // the other heartbeat is in progress
+                            } catch (Throwable e) {
+                                errors.add(e);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (int j = 0; j < SHUTDOWN_THREADS; j++) {
+                threads.add(new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        await(start);
+                        try {
+                            lifecycleService.deregister();
+                        } catch (Throwable e) {
+                            errors.add(e);
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join(10000L);
+            }
+
+            assertThat(errors.toString(), errors.isEmpty(), is(true));
+            assertThat(lifecycleService.getStatus(), is(LifecycleStatus.DEREGISTERED));
+
+            // a single de-registration, and nothing renews the lease after it
+            List<String> sent = new ArrayList<>(requests);
+            int deletes = 0;
+            for (String request : sent) {
+                if (request.startsWith(TransportRequest.DELETE)) {
+                    deletes++;
+                }
+            }
+            assertThat(deletes, is(1));
+            assertThat(sent.get(sent.size() - 1), is("DELETE /eureka/apps/test/test:test:8888"));
+        }
+    }
+
+    @Test
+    public void noRegistrationAfterShutdown() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            final Queue<String> requests = new ConcurrentLinkedQueue<>();
+            final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            final LifecycleService lifecycleService = new LifecycleService.Builder()
+                    .withRegistration(registration)
+                    .withRestClient(createClient(requests))
+                    .withRegistrationPayload(registrationPayload)
+                    .build();
+            final ShutdownHook shutdownHook = new ShutdownHook.Builder()
+                    .withLifecycleService(lifecycleService)
+                    .build();
+
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    try {
+                        // the registration step has passed the stopped check of its lifecycle task
+                        lifecycleService.register();
+                    } catch (InvalidLifeCycleException e) {
+                        // the lifecycle was cancelled first
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            }));
+            for (int j = 0; j < SHUTDOWN_THREADS; j++) {
+                threads.add(new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        await(start);
+                        if (!shutdownHook.execute()) {
+                            errors.add(new AssertionError("The shutdown hook failed"));
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join(10000L);
+            }
+
+            assertThat(errors.toString(), errors.isEmpty(), is(true));
+            assertThat(lifecycleService.getStatus().isDeregistration(), is(true));
+
+            // either nothing was sent, or the registration was followed by a single de-registration
+            List<String> sent = new ArrayList<>(requests);
+            if (lifecycleService.getStatus() == LifecycleStatus.CANCELLED) {
+                assertThat(sent.toString(), sent.isEmpty(), is(true));
+            } else {
+                assertThat(sent.size(), is(2));
+                assertThat(sent.get(1), is("DELETE /eureka/apps/test/test:test:8888"));
+            }
+        }
+    }
+
+    private static RestClient createClient(final Queue<String> requests) {
+        return new RestClient.Builder()
+                .withHost("127.0.0.1")
+                .withPort(8761)
+                .withTransport(new Transport() {
+                    @Override
+                    public TransportResponse execute(final TransportRequest request, final Deadline deadline) {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            Thread.yield();
+                        }
+                        String uri = request.getUri();
+                        int index = uri.indexOf('?');
+                        requests.add(request.getMethod() + " " + (index < 0 ? uri : uri.substring(0, index)));
+                        int statusCode = TransportRequest.POST.equals(request.getMethod()) ? RestClient.STATUS_NO_CONTENT : RestClient.STATUS_OK;
+                        return new TransportResponse(statusCode, new ByteArrayInputStream(new byte[0]), 0, null, null);
+                    }
+
+                    @Override
+                    public PoolStatistics getPoolStatistics() {
+                        return null;
+                    }
+                })
+                .build();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.TestRegistrations;
+import com.brinkus.labs.neo4j.eureka.exception.InvalidLifeCycleException;
+import com.brinkus.labs.neo4j.eureka.exception.RequestFailedException;
+import com.brinkus.labs.neo4j.eureka.exception.ResponseCodeNotMatchingException;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.LifecycleStatus;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.InstanceInfo;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LifecycleServiceTest {
+
+    private RestClient restClient;
+
+    private RegistrationPayload registrationPayload;
+
+    private LifecycleService lifecycleService;
+
+    @Before
+    public void before() throws Exception {
+        Registration registration = TestRegistrations.minimal();
+
+        restClient = mock(RestClient.class);
+        registrationPayload = new RegistrationPayload.Builder()
+                .withRegistration(registration)
+                .withAwsInfo(new AmazonInfo())
+                .build();
+        lifecycleService = new LifecycleService.Builder()
+                .withRegistration(registration)
+                .withRestClient(restClient)
+                .withRegistrationPayload(registrationPayload)
+                .build();
+    }
+
+    @Test
+    public void heartbeatCarriesStatusAndLastDirtyTimestamp() throws Exception {
+        lifecycleService.register();
+        lifecycleService.keepAlive();
+
+        InstanceInfo instanceInfo = registrationPayload.get().getInstanceInfo();
+        String uri = String.format("/eureka/apps/test/test:test:8888?status=UP&lastDirtyTimestamp=%d", instanceInfo.getLastDirtyTimestamp());
+        verify(restClient, times(1)).put(eq(uri), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(lifecycleService.getReregistrationCount(), is(0L));
+    }
+
+    @Test
+    public void unknownInstanceIsRegisteredAgain() throws Exception {
+        when(restClient.put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                .thenThrow(new ResponseCodeNotMatchingException("Not found", RestClient.STATUS_NOT_FOUND));
+
+        lifecycleService.register();
+        lifecycleService.keepAlive();
+
+        byte[] content = registrationPayload.get().getContent();
+        verify(restClient, times(2)).post(eq("/eureka/apps/test"), same(content), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        verify(restClient, times(0)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(lifecycleService.getReregistrationCount(), is(1L));
+        assertThat(registrationPayload.getEncodingCount(), is(1L));
+    }
+
+    @Test(expected = RequestFailedException.class)
+    public void transientErrorIsReported() throws Exception {
+        when(restClient.put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                .thenThrow(new RequestFailedException("Connection refused", null));
+
+        lifecycleService.register();
+        try {
+            lifecycleService.keepAlive();
+        } finally {
+            verify(restClient, times(1)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+            assertThat(lifecycleService.getReregistrationCount(), is(0L));
+        }
+    }
+
+    @Test
+    public void changedInstanceIdMovesRegistration() throws Exception {
+        lifecycleService.register();
+        registrationPayload.setAmazonInfo(AmazonInfo.Builder.newBuilder()
+                                                  .addMetadata(AmazonInfo.MetaDataKey.instanceId, "i-0f84ec0b4c02e7878")
+                                                  .addMetadata(AmazonInfo.MetaDataKey.localHostname, "ip-10-0-0-1")
+                                                  .addMetadata(AmazonInfo.MetaDataKey.localIpv4, "10.0.0.1")
+                                                  .build());
+        lifecycleService.keepAlive();
+
+        InOrder inOrder = inOrder(restClient);
+        inOrder.verify(restClient).post(eq("/eureka/apps/test"), same(registrationPayload.get().getContent()), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        inOrder.verify(restClient).delete(eq("/eureka/apps/test/test:test:8888"), eq(RestClient.STATUS_OK), any(Deadline.class));
+        verify(restClient, times(0)).put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(lifecycleService.getInstanceInfo().getInstanceId(), is("i-0f84ec0b4c02e7878:test:8888"));
+        assertThat(lifecycleService.getStatus(), is(LifecycleStatus.REGISTERED));
+    }
+
+    @Test
+    public void deregisterWithoutDelay() throws Exception {
+        lifecycleService.register();
+
+        long startTime = System.currentTimeMillis();
+        lifecycleService.deregister();
+        assertThat(System.currentTimeMillis() - startTime, lessThan(500L));
+
+        verify(restClient, times(1)).delete(eq("/eureka/apps/test/test:test:8888"), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void deregisterUnknownInstance() throws Exception {
+        when(restClient.delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                .thenThrow(new ResponseCodeNotMatchingException("Not found", RestClient.STATUS_NOT_FOUND));
+        lifecycleService.register();
+
+        lifecycleService.deregister();
+        assertThat(lifecycleService.getStatus(), is(LifecycleStatus.DEREGISTERED));
+    }
+
+    @Test
+    public void deregisterAwaitsInFlightHeartbeat() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(restClient.put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return RestClient.NO_CONTENT;
+            }
+        });
+
+        lifecycleService.register();
+        Thread heartbeat = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    lifecycleService.keepAlive();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        heartbeat.start();
+        started.await(5, TimeUnit.SECONDS);
+
+        Thread deregistration = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    lifecycleService.deregister();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        deregistration.start();
+        Thread.sleep(200);
+        verify(restClient, times(0)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+
+        release.countDown();
+        deregistration.join(5000);
+        heartbeat.join(5000);
+
+        InOrder order = inOrder(restClient);
+        order.verify(restClient).put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        order.verify(restClient).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void heartbeatSkippedAfterDeregistration() throws Exception {
+        lifecycleService.register();
+        lifecycleService.deregister();
+        lifecycleService.keepAlive();
+
+        verify(restClient, times(0)).put(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void takeOutOfServiceKeepsRegistration() throws Exception {
+        lifecycleService.register();
+        lifecycleService.takeOutOfService();
+
+        verify(restClient, times(1)).put(eq("/eureka/apps/test/test:test:8888/status?value=OUT_OF_SERVICE"), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(lifecycleService.getStatus(), is(LifecycleStatus.REGISTERED));
+
+        lifecycleService.deregister();
+        verify(restClient, times(1)).delete(eq("/eureka/apps/test/test:test:8888"), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test(expected = InvalidLifeCycleException.class)
+    public void takeOutOfServiceWithoutRegistration() throws Exception {
+        lifecycleService.takeOutOfService();
+    }
+
+    @Test
+    public void statusChangeIsRegisteredAgain() throws Exception {
+        when(restClient.put(contains("status=DOWN"), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                .thenThrow(new ResponseCodeNotMatchingException("Not found", RestClient.STATUS_NOT_FOUND));
+
+        lifecycleService.register();
+        registrationPayload.setStatus(InstanceInfo.InstanceStatus.DOWN);
+        lifecycleService.keepAlive();
+
+        // the heartbeat of the newer registration is rejected, no status override is set
+        byte[] content = registrationPayload.get().getContent();
+        verify(restClient, times(1)).post(eq("/eureka/apps/test"), same(content), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        verify(restClient, times(0)).put(contains("/status?value="), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(lifecycleService.getReregistrationCount(), is(1L));
+    }
+
+    @Test(expected = InvalidLifeCycleException.class)
+    public void heartbeatWithoutRegistration() throws Exception {
+        lifecycleService.keepAlive();
+    }
+
+    @Test(expected = InvalidLifeCycleException.class)
+    public void deregisterWithoutRegistration() throws Exception {
+        lifecycleService.deregister();
+    }
+
+    @Test
+    public void failedDeregistrationKeepsRegistration() throws Exception {
+        when(restClient.delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                .thenThrow(new RequestFailedException("Connection refused", null))
+                .thenReturn(RestClient.NO_CONTENT);
+
+        lifecycleService.register();
+        try {
+            lifecycleService.deregister();
+        } catch (RequestFailedException e) {
+            assertThat(lifecycleService.getStatus(), is(LifecycleStatus.REGISTERED));
+        }
+        lifecycleService.deregister();
+        lifecycleService.deregister();
+
+        assertThat(lifecycleService.getStatus(), is(LifecycleStatus.DEREGISTERED));
+        verify(restClient, times(2)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void failedRegistrationRollsBack() throws Exception {
+        when(restClient.post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class)))
+                .thenThrow(new RequestFailedException("Connection refused", null));
+
+        try {
+            lifecycleService.register();
+        } catch (RequestFailedException e) {
+            assertThat(lifecycleService.getStatus(), is(LifecycleStatus.UNKNOWN));
+            assertThat(lifecycleService.getInstanceInfo() == null, is(true));
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.TestRegistrations;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.EncodedRegistration;
+import com.brinkus.labs.neo4j.eureka.type.config.Registration;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.InstanceInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class RegistrationPayloadTest {
+
+    private Registration registration;
+
+    private RegistrationPayload registrationPayload;
+
+    @Before
+    public void before() {
+        registration = TestRegistrations.minimal();
+
+        registrationPayload = new RegistrationPayload.Builder()
+                .withRegistration(registration)
+                .withAwsInfo(new AmazonInfo())
+                .build();
+    }
+
+    @Test
+    public void encodedOnce() {
+        EncodedRegistration first = registrationPayload.get();
+        EncodedRegistration second = registrationPayload.get();
+
+        assertThat(second, sameInstance(first));
+        assertThat(registrationPayload.getEncodingCount(), is(1L));
+        assertThat(first.getInstanceInfo().getInstanceId(), is("test:test:8888"));
+        assertThat(new String(first.getContent(), StandardCharsets.UTF_8), containsString("\"instanceId\":\"test:test:8888\""));
+    }
+
+    @Test
+    public void encodedAgainOnStatusChange() {
+        EncodedRegistration first = registrationPayload.get();
+
+        registrationPayload.setStatus(InstanceInfo.InstanceStatus.UP);
+        assertThat(registrationPayload.get(), sameInstance(first));
+
+        registrationPayload.setStatus(InstanceInfo.InstanceStatus.OUT_OF_SERVICE);
+        EncodedRegistration second = registrationPayload.get();
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.getInstanceInfo().getStatus(), is(InstanceInfo.InstanceStatus.OUT_OF_SERVICE));
+        assertThat(new String(second.getContent(), StandardCharsets.UTF_8), containsString("OUT_OF_SERVICE"));
+        assertThat(registrationPayload.getEncodingCount(), is(2L));
+    }
+
+    @Test
+    public void encodedAgainOnMetadataChange() {
+        EncodedRegistration first = registrationPayload.get();
+
+        registrationPayload.setMetadata(Collections.<String, String>emptyMap());
+        assertThat(registrationPayload.get(), sameInstance(first));
+
+        registrationPayload.setMetadata(Collections.singletonMap("role", "leader"));
+        EncodedRegistration second = registrationPayload.get();
+        assertThat(second.getInstanceInfo().getMetadata().get("role"), is("leader"));
+        assertThat(new String(second.getContent(), StandardCharsets.UTF_8), containsString("leader"));
+        assertThat(registrationPayload.getEncodingCount(), is(2L));
+    }
+
+    @Test
+    public void encodedAgainOnAmazonInfoChange() {
+        EncodedRegistration first = registrationPayload.get();
+
+        registrationPayload.setAmazonInfo(new AmazonInfo());
+        assertThat(registrationPayload.get(), sameInstance(first));
+
+        registrationPayload.setAmazonInfo(AmazonInfo.Builder.newBuilder()
+                                                  .addMetadata(AmazonInfo.MetaDataKey.instanceId, "i-0f84ec0b4c02e7878")
+                                                  .addMetadata(AmazonInfo.MetaDataKey.localHostname, "ip-10-0-0-1")
+                                                  .addMetadata(AmazonInfo.MetaDataKey.localIpv4, "10.0.0.1")
+                                                  .build());
+        EncodedRegistration second = registrationPayload.get();
+        assertThat(second.getInstanceInfo().getInstanceId(), is("i-0f84ec0b4c02e7878:test:8888"));
+        assertThat(second.getInstanceInfo().getHostName(), is("ip-10-0-0-1"));
+        assertThat(registrationPayload.getEncodingCount(), is(2L));
+    }
+
+    @Test
+    public void encodedAgainAfterInvalidation() {
+        registrationPayload.get();
+        registration.setHostname("other.host.com");
+        registrationPayload.invalidate();
+
+        assertThat(registrationPayload.get().getInstanceInfo().getHostName(), is("other.host.com"));
+        assertThat(registrationPayload.getEncodingCount(), is(2L));
+    }
+
+    @Test
+    public void sharedByLifecycleServices() throws Exception {
+        RestClient first = mock(RestClient.class);
+        RestClient second = mock(RestClient.class);
+
+        for (RestClient restClient : new RestClient[]{first, second}) {
+            LifecycleService lifecycleService = new LifecycleService.Builder()
+                    .withRegistration(registration)
+                    .withRestClient(restClient)
+                    .withRegistrationPayload(registrationPayload)
+                    .build();
+            lifecycleService.register();
+            lifecycleService.register();
+        }
+
+        byte[] content = registrationPayload.get().getContent();
+        verify(first, times(2)).post(eq("/eureka/apps/test"), same(content), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        verify(second, times(2)).post(eq("/eureka/apps/test"), same(content), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        assertThat(registrationPayload.getEncodingCount(), is(1L));
+    }
+
+}
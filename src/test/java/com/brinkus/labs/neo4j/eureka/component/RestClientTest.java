@@ -0,0 +1,510 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.exception.CircuitOpenException;
+import com.brinkus.labs.neo4j.eureka.exception.DeadlineExceededException;
+import com.brinkus.labs.neo4j.eureka.exception.ResponseCodeNotMatchingException;
+import com.brinkus.labs.neo4j.eureka.transport.JdkTransport;
+import com.brinkus.labs.neo4j.eureka.transport.Transport;
+import com.brinkus.labs.neo4j.eureka.transport.TransportRequest;
+import com.brinkus.labs.neo4j.eureka.transport.TransportResponse;
+import com.brinkus.labs.neo4j.eureka.type.CircuitState;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.PoolStatistics;
+import com.brinkus.labs.neo4j.eureka.type.config.Breaker;
+import com.brinkus.labs.neo4j.eureka.type.config.Pool;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class RestClientTest {
+
+    private HttpServer server;
+
+    private HttpReactor reactor;
+
+    private final AtomicInteger flakyRequests = new AtomicInteger();
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void before() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/eureka/apps", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                drain(exchange.getRequestBody());
+                if (exchange.getRequestURI().getPath().endsWith("/slow")) {
+                    sleep(2000);
+                }
+                if ("GET".equals(exchange.getRequestMethod())) {
+                    byte[] body = "{\"applications\":{}}".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream stream = exchange.getResponseBody()) {
+                        stream.write(body);
+                    }
+                } else if (exchange.getRequestURI().getPath().endsWith("/gone")) {
+                    byte[] body = "{\"error\":\"not found\"}".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(404, body.length);
+                    try (OutputStream stream = exchange.getResponseBody()) {
+                        stream.write(body);
+                    }
+                } else if (exchange.getRequestURI().getPath().endsWith("/missing")) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else if (exchange.getRequestURI().getPath().endsWith("/unavailable")) {
+                    exchange.sendResponseHeaders(503, -1);
+                } else if (exchange.getRequestURI().getPath().endsWith("/flaky") && flakyRequests.incrementAndGet() < 3) {
+                    exchange.sendResponseHeaders(503, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        reactor = new HttpReactor.Builder().build();
+    }
+
+    @After
+    public void after() {
+        reactor.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void blockingRequest() throws Exception {
+        RestClient restClient = createClient((HttpReactor) null);
+
+        assertThat(restClient.isAsync(), is(false));
+        assertThat(restClient.get("/eureka/apps"), is("{\"applications\":{}}"));
+        assertThat(restClient.put("/eureka/apps/test/test"), is(""));
+    }
+
+    @Test
+    public void asynchronousRequest() throws Exception {
+        RestClient restClient = createClient(reactor);
+
+        assertThat(restClient.isAsync(), is(true));
+        CompletableFuture<String> get = restClient.getAsync("/eureka/apps", RestClient.STATUS_OK);
+        CompletableFuture<String> put = restClient.putAsync("/eureka/apps/test/test", RestClient.STATUS_OK);
+        assertThat(get.get(5, TimeUnit.SECONDS), is("{\"applications\":{}}"));
+        assertThat(put.get(5, TimeUnit.SECONDS), is(""));
+    }
+
+    @Test
+    public void reactorDaemonThreads() throws Exception {
+        RestClient restClient = createClient(reactor);
+        restClient.get("/eureka/apps");
+
+        // the I/O threads do not keep the JVM alive
+        int ioThreads = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("eureka-io-")) {
+                assertThat(thread.isDaemon(), is(true));
+                ioThreads++;
+            }
+        }
+        assertThat(ioThreads, greaterThan(0));
+    }
+
+    @Test
+    public void blockingRequestOnReactor() throws Exception {
+        RestClient restClient = createClient(reactor);
+
+        assertThat(restClient.delete("/eureka/apps/test/test"), is(""));
+    }
+
+    @Test
+    public void asynchronousRequestFailed() throws Exception {
+        RestClient restClient = createClient(reactor);
+
+        CompletableFuture<String> put = restClient.putAsync("/eureka/apps/test/missing", RestClient.STATUS_OK);
+        try {
+            put.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ResponseCodeNotMatchingException.class));
+            return;
+        }
+        throw new AssertionError("The request should fail");
+    }
+
+    @Test(expected = ResponseCodeNotMatchingException.class)
+    public void blockingRequestOnReactorFailed() throws Exception {
+        RestClient restClient = createClient(reactor);
+
+        restClient.put("/eureka/apps/test/missing");
+    }
+
+    @Test
+    public void sharedConnectionPool() throws Exception {
+        ConnectionPool connectionPool = new ConnectionPool.Builder().build();
+        try {
+            RestClient first = createClient(connectionPool);
+            RestClient second = createClient(connectionPool);
+            for (int i = 0; i < 5; i++) {
+                first.put("/eureka/apps/test/first");
+                second.put("/eureka/apps/test/second");
+            }
+
+            PoolStatistics statistics = first.getPoolStatistics();
+            assertThat(statistics.getRequests(), is(10L));
+            assertThat(statistics.getConnections(), is(1L));
+            assertThat(statistics.getLeased(), is(0));
+            assertThat(statistics.getAvailable(), is(1));
+            assertThat(statistics.getReuseRatio(), is(0.9));
+            assertThat(second.getPoolStatistics().getRequests(), is(10L));
+        } finally {
+            connectionPool.close();
+        }
+    }
+
+    @Test
+    public void noPoolStatisticsOnReactor() throws Exception {
+        assertThat(createClient(reactor).getPoolStatistics(), nullValue());
+    }
+
+    @Test
+    public void blockingRequestDeadlineExceeded() throws Exception {
+        RestClient restClient = createClient((HttpReactor) null);
+
+        long startTime = System.currentTimeMillis();
+        try {
+            restClient.put("/eureka/apps/test/slow", RestClient.STATUS_OK, Deadline.after(300));
+            throw new AssertionError("The request should time out");
+        } catch (DeadlineExceededException e) {
+            assertThat(System.currentTimeMillis() - startTime, lessThan(1500L));
+        }
+        assertThat(restClient.getTimeoutCount(), is(1L));
+    }
+
+    @Test
+    public void asynchronousRequestDeadlineExceeded() throws Exception {
+        RestClient restClient = createClient(reactor);
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<String> put = restClient.putAsync("/eureka/apps/test/slow", RestClient.STATUS_OK, Deadline.after(300));
+        try {
+            put.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("The request should time out");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(DeadlineExceededException.class));
+            assertThat(System.currentTimeMillis() - startTime, lessThan(1500L));
+        }
+        assertThat(restClient.getTimeoutCount(), is(1L));
+    }
+
+    @Test(expected = DeadlineExceededException.class)
+    public void expiredDeadline() throws Exception {
+        RestClient restClient = createClient((HttpReactor) null);
+
+        restClient.put("/eureka/apps/test/test", RestClient.STATUS_OK, Deadline.after(0));
+    }
+
+    @Test
+    public void requestWithinDeadline() throws Exception {
+        RestClient restClient = createClient(reactor);
+
+        assertThat(restClient.put("/eureka/apps/test/test", RestClient.STATUS_OK, Deadline.after(5000)), is(""));
+        assertThat(restClient.getTimeoutCount(), is(0L));
+    }
+
+    @Test
+    public void retryIdempotentRequest() throws Exception {
+        RestClient restClient = createClient((HttpReactor) null);
+
+        assertThat(restClient.put("/eureka/apps/test/flaky"), is(""));
+        assertThat(flakyRequests.get(), is(3));
+        assertThat(restClient.getCircuitState(), is(CircuitState.CLOSED));
+    }
+
+    @Test
+    public void retryIdempotentRequestOnReactor() throws Exception {
+        RestClient restClient = createClient(reactor);
+
+        assertThat(restClient.deleteAsync("/eureka/apps/test/flaky", RestClient.STATUS_OK).get(5, TimeUnit.SECONDS), is(""));
+        assertThat(flakyRequests.get(), is(3));
+    }
+
+    @Test
+    public void noRetryOfNonIdempotentRequest() throws Exception {
+        RestClient restClient = createClient((HttpReactor) null);
+
+        try {
+            restClient.post("/eureka/apps/test/flaky", "{}");
+            throw new AssertionError("The request should fail");
+        } catch (ResponseCodeNotMatchingException e) {
+            assertThat(e.getStatusCode(), is(503));
+        }
+        assertThat(flakyRequests.get(), is(1));
+    }
+
+    @Test
+    public void noRetryOfClientError() throws Exception {
+        RestClient restClient = createClient((HttpReactor) null);
+
+        try {
+            restClient.put("/eureka/apps/test/missing");
+            throw new AssertionError("The request should fail");
+        } catch (ResponseCodeNotMatchingException e) {
+            assertThat(e.getStatusCode(), is(404));
+        }
+        assertThat(restClient.getCircuitState(), is(CircuitState.CLOSED));
+    }
+
+    @Test
+    public void circuitBreakerOpens() throws Exception {
+        Breaker breaker = new Breaker();
+        breaker.setFailureThreshold(3);
+        RestClient restClient = new RestClient.Builder()
+                .withHost("127.0.0.1")
+                .withPort(server.getAddress().getPort())
+                .withCircuitBreaker(breaker)
+                .build();
+
+        try {
+            restClient.put("/eureka/apps/test/unavailable");
+            throw new AssertionError("The request should fail");
+        } catch (ResponseCodeNotMatchingException e) {
+            assertThat(restClient.getCircuitState(), is(CircuitState.OPEN));
+        }
+        try {
+            restClient.put("/eureka/apps/test/test");
+            throw new AssertionError("The request should be rejected");
+        } catch (CircuitOpenException e) {
+            assertThat(restClient.getCircuitState(), is(CircuitState.OPEN));
+        }
+    }
+
+    @Test
+    public void errorResponseReleasesConnection() throws Exception {
+        Pool pool = new Pool();
+        pool.setMaxTotal(1);
+        pool.setMaxPerRoute(1);
+        ConnectionPool connectionPool = new ConnectionPool.Builder().withPool(pool).build();
+        try {
+            RestClient restClient = createClient(connectionPool);
+            for (int i = 0; i < 3; i++) {
+                try {
+                    restClient.put("/eureka/apps/test/gone", RestClient.STATUS_OK, Deadline.after(1000));
+                    throw new AssertionError("The request should fail");
+                } catch (ResponseCodeNotMatchingException e) {
+                    assertThat(e.getStatusCode(), is(404));
+                }
+            }
+            assertThat(restClient.get("/eureka/apps", RestClient.STATUS_OK, Deadline.after(1000)), is("{\"applications\":{}}"));
+
+            PoolStatistics statistics = restClient.getPoolStatistics();
+            assertThat(statistics.getLeased(), is(0));
+            assertThat(statistics.getConnections(), is(1L));
+            assertThat(restClient.getUnconsumedResponseCount(), is(3L));
+            assertThat(restClient.getFailedReleaseCount(), is(0L));
+        } finally {
+            connectionPool.close();
+        }
+    }
+
+    @Test
+    public void streamingConsumer() throws Exception {
+        RestClient restClient = createClient((HttpReactor) null);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(restClient.get("/eureka/apps", RestClient.STATUS_OK, Deadline.none(), new FirstCharacter()), is('{'));
+        }
+
+        PoolStatistics statistics = restClient.getPoolStatistics();
+        assertThat(statistics.getLeased(), is(0));
+        assertThat(statistics.getConnections(), is(1L));
+        assertThat(restClient.getUnconsumedResponseCount(), is(3L));
+    }
+
+    @Test
+    public void streamingConsumerOnReactor() throws Exception {
+        RestClient restClient = createClient(reactor);
+
+        CompletableFuture<Character> get = restClient.getAsync("/eureka/apps", RestClient.STATUS_OK, Deadline.none(), new FirstCharacter());
+        assertThat(get.get(5, TimeUnit.SECONDS), is('{'));
+        assertThat(restClient.getUnconsumedResponseCount(), is(1L));
+    }
+
+    @Test
+    public void fullyConsumedResponse() throws Exception {
+        RestClient restClient = createClient((HttpReactor) null);
+
+        restClient.get("/eureka/apps");
+        restClient.put("/eureka/apps/test/test");
+        assertThat(restClient.getUnconsumedResponseCount(), is(0L));
+    }
+
+    @Test
+    public void jdkTransport() throws Exception {
+        RestClient restClient = createClient(new JdkTransport("127.0.0.1", server.getAddress().getPort()));
+
+        assertThat(restClient.isAsync(), is(false));
+        assertThat(restClient.getPoolStatistics(), nullValue());
+        assertThat(restClient.get("/eureka/apps"), is("{\"applications\":{}}"));
+        assertThat(restClient.post("/eureka/apps/test", "{}"), is(""));
+        assertThat(restClient.put("/eureka/apps/test/flaky"), is(""));
+        assertThat(flakyRequests.get(), is(3));
+    }
+
+    @Test
+    public void jdkTransportErrorResponse() throws Exception {
+        RestClient restClient = createClient(new JdkTransport("127.0.0.1", server.getAddress().getPort()));
+
+        try {
+            restClient.put("/eureka/apps/test/gone");
+            throw new AssertionError("The request should fail");
+        } catch (ResponseCodeNotMatchingException e) {
+            assertThat(e.getStatusCode(), is(404));
+        }
+        assertThat(restClient.getUnconsumedResponseCount(), is(1L));
+        assertThat(restClient.getFailedReleaseCount(), is(0L));
+    }
+
+    @Test
+    public void jdkTransportReusesConnection() throws Exception {
+        RestClient restClient = createClient(new JdkTransport("127.0.0.1", server.getAddress().getPort()));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(restClient.get("/eureka/apps"), is("{\"applications\":{}}"));
+            restClient.put("/eureka/apps/test/test");
+            try {
+                restClient.put("/eureka/apps/test/gone");
+                throw new AssertionError("The request should fail");
+            } catch (ResponseCodeNotMatchingException e) {
+                assertThat(e.getStatusCode(), is(404));
+            }
+        }
+        assertThat(clientPorts.size(), is(1));
+    }
+
+    @Test
+    public void jdkTransportDeadlineExceeded() throws Exception {
+        RestClient restClient = createClient(new JdkTransport("127.0.0.1", server.getAddress().getPort()));
+
+        long startTime = System.currentTimeMillis();
+        try {
+            restClient.put("/eureka/apps/test/slow", RestClient.STATUS_OK, Deadline.after(300));
+            throw new AssertionError("The request should time out");
+        } catch (DeadlineExceededException e) {
+            assertThat(System.currentTimeMillis() - startTime, lessThan(1500L));
+        }
+        assertThat(restClient.getTimeoutCount(), is(1L));
+    }
+
+    @Test
+    public void customTransport() throws Exception {
+        final List<String> requests = new ArrayList<>();
+        RestClient restClient = createClient(new Transport() {
+            @Override
+            public TransportResponse execute(final TransportRequest request, final Deadline deadline) {
+                requests.add(request.getMethod() + " " + request.getUri());
+                byte[] content = "{}".getBytes(StandardCharsets.UTF_8);
+                return new TransportResponse(200, new ByteArrayInputStream(content), content.length, "application/json", null);
+            }
+
+            @Override
+            public PoolStatistics getPoolStatistics() {
+                return null;
+            }
+        });
+
+        assertThat(restClient.get("/eureka/apps"), is("{}"));
+        assertThat(restClient.delete("/eureka/apps/test/test"), is("{}"));
+        assertThat(requests, contains("GET /eureka/apps", "DELETE /eureka/apps/test/test"));
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void drain(final InputStream stream) throws IOException {
+        byte[] buffer = new byte[1024];
+        while (stream.read(buffer) != -1) {
+            // the server keeps the connection alive only if the request body was consumed
+        }
+    }
+
+    private static class FirstCharacter implements ResponseConsumer<Character> {
+
+        @Override
+        public Character consume(final InputStream content, final long contentLength, final Charset charset) throws IOException {
+            return (char) content.read();
+        }
+
+    }
+
+    private RestClient createClient(final ConnectionPool connectionPool) {
+        return new RestClient.Builder()
+                .withHost("127.0.0.1")
+                .withPort(server.getAddress().getPort())
+                .withConnectionPool(connectionPool)
+                .build();
+    }
+
+    private RestClient createClient(final Transport transport) {
+        return new RestClient.Builder()
+                .withHost("127.0.0.1")
+                .withPort(server.getAddress().getPort())
+                .withTransport(transport)
+                .build();
+    }
+
+    private RestClient createClient(final HttpReactor reactor) {
+        return new RestClient.Builder()
+                .withHost("127.0.0.1")
+                .withPort(server.getAddress().getPort())
+                .withReactor(reactor)
+                .build();
+    }
+
+}
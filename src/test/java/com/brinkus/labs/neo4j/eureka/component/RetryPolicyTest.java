@@ -0,0 +1,85 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.type.config.Retry;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void exponentialUpperBound() {
+        RetryPolicy policy = new RetryPolicy.Builder()
+                .withBaseDelayMs(100)
+                .withMaxDelayMs(1000)
+                .build();
+
+        assertThat(policy.getMaxDelayMs(1), is(100L));
+        assertThat(policy.getMaxDelayMs(2), is(200L));
+        assertThat(policy.getMaxDelayMs(3), is(400L));
+        assertThat(policy.getMaxDelayMs(4), is(800L));
+        assertThat(policy.getMaxDelayMs(5), is(1000L));
+        assertThat(policy.getMaxDelayMs(100), is(1000L));
+    }
+
+    @Test
+    public void fullJitter() {
+        RetryPolicy policy = new RetryPolicy.Builder()
+                .withBaseDelayMs(100)
+                .withMaxDelayMs(1000)
+                .build();
+
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.getDelayMs(3);
+            assertThat(delay, greaterThanOrEqualTo(0L));
+            assertThat(delay, lessThanOrEqualTo(400L));
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        // the delays are spread over the whole interval
+        assertThat(min, lessThanOrEqualTo(100L));
+        assertThat(max, greaterThanOrEqualTo(300L));
+    }
+
+    @Test
+    public void fromSettings() {
+        Retry retry = new Retry();
+        retry.setMaxAttempts(5);
+        retry.setBaseDelayMs(50);
+        retry.setMaxDelayMs(150);
+
+        RetryPolicy policy = new RetryPolicy.Builder().withRetry(retry).build();
+        assertThat(policy.getMaxAttempts(), is(5));
+        assertThat(policy.getMaxDelayMs(1), is(50L));
+        assertThat(policy.getMaxDelayMs(3), is(150L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxAttempts() {
+        new RetryPolicy.Builder().withMaxAttempts(0).build();
+    }
+
+}
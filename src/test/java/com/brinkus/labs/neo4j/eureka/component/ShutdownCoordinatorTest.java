@@ -0,0 +1,328 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import com.brinkus.labs.neo4j.eureka.TestRegistrations;
+import com.brinkus.labs.neo4j.eureka.exception.RequestFailedException;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
+import com.brinkus.labs.neo4j.eureka.type.LifecycleStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ShutdownCoordinatorTest {
+
+    private static final String OUT_OF_SERVICE_URI = "/eureka/apps/test/test:test:8888/status?value=OUT_OF_SERVICE";
+
+    private LifecycleScheduler scheduler;
+
+    @Before
+    public void before() {
+        scheduler = new LifecycleScheduler.Builder()
+                .withInitialJitterMs(0)
+                .withHeartbeatJitterPercent(0)
+                .build();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void buildWithoutScheduler() {
+        new ShutdownCoordinator.Builder().build();
+    }
+
+    @Test
+    public void deregisterConcurrently() throws Exception {
+        RestClient[] restClients = new RestClient[3];
+        for (int i = 0; i < restClients.length; i++) {
+            restClients[i] = createRestClient(300);
+            when(restClients[i].getHost()).thenReturn("discovery" + i);
+            scheduleRegistered(restClients[i]);
+        }
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .withTimeoutMs(2000)
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        assertThat(coordinator.execute(), is(true));
+        assertThat(System.currentTimeMillis() - startTime, lessThan(800L));
+
+        for (RestClient restClient : restClients) {
+            verify(restClient, times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        }
+        for (LifecycleTask task : scheduler.getTasks()) {
+            assertThat(task.isCancelled(), is(true));
+            assertThat(task.getLifecycleService().getStatus(), is(LifecycleStatus.DEREGISTERED));
+        }
+    }
+
+    @Test
+    public void giveUpAtTheDeadline() throws Exception {
+        scheduleRegistered(createRestClient(0));
+        scheduleRegistered(createRestClient(3000));
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .withTimeoutMs(300)
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        assertThat(coordinator.execute(), is(false));
+        assertThat(System.currentTimeMillis() - startTime, lessThan(1000L));
+    }
+
+    @Test
+    public void skipUnregistered() throws Exception {
+        LifecycleScheduler delayedScheduler = new LifecycleScheduler.Builder()
+                .withInitialJitterMs(60000)
+                .build();
+        RestClient restClient = createRestClient(0);
+        delayedScheduler.schedule(TestRegistrations.lifecycleService(restClient));
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(delayedScheduler)
+                .build();
+
+        assertThat(coordinator.execute(), is(true));
+        verify(restClient, times(0)).post(anyString(), any(byte[].class), eq(RestClient.STATUS_NO_CONTENT), any(Deadline.class));
+        verify(restClient, times(0)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void executeOnce() throws Exception {
+        RestClient restClient = createRestClient(0);
+        scheduleRegistered(restClient);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .build();
+
+        assertThat(coordinator.execute(), is(true));
+        assertThat(coordinator.execute(), is(false));
+        verify(restClient, times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void drainBeforeDeregistration() throws Exception {
+        RestClient restClient = createRestClient(0);
+        scheduleRegistered(restClient);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .withDrainMs(300)
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        assertThat(coordinator.drain(), is(true));
+        assertThat(System.currentTimeMillis() - startTime, greaterThanOrEqualTo(300L));
+        verify(restClient, times(0)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(coordinator.execute(), is(true));
+
+        InOrder inOrder = inOrder(restClient);
+        inOrder.verify(restClient).put(eq(OUT_OF_SERVICE_URI), eq(RestClient.STATUS_OK), any(Deadline.class));
+        inOrder.verify(restClient).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void heartbeatsDuringDrain() throws Exception {
+        RestClient restClient = createRestClient(0);
+        LifecycleTask task = scheduler.schedule(TestRegistrations.lifecycleService(restClient), 50);
+        while (task.getLifecycleService().getStatus() != LifecycleStatus.REGISTERED) {
+            Thread.sleep(10);
+        }
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .withDrainMs(300)
+                .build();
+
+        assertThat(coordinator.drain(), is(true));
+        assertThat(coordinator.execute(), is(true));
+
+        // the lease is renewed until the de-registration
+        InOrder inOrder = inOrder(restClient);
+        inOrder.verify(restClient).put(eq(OUT_OF_SERVICE_URI), eq(RestClient.STATUS_OK), any(Deadline.class));
+        inOrder.verify(restClient, atLeast(3)).put(contains("lastDirtyTimestamp"), eq(RestClient.STATUS_OK), any(Deadline.class));
+        inOrder.verify(restClient).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(task.isCancelled(), is(true));
+    }
+
+    @Test
+    public void deregisterFormerPrimary() throws Exception {
+        List<LifecycleService> lifecycleServices = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            RestClient restClient = createRestClient(0);
+            when(restClient.getHost()).thenReturn("discovery" + i);
+            when(restClient.put(contains("lastDirtyTimestamp"), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                    .thenThrow(new RequestFailedException("Connection refused", null));
+            lifecycleServices.add(TestRegistrations.lifecycleService(restClient));
+        }
+        LifecycleTask task = scheduler.schedulePrimary(lifecycleServices, 20);
+        while (task.getFailoverCount() < 1) {
+            Thread.sleep(10);
+        }
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .build();
+
+        assertThat(coordinator.execute(), is(true));
+
+        // the discovery service left by the failover is de-registered too
+        for (LifecycleService lifecycleService : lifecycleServices) {
+            verify(lifecycleService.getRestClient(), times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+            assertThat(lifecycleService.getStatus(), is(LifecycleStatus.DEREGISTERED));
+        }
+    }
+
+    @Test
+    public void executeRegistered() throws Exception {
+        RestClient restClient = createRestClient(0);
+        scheduleRegistered(restClient);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .build();
+        coordinator.register();
+
+        ShutdownCoordinator.executeRegistered();
+
+        // the shutdown de-registers right away
+        verify(restClient, times(0)).put(eq(OUT_OF_SERVICE_URI), eq(RestClient.STATUS_OK), any(Deadline.class));
+        verify(restClient, times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        assertThat(coordinator.execute(), is(false));
+        assertThat(ShutdownCoordinator.drainRegistered(), is(false));
+    }
+
+    @Test
+    public void drainRegistered() throws Exception {
+        RestClient restClient = createRestClient(0);
+        scheduleRegistered(restClient);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .build();
+        coordinator.register();
+
+        assertThat(ShutdownCoordinator.drainRegistered(), is(true));
+        verify(restClient, times(1)).put(eq(OUT_OF_SERVICE_URI), eq(RestClient.STATUS_OK), any(Deadline.class));
+        verify(restClient, times(0)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+
+        ShutdownCoordinator.executeRegistered();
+        verify(restClient, times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void beforeShutdownFirst() throws Exception {
+        final RestClient restClient = createRestClient(0);
+        scheduleRegistered(restClient);
+        final AtomicBoolean executed = new AtomicBoolean();
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .withBeforeShutdown(new Runnable() {
+                    @Override
+                    public void run() {
+                        executed.set(true);
+                    }
+                })
+                .build();
+
+        final AtomicBoolean executedBeforeDeregistration = new AtomicBoolean();
+        when(restClient.delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) {
+                executedBeforeDeregistration.set(executed.get());
+                return RestClient.NO_CONTENT;
+            }
+        });
+
+        assertThat(coordinator.execute(), is(true));
+        assertThat(executedBeforeDeregistration.get(), is(true));
+        verify(restClient, times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    @Test
+    public void closeResourcesAfterDeregistration() throws Exception {
+        RestClient restClient = createRestClient(0);
+        scheduleRegistered(restClient);
+        Closeable resource = mock(Closeable.class);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .withResources(Collections.singletonList(resource))
+                .build();
+
+        assertThat(coordinator.execute(), is(true));
+
+        InOrder inOrder = inOrder(restClient, resource);
+        inOrder.verify(restClient).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+        inOrder.verify(resource).close();
+    }
+
+    @Test
+    public void skipDrainWindowWhenOutOfServiceFails() throws Exception {
+        RestClient restClient = createRestClient(0);
+        when(restClient.put(eq(OUT_OF_SERVICE_URI), eq(RestClient.STATUS_OK), any(Deadline.class)))
+                .thenThrow(new RequestFailedException("Connection refused", null));
+        scheduleRegistered(restClient);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .withScheduler(scheduler)
+                .withDrainMs(30000)
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        assertThat(coordinator.drain(), is(false));
+        assertThat(System.currentTimeMillis() - startTime, lessThan(1000L));
+        assertThat(coordinator.execute(), is(true));
+        verify(restClient, times(1)).delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class));
+    }
+
+    private void scheduleRegistered(final RestClient restClient) throws InterruptedException {
+        LifecycleTask task = scheduler.schedule(TestRegistrations.lifecycleService(restClient));
+        while (task.getLifecycleService().getStatus() != LifecycleStatus.REGISTERED) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static RestClient createRestClient(final long deleteMs) throws Exception {
+        RestClient restClient = mock(RestClient.class);
+        when(restClient.delete(anyString(), eq(RestClient.STATUS_OK), any(Deadline.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(deleteMs);
+                return RestClient.NO_CONTENT;
+            }
+        });
+        return restClient;
+    }
+
+}
@@ -18,16 +18,16 @@
 
 package com.brinkus.labs.neo4j.eureka.component;
 
+import com.brinkus.labs.neo4j.eureka.TestRegistrations;
 import com.brinkus.labs.neo4j.eureka.exception.ResponseCodeNotMatchingException;
-import com.brinkus.labs.neo4j.eureka.type.config.Registration;
-import com.brinkus.labs.neo4j.eureka.type.config.RegistrationPort;
-import com.netflix.appinfo.AmazonInfo;
+import com.brinkus.labs.neo4j.eureka.type.Deadline;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -40,24 +40,9 @@ public class ShutdownHookTest {
 
     @Before
     public void before() {
-        RegistrationPort port = new RegistrationPort();
-        port.setPort(8888);
-        port.setEnabled(true);
-
-        Registration registration = new Registration();
-        registration.setName("test");
-        registration.setHostname("test.host.com");
-        registration.setPort(port);
-        registration.setSecurePort(new RegistrationPort());
-
         restClient = mock(RestClient.class);
 
-        LifecycleService lifecycleService = new LifecycleService.Builder()
-                .withRegistration(registration)
-                .withRestClient(restClient)
-                .withAwsInfo(new AmazonInfo())
-                .build();
-
+        LifecycleService lifecycleService = TestRegistrations.lifecycleService(restClient);
         lifecycleService.createInstanceInfo();
 
         shutdownHook = new ShutdownHook.Builder()
@@ -78,7 +63,7 @@ public class ShutdownHookTest {
 
     @Test
     public void shutdownSuccess() throws Exception {
-        when(restClient.delete(eq("/eureka/apps/test/test:test:8888"))).thenReturn("");
+        when(restClient.delete(eq("/eureka/apps/test/test:test:8888"), eq(RestClient.STATUS_OK), any(Deadline.class))).thenReturn("");
 
         boolean result = shutdownHook.execute();
         assertThat(result, is(true));
@@ -86,7 +71,7 @@ public class ShutdownHookTest {
 
     @Test
     public void shutdownFailed() throws Exception {
-        when(restClient.delete(eq("/eureka/apps/test/test:test:8888"))).thenThrow(ResponseCodeNotMatchingException.class);
+        when(restClient.delete(eq("/eureka/apps/test/test:test:8888"), eq(RestClient.STATUS_OK), any(Deadline.class))).thenThrow(ResponseCodeNotMatchingException.class);
 
         boolean result = shutdownHook.execute();
         assertThat(result, is(false));
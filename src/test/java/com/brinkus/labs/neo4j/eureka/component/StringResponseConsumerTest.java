@@ -0,0 +1,77 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StringResponseConsumerTest {
+
+    private final StringResponseConsumer consumer = new StringResponseConsumer();
+
+    @Test
+    public void unknownLength() throws Exception {
+        String body = largeBody();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(consumer.consume(new ByteArrayInputStream(bytes), -1, StandardCharsets.UTF_8), is(body));
+        assertThat(consumer.consume(new ByteArrayInputStream(new byte[0]), -1, StandardCharsets.UTF_8), is(""));
+    }
+
+    @Test
+    public void knownLength() throws Exception {
+        String body = largeBody();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(consumer.consume(new ByteArrayInputStream(bytes), bytes.length, StandardCharsets.UTF_8), is(body));
+        assertThat(consumer.consume(new ByteArrayInputStream(new byte[0]), 0, StandardCharsets.UTF_8), is(""));
+    }
+
+    @Test
+    public void bufferSizedContent() throws Exception {
+        byte[] bytes = new byte[StringResponseConsumer.INITIAL_SIZE];
+        Arrays.fill(bytes, (byte) 'a');
+
+        String content = consumer.consume(new ByteArrayInputStream(bytes), bytes.length, StandardCharsets.US_ASCII);
+        assertThat(content.length(), is(bytes.length));
+    }
+
+    @Test
+    public void charset() throws Exception {
+        byte[] bytes = "{\"name\":\"\u00e1rv\u00edzt\u00fcr\u00f6\"}".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertThat(consumer.consume(new ByteArrayInputStream(bytes), bytes.length, StandardCharsets.ISO_8859_1),
+                   is(new String(bytes, StandardCharsets.ISO_8859_1)));
+    }
+
+    private static String largeBody() {
+        StringBuilder builder = new StringBuilder("{\"applications\":[");
+        for (int i = 0; i < 2000; i++) {
+            builder.append("{\"name\":\"NEO4J-").append(i).append("\",\"status\":\"UP\"},");
+        }
+        return builder.append("{}]}").toString();
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Netflix Eureka Client Plugin for Neo4j
+ * Copyright (C) 2016  Balazs Brinkus
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.brinkus.labs.neo4j.eureka.component;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ThreadFactoriesTest {
+
+    @Test
+    public void platformThreads() {
+        ThreadFactory factory = ThreadFactories.create("test", false);
+        Thread first = factory.newThread(new NoOp());
+        Thread second = factory.newThread(new NoOp());
+
+        assertThat(first.getName(), is("test-1"));
+        assertThat(second.getName(), is("test-2"));
+        assertThat(first.isDaemon(), is(true));
+        assertThat(isVirtual(first), is(false));
+    }
+
+    @Test
+    public void virtualThreadsIfSupported() throws Exception {
+        ThreadFactory factory = ThreadFactories.create("test", true);
+        final CountDownLatch executed = new CountDownLatch(1);
+        Thread thread = factory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        });
+        thread.start();
+
+        assertThat(executed.await(1, TimeUnit.SECONDS), is(true));
+        assertThat(thread.getName(), startsWith("test-"));
+        assertThat(isVirtual(thread), is(ThreadFactories.isVirtualThreadSupported()));
+    }
+
+    private static boolean isVirtual(final Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static final class NoOp implements Runnable {
+
+        @Override
+        public void run() {
+            // nothing to do
+        }
+
+    }
+
+}
@@ -33,12 +33,19 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HealthCheckResourceTest {
@@ -126,4 +133,34 @@ public class HealthCheckResourceTest {
         assertThat(healthCheck.getDescription(), is("Neo4j health check failed!"));
     }
 
+    @Test
+    public void cachedStatus() throws Exception {
+        when(service.isAvailable(1000)).thenReturn(true);
+
+        healthCheckResource.health();
+        Response health = new HealthCheckResource(service).health();
+        HealthCheck healthCheck = mapper.readValue(((byte[]) health.getEntity()), HealthCheck.class);
+
+        assertThat(healthCheck.getCode(), is(HealthStatusCode.UP));
+        assertThat(health.getMetadata().getFirst(HealthCheckResource.MAX_STALE_HEADER), is((Object) 15000L));
+        assertThat((Long) health.getMetadata().getFirst(HealthCheckResource.AGE_HEADER), is(lessThan(15000L)));
+        verify(service, times(1)).isAvailable(1000);
+    }
+
+    @Test
+    public void preEncodedResponse() throws Exception {
+        when(service.isAvailable(1000)).thenReturn(true);
+
+        Response first = healthCheckResource.health();
+        Response second = new HealthCheckResource(service).health();
+        byte[] entity = (byte[]) first.getEntity();
+
+        assertThat(second.getEntity(), is(sameInstance(first.getEntity())));
+        assertThat(first.getMetadata().getFirst(HttpHeaders.CONTENT_LENGTH), is((Object) entity.length));
+        assertThat(first.getMetadata().getFirst(HttpHeaders.CACHE_CONTROL), is((Object) "no-cache, no-store"));
+        assertThat(new String(entity, StandardCharsets.UTF_8),
+                   startsWith("{\"code\":\"UP\",\"description\":\"Neo4j health check was success.\","
+                                      + "\"checks\":[{\"name\":\"availability\",\"code\":\"UP\",\"durationMs\":"));
+    }
+
 }